@@ -0,0 +1,74 @@
+package com.calc.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.calc.calculator.Calculator;
+import com.calc.calculator.array.ArrayCalculator;
+import com.calc.calculator.array.ArrayResult;
+import com.calc.calculator.operation.Operation;
+
+// One element-wise call over two arrays: the calculator per element, the scalar kernels
+// and the SIMD kernels. 1000 elements stay in L1/L2; a million are bound by memory bandwidth.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ArrayBenchmark {
+
+    @Param({"add", "div"})
+    private String operation;
+
+    @Param({"1000", "1048576"})
+    private int length;
+
+    private final Calculator calculator = new Calculator();
+    private final ArrayCalculator scalar = new ArrayCalculator(calculator, false);
+    private final ArrayCalculator vectorized = new ArrayCalculator(calculator, true);
+
+    private Operation op;
+    private double[] a;
+    private double[] b;
+
+    @Setup
+    public void setUp() {
+        if (!vectorized.isVectorized()) {
+            throw new IllegalStateException("Run with --add-modules jdk.incubator.vector to measure the SIMD kernels");
+        }
+        op = calculator.getRegistry().byName(operation);
+        a = new double[length];
+        b = new double[length];
+        // One zero divisor in a thousand, so div also pays for reporting them
+        for (int i = 0; i < length; i++) {
+            a[i] = i * 0.5 + 1;
+            b[i] = i % 1000 == 999 ? 0.0 : (i % 7) + 0.25;
+        }
+    }
+
+    // What a client looping over the single-operation API pays, minus the transport
+    @Benchmark
+    public double[] perElement() {
+        double[] out = new double[length];
+        for (int i = 0; i < length; i++) {
+            out[i] = calculator.evaluate(op, a[i], b[i]).value();
+        }
+        return out;
+    }
+
+    @Benchmark
+    public ArrayResult scalar() {
+        return scalar.evaluate(op, a, b);
+    }
+
+    @Benchmark
+    public ArrayResult vectorized() {
+        return vectorized.evaluate(op, a, b);
+    }
+}
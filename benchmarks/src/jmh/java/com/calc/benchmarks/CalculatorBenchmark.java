@@ -0,0 +1,76 @@
+package com.calc.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+
+// Boxed, name-dispatched makeOperation against the primitive opcode paths, and the two error paths
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CalculatorBenchmark {
+
+    private static final byte DIV = 4;
+
+    private final Calculator calculator = new Calculator();
+
+    // Non-final fields keep the JIT from folding the operands
+    private Double boxedA = 15.0;
+    private Double boxedB = 3.0;
+    private double a = 15.0;
+    private double b = 3.0;
+    private double zero = 0.0;
+
+    @Benchmark
+    public Double makeOperationBoxed() {
+        return calculator.makeOperation(boxedA, boxedB, "div");
+    }
+
+    @Benchmark
+    public double calculatePrimitive() {
+        return calculator.calculate(DIV, a, b);
+    }
+
+    @Benchmark
+    public CalculationResult evaluateByOpcode() {
+        return calculator.evaluate(DIV, a, b);
+    }
+
+    @Benchmark
+    public CalculationResult evaluateByName() {
+        return calculator.evaluate("div", a, b);
+    }
+
+    // Error path of the original API: the operation throws
+    @Benchmark
+    public Object makeOperationDivisionByZero() {
+        try {
+            return calculator.makeOperation(boxedA, zero, "div");
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    // Error path of the exception-free API: validate returns a code
+    @Benchmark
+    public CalculationResult evaluateDivisionByZero() {
+        return calculator.evaluate(DIV, a, zero);
+    }
+
+    @Benchmark
+    public Object makeOperationUnsupported() {
+        try {
+            return calculator.makeOperation(boxedA, boxedB, "mod");
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
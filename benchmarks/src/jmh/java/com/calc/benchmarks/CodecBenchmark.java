@@ -0,0 +1,86 @@
+package com.calc.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.rest.codec.CalculationCodec;
+import com.calc.rest.dto.CalculationRequest;
+import com.calc.rest.dto.CalculationResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// JSON (what Spring Kafka's JsonSerializer does) against the binary layout, both directions
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CalculationRequest request;
+    private CalculationResponse response;
+    private byte[] requestJson;
+    private byte[] requestBinary;
+    private byte[] responseJson;
+    private byte[] responseBinary;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        // As sent today: the id travels in a header, not in the payload
+        request = new CalculationRequest(null, 1.5, 2.25, "add");
+        request.setOpcode(BuiltinOperation.ADD.opcode());
+        response = new CalculationResponse(null, 3.75);
+        requestJson = objectMapper.writeValueAsBytes(request);
+        requestBinary = CalculationCodec.encode(request);
+        responseJson = objectMapper.writeValueAsBytes(response);
+        responseBinary = CalculationCodec.encode(response);
+    }
+
+    @Benchmark
+    public byte[] encodeRequestJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] encodeRequestBinary() {
+        return CalculationCodec.encode(request);
+    }
+
+    @Benchmark
+    public CalculationRequest decodeRequestJson() throws Exception {
+        return objectMapper.readValue(requestJson, CalculationRequest.class);
+    }
+
+    @Benchmark
+    public CalculationRequest decodeRequestBinary() {
+        return CalculationCodec.decodeRequest(requestBinary);
+    }
+
+    @Benchmark
+    public byte[] encodeResponseJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] encodeResponseBinary() {
+        return CalculationCodec.encode(response);
+    }
+
+    @Benchmark
+    public CalculationResponse decodeResponseJson() throws Exception {
+        return objectMapper.readValue(responseJson, CalculationResponse.class);
+    }
+
+    @Benchmark
+    public CalculationResponse decodeResponseBinary() {
+        return CalculationCodec.decodeResponse(responseBinary);
+    }
+}
@@ -0,0 +1,72 @@
+package com.calc.benchmarks;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.DecimalCalculator;
+import com.calc.calculator.DecimalResult;
+
+// Decimal mode against double mode, both starting from the operand text a request carries.
+// Whole numbers and exact fractions such as 1.5 and 0.25 take DecimalCalculator's exact double path,
+// the other operands its BigDecimal path.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DecimalBenchmark {
+
+    @Param({"add", "mul", "div"})
+    private String operation;
+
+    @Param({"15:3", "1.5:0.25", "0.1:0.2", "123456789012345678901234567890:7"})
+    private String operands;
+
+    private final Calculator calculator = new Calculator();
+    private final DecimalCalculator decimalCalculator = new DecimalCalculator(calculator, MathContext.DECIMAL128);
+
+    private String a;
+    private String b;
+
+    @Setup
+    public void setUp() {
+        int separator = operands.indexOf(':');
+        a = operands.substring(0, separator);
+        b = operands.substring(separator + 1);
+    }
+
+    // Double mode: parse and calculate, as before decimal support
+    @Benchmark
+    public CalculationResult doubleArithmetic() {
+        return calculator.evaluate(operation, Double.parseDouble(a), Double.parseDouble(b));
+    }
+
+    // Decimal mode: exact double path when possible, BigDecimal otherwise
+    @Benchmark
+    public DecimalResult decimalArithmetic() {
+        return decimalCalculator.evaluate(operation, a, b);
+    }
+
+    // Decimal mode without the double path
+    @Benchmark
+    public String bigDecimalOnly() {
+        BigDecimal x = new BigDecimal(a);
+        BigDecimal y = new BigDecimal(b);
+        BigDecimal result = switch (operation) {
+            case "add" -> x.add(y, MathContext.DECIMAL128);
+            case "mul" -> x.multiply(y, MathContext.DECIMAL128);
+            default -> x.divide(y, MathContext.DECIMAL128);
+        };
+        return result.stripTrailingZeros().toPlainString();
+    }
+}
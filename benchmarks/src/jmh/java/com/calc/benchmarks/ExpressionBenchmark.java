@@ -0,0 +1,64 @@
+package com.calc.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.expression.CompiledExpression;
+import com.calc.calculator.expression.ExpressionParser;
+
+// One evaluation of a cached formula: walking the tree against the generated code.
+// parseAndEvaluate is the cost without the expression cache.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExpressionBenchmark {
+
+    @Param({
+        "(a + b) * c / d",
+        "a * a + 2 * a * b + b * b - div(c, d)",
+        "((a - b) * (a - b) + (c - d) * (c - d)) / (a * a + b * b + c * c + d * d) * -100"
+    })
+    private String expression;
+
+    private final Calculator calculator = new Calculator();
+
+    private CompiledExpression interpreted;
+    private CompiledExpression compiled;
+
+    // Not final, so the JIT cannot fold the formulas into constants
+    private double[] values = {1.5, 2.5, 3.5, 4.5};
+
+    @Setup
+    public void setUp() {
+        interpreted = ExpressionParser.parse(expression, calculator, CompiledExpression.NEVER);
+        compiled = ExpressionParser.parse(expression, calculator, CompiledExpression.NEVER);
+        if (!compiled.compile()) {
+            throw new IllegalStateException("Could not generate code for " + expression);
+        }
+    }
+
+    @Benchmark
+    public CalculationResult interpreted() {
+        return interpreted.evaluate(values);
+    }
+
+    @Benchmark
+    public CalculationResult compiled() {
+        return compiled.evaluate(values);
+    }
+
+    @Benchmark
+    public CalculationResult parseAndEvaluate() {
+        return ExpressionParser.parse(expression, calculator).evaluate(values);
+    }
+}
@@ -0,0 +1,91 @@
+package com.calc.benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.calc.calculator.array.ArrayCalculator;
+import com.calc.calculator.matrix.Matrix;
+import com.calc.calculator.matrix.MatrixCalculator;
+import com.calc.calculator.matrix.MatrixOperation;
+import com.calc.calculator.matrix.MatrixResult;
+
+// Square products: the textbook loop, the blocked kernel on one thread, and the blocked kernel
+// split over the common pool. 128 fits in L2; from 1024 on, b no longer fits in most L2 caches.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MatrixBenchmark {
+
+    @Param({"mul", "tmul"})
+    private String operation;
+
+    @Param({"128", "512", "1024"})
+    private int size;
+
+    private ForkJoinPool singleThread;
+    private MatrixCalculator sequential;
+    private final MatrixCalculator parallel = new MatrixCalculator();
+
+    private MatrixOperation op;
+    private Matrix a;
+    private Matrix b;
+
+    @Setup
+    public void setUp() {
+        singleThread = new ForkJoinPool(1);
+        sequential = new MatrixCalculator(new ArrayCalculator(), singleThread, MatrixCalculator.MAX_ELEMENTS);
+        op = MatrixOperation.byName(operation);
+        double[] x = new double[size * size];
+        double[] y = new double[size * size];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (i % 17) * 0.25 - 2;
+            y[i] = (i % 13) * 0.5 + 1;
+        }
+        a = new Matrix(size, size, x);
+        b = new Matrix(size, size, y);
+    }
+
+    @TearDown
+    public void tearDown() {
+        singleThread.shutdown();
+    }
+
+    // i-k-j order, already the cache-friendly one of the naive loops; tmul reads a down its columns
+    @Benchmark
+    public double[] naive() {
+        int n = size;
+        double[] x = a.data();
+        double[] y = b.data();
+        double[] c = new double[n * n];
+        boolean transposed = op == MatrixOperation.TRANSPOSE_MULTIPLY;
+        for (int i = 0; i < n; i++) {
+            for (int p = 0; p < n; p++) {
+                double aip = transposed ? x[p * n + i] : x[i * n + p];
+                for (int j = 0; j < n; j++) {
+                    c[i * n + j] += aip * y[p * n + j];
+                }
+            }
+        }
+        return c;
+    }
+
+    @Benchmark
+    public MatrixResult blocked() {
+        return sequential.evaluate(op, a, b);
+    }
+
+    @Benchmark
+    public MatrixResult blockedParallel() {
+        return parallel.evaluate(op, a, b);
+    }
+}
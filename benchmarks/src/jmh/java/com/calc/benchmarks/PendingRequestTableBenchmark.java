@@ -0,0 +1,89 @@
+package com.calc.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.RestErrorCodes;
+import com.calc.rest.pending.HashedWheelTimer;
+import com.calc.rest.pending.PendingRequestTable;
+
+/**
+ * Register/complete cycle of a pending request under contention: one thread per
+ * in-flight caller registers a request and immediately completes it, as the reply
+ * listener would. The table is pre-filled so lookups probe a realistically loaded
+ * table. The ConcurrentHashMap with String ids is the structure it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(8)
+public class PendingRequestTableBenchmark {
+
+    private static final long TIMEOUT_MS = 60_000;
+
+    @Param({ "0", "10000" })
+    private int backlog;
+
+    private HashedWheelTimer timer;
+    private PendingRequestTable<CalculationResponse> table;
+    private ConcurrentHashMap<String, CompletableFuture<CalculationResponse>> map;
+    private final AtomicLong threadIds = new AtomicLong();
+
+    @State(Scope.Thread)
+    public static class Ids {
+        long high;
+        long low;
+
+        @Setup
+        public void setUp(PendingRequestTableBenchmark benchmark) {
+            high = benchmark.threadIds.incrementAndGet();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        timer = new HashedWheelTimer("benchmark-timeout", 10, 512);
+        table = new PendingRequestTable<>(timer, 1_000_000);
+        map = new ConcurrentHashMap<>();
+        for (int i = 0; i < backlog; i++) {
+            table.register(-1, i, new CompletableFuture<>(), TIMEOUT_MS, () -> new CalculationResponse(null, RestErrorCodes.TIMEOUT));
+            map.put(UUID.randomUUID().toString(), new CompletableFuture<>());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        timer.close();
+    }
+
+    @Benchmark
+    public CompletableFuture<CalculationResponse> table(Ids ids) {
+        long low = ids.low++;
+        CompletableFuture<CalculationResponse> future = new CompletableFuture<>();
+        table.register(ids.high, low, future, TIMEOUT_MS, () -> new CalculationResponse(null, RestErrorCodes.TIMEOUT));
+        return table.remove(ids.high, low);
+    }
+
+    @Benchmark
+    public CompletableFuture<CalculationResponse> concurrentHashMap(Ids ids) {
+        String id = ids.high + "-" + ids.low++;
+        map.put(id, new CompletableFuture<>());
+        return map.remove(id);
+    }
+}
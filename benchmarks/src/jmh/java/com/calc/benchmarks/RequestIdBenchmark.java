@@ -0,0 +1,67 @@
+package com.calc.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import com.calc.rest.id.RandomRequestIdGenerator;
+import com.calc.rest.id.RequestId;
+import com.calc.rest.id.RequestIdGenerator;
+import com.calc.rest.id.TimeOrderedRequestIdGenerator;
+
+// Shared generators, as in the service; the threaded variants show contention on the counter
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestIdBenchmark {
+
+    private final RequestIdGenerator timeOrdered = new TimeOrderedRequestIdGenerator();
+    private final RequestIdGenerator random = new RandomRequestIdGenerator();
+
+    // What every request used to pay
+    @Benchmark
+    public String randomUuidString() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public RequestId timeOrdered() {
+        return timeOrdered.next();
+    }
+
+    @Benchmark
+    public RequestId random() {
+        return random.next();
+    }
+
+    // The Kafka path: id plus header bytes, no text
+    @Benchmark
+    public byte[] timeOrderedHeaderBytes() {
+        return timeOrdered.next().toBytes();
+    }
+
+    // Text is only needed for the HTTP response header
+    @Benchmark
+    public String timeOrderedString() {
+        return timeOrdered.next().toString();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String randomUuidStringContended() {
+        return UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RequestId timeOrderedContended() {
+        return timeOrdered.next();
+    }
+}
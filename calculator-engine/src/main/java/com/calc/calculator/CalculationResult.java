@@ -0,0 +1,18 @@
+package com.calc.calculator;
+
+
+// Outcome of a calculation: either a value or one of ErrorCodes, never an exception
+public record CalculationResult(double value, int errorCode) {
+
+    public static CalculationResult ok(double value) {
+        return new CalculationResult(value, ErrorCodes.NONE);
+    }
+
+    public static CalculationResult error(int errorCode) {
+        return new CalculationResult(Double.NaN, errorCode);
+    }
+
+    public boolean isSuccess() {
+        return errorCode == ErrorCodes.NONE;
+    }
+}
@@ -0,0 +1,85 @@
+package com.calc.calculator;
+
+import java.util.Objects;
+
+import com.calc.calculator.operation.Operation;
+import com.calc.calculator.operation.OperationRegistry;
+
+public class Calculator {
+    private Double operand_a;
+    private Double operand_b;
+
+    private final OperationRegistry registry;
+
+    public Calculator() {
+        this(OperationRegistry.withDefaults());
+    }
+
+    public Calculator(OperationRegistry registry) {
+        this.registry = registry;
+    }
+
+    // gets
+    public Double getOperandA() {
+        return operand_a;
+    }
+    public Double getOperandB() {
+        return operand_b;
+    }
+    
+    // sets
+    public void setOperandA(Double op_a) {
+        this.operand_a = op_a;
+    }
+    public void setOperandB(Double op_b) {
+        this.operand_b = op_b;
+    }
+
+    // operations
+    public Double makeOperation(Double op_a, Double op_b, String operation) {
+        Operation op = registry.byName(Objects.requireNonNull(operation, "operation"));
+        if (op == null) {
+            throw new IllegalArgumentException("Unsupported operation: " + operation);
+        }
+        return op.apply(op_a, op_b);
+    }
+
+    // Hot path: opcode dispatch on primitives, no string hashing or boxing
+    public double calculate(byte opcode, double op_a, double op_b) {
+        Operation op = registry.byOpcode(opcode);
+        if (op == null) {
+            throw new IllegalArgumentException("Unsupported operation: opcode " + opcode);
+        }
+        return op.apply(op_a, op_b);
+    }
+
+    // Exception-free variants: failures come back as an error code
+    public CalculationResult evaluate(byte opcode, double op_a, double op_b) {
+        return evaluate(registry.byOpcode(opcode), op_a, op_b);
+    }
+
+    public CalculationResult evaluate(String operation, double op_a, double op_b) {
+        return evaluate(operation != null ? registry.byName(operation) : null, op_a, op_b);
+    }
+
+    // For callers that resolved the operation themselves; null means unsupported
+    public CalculationResult evaluate(Operation op, double op_a, double op_b) {
+        if (op == null) {
+            return CalculationResult.error(ErrorCodes.UNSUPPORTED_OPERATION);
+        }
+        int errorCode = op.validate(op_a, op_b);
+        if (errorCode != ErrorCodes.NONE) {
+            return CalculationResult.error(errorCode);
+        }
+        try {
+            return CalculationResult.ok(op.apply(op_a, op_b));
+        } catch (RuntimeException e) {
+            // Only reached by plugged-in operations that throw instead of validating
+            return CalculationResult.error(ErrorCodes.OPERATION_FAILED);
+        }
+    }
+
+    public OperationRegistry getRegistry() {
+        return registry;
+    }
+}
@@ -0,0 +1,233 @@
+package com.calc.calculator;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.calculator.operation.Operation;
+
+/**
+ * Decimal arithmetic on operands given as decimal text, rounded to a {@link MathContext}.
+ *
+ * Results are canonical plain decimal strings ("0.3", "1000", never "1E+3" or "2.50").
+ * When both operands and the double result are exact, e.g. 1.5 + 2.25 or 7.5 / 2.5, the
+ * calculation stays on double arithmetic and only the result is written out as decimal
+ * text; everything else is done with {@link BigDecimal}. Plugged-in operations only have a double implementation, so
+ * they are evaluated on the nearest doubles.
+ */
+public class DecimalCalculator {
+
+    // Operands beyond 10^1000 or below 10^-1000 are rejected, so no result text can grow unbounded
+    static final int MAX_MAGNITUDE = 1000;
+
+    // Longest plain decimal text the fast path parses: sign, 18 digits and a point
+    private static final int MAX_FAST_LENGTH = 20;
+    private static final int MAX_FAST_DIGITS = 18;
+    private static final long MAX_EXACT_INTEGER = 1L << 53;
+    private static final long[] POWERS_OF_FIVE = new long[MAX_FAST_DIGITS + 1];
+
+    static {
+        POWERS_OF_FIVE[0] = 1;
+        for (int i = 1; i < POWERS_OF_FIVE.length; i++) {
+            POWERS_OF_FIVE[i] = POWERS_OF_FIVE[i - 1] * 5;
+        }
+    }
+
+    private final Calculator calculator;
+    private final MathContext mathContext;
+
+    public DecimalCalculator(MathContext mathContext) {
+        this(new Calculator(), mathContext);
+    }
+
+    // Shares the operation registry of an existing calculator
+    public DecimalCalculator(Calculator calculator, MathContext mathContext) {
+        this.calculator = calculator;
+        this.mathContext = mathContext;
+    }
+
+    public DecimalResult evaluate(byte opcode, String op_a, String op_b) {
+        return evaluate(calculator.getRegistry().byOpcode(opcode), op_a, op_b);
+    }
+
+    public DecimalResult evaluate(String operation, String op_a, String op_b) {
+        return evaluate(operation != null ? calculator.getRegistry().byName(operation) : null, op_a, op_b);
+    }
+
+    // For callers that resolved the operation themselves; null means unsupported
+    public DecimalResult evaluate(Operation op, String op_a, String op_b) {
+        if (op == null) {
+            return DecimalResult.error(ErrorCodes.UNSUPPORTED_OPERATION);
+        }
+        if (op_a == null || op_b == null) {
+            return DecimalResult.error(ErrorCodes.MISSING_OPERAND);
+        }
+        if (op instanceof BuiltinOperation builtin) {
+            DecimalResult fast = evaluateExact(builtin, exactDouble(op_a), exactDouble(op_b));
+            return fast != null ? fast : evaluateDecimal(builtin, op_a, op_b);
+        }
+        return evaluateDouble(op, op_a, op_b);
+    }
+
+    public MathContext getMathContext() {
+        return mathContext;
+    }
+
+    // Fast path: null unless the operands and the result are all exact doubles
+    private DecimalResult evaluateExact(BuiltinOperation op, double a, double b) {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            return null;
+        }
+        double result;
+        switch (op) {
+            case ADD -> result = exactSum(a, b);
+            case SUB -> result = exactSum(a, -b);
+            case MUL -> {
+                result = a * b;
+                if (Math.fma(a, b, -result) != 0) return null;
+            }
+            case DIV -> {
+                if (b == 0) return DecimalResult.error(ErrorCodes.DIVISION_BY_ZERO);
+                result = a / b;
+                if (Math.fma(result, b, -a) != 0) return null;
+            }
+            default -> { return null; }
+        }
+        if (!Double.isFinite(result)) {
+            return null;
+        }
+        int precision = mathContext.getPrecision();
+        if (result == Math.rint(result) && Math.abs(result) < MAX_EXACT_INTEGER) {
+            long integral = (long) result;
+            String text = Long.toString(integral);
+            if (precision != 0 && text.length() - (integral < 0 ? 1 : 0) > precision) {
+                return null;
+            }
+            return DecimalResult.ok(integral, text);
+        }
+        // Any finite double converts to BigDecimal exactly; only results that would need rounding are left to evaluateDecimal
+        BigDecimal exact = new BigDecimal(result).stripTrailingZeros();
+        if (precision != 0 && exact.precision() > precision) {
+            return null;
+        }
+        return DecimalResult.ok(result, exact.toPlainString());
+    }
+
+    private DecimalResult evaluateDecimal(BuiltinOperation op, String op_a, String op_b) {
+        BigDecimal a = parse(op_a);
+        BigDecimal b = parse(op_b);
+        if (a == null || b == null) {
+            return DecimalResult.error(ErrorCodes.INVALID_OPERAND);
+        }
+        BigDecimal result;
+        try {
+            result = switch (op) {
+                case ADD -> a.add(b, mathContext);
+                case SUB -> a.subtract(b, mathContext);
+                case MUL -> a.multiply(b, mathContext);
+                case DIV -> {
+                    if (b.signum() == 0) yield null;
+                    yield a.divide(b, mathContext);
+                }
+            };
+        } catch (ArithmeticException e) {
+            // Non-terminating expansion at unlimited precision, or RoundingMode.UNNECESSARY
+            return DecimalResult.error(ErrorCodes.INEXACT_RESULT);
+        }
+        if (result == null) {
+            return DecimalResult.error(ErrorCodes.DIVISION_BY_ZERO);
+        }
+        return DecimalResult.ok(result.doubleValue(), result.stripTrailingZeros().toPlainString());
+    }
+
+    private DecimalResult evaluateDouble(Operation op, String op_a, String op_b) {
+        BigDecimal a = parse(op_a);
+        BigDecimal b = parse(op_b);
+        if (a == null || b == null) {
+            return DecimalResult.error(ErrorCodes.INVALID_OPERAND);
+        }
+        CalculationResult result = calculator.evaluate(op, a.doubleValue(), b.doubleValue());
+        if (!result.isSuccess()) {
+            return DecimalResult.error(result.errorCode());
+        }
+        double value = result.value();
+        String text = Double.isFinite(value)
+            ? new BigDecimal(Double.toString(value)).stripTrailingZeros().toPlainString()
+            : null;
+        return new DecimalResult(value, text, ErrorCodes.NONE);
+    }
+
+    // Null for text that is not a decimal number or lies outside the supported magnitude
+    private static BigDecimal parse(String text) {
+        BigDecimal value;
+        try {
+            value = new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (value.signum() == 0) {
+            return value;
+        }
+        long exponent = (long) value.precision() - value.scale() - 1;
+        if (Math.abs(exponent) > MAX_MAGNITUDE || Math.abs((long) value.scale()) > 2L * MAX_MAGNITUDE) {
+            return null;
+        }
+        return value;
+    }
+
+    // a + b when it is exact (two-sum error term is zero), otherwise NaN
+    private static double exactSum(double a, double b) {
+        double sum = a + b;
+        double bVirtual = sum - a;
+        double error = (a - (sum - bVirtual)) + (b - bVirtual);
+        return error == 0 ? sum : Double.NaN;
+    }
+
+    /**
+     * The double equal to plain decimal text such as "-12.375", or NaN when the text has an
+     * exponent, more than 18 digits, or a value no double represents exactly.
+     * m / 10^k is a double exactly when 5^k divides m and m / 5^k fits the 53-bit significand.
+     */
+    static double exactDouble(String text) {
+        int length = text.length();
+        if (length == 0 || length > MAX_FAST_LENGTH) {
+            return Double.NaN;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = -1;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                unscaled = unscaled * 10 + (c - '0');
+                digits++;
+                if (scale >= 0) scale++;
+            } else if (c == '.' && scale < 0) {
+                scale = 0;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || digits > MAX_FAST_DIGITS) {
+            return Double.NaN;
+        }
+        int k = Math.max(scale, 0);
+        long power = POWERS_OF_FIVE[k];
+        if (unscaled % power != 0) {
+            return Double.NaN;
+        }
+        long significand = unscaled / power;
+        if (significand >= MAX_EXACT_INTEGER) {
+            return Double.NaN;
+        }
+        double value = Math.scalb((double) significand, -k);
+        return negative ? -value : value;
+    }
+}
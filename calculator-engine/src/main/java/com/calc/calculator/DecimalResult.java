@@ -0,0 +1,18 @@
+package com.calc.calculator;
+
+
+// Outcome of a decimal calculation: the exact decimal text plus its nearest double, or one of ErrorCodes
+public record DecimalResult(double value, String decimal, int errorCode) {
+
+    public static DecimalResult ok(double value, String decimal) {
+        return new DecimalResult(value, decimal, ErrorCodes.NONE);
+    }
+
+    public static DecimalResult error(int errorCode) {
+        return new DecimalResult(Double.NaN, null, errorCode);
+    }
+
+    public boolean isSuccess() {
+        return errorCode == ErrorCodes.NONE;
+    }
+}
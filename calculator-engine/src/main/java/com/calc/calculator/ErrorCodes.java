@@ -0,0 +1,29 @@
+package com.calc.calculator;
+
+// Numeric error codes reported by the engine and carried in CalculationResponse.errorCode;
+// messages are resolved by service-rest at the HTTP edge. Codes from 100 up are reserved for
+// errors service-rest raises itself
+public final class ErrorCodes {
+
+    public static final int NONE = 0;
+
+    // Sent by the calculator service
+    public static final int DIVISION_BY_ZERO = 1;
+    public static final int UNSUPPORTED_OPERATION = 2;
+    public static final int MISSING_OPERAND = 3;
+    public static final int OPERATION_FAILED = 4;
+    // Decimal operands that are malformed or beyond the supported magnitude
+    public static final int INVALID_OPERAND = 5;
+    // The exact result needs more digits than the configured precision allows
+    public static final int INEXACT_RESULT = 6;
+    // Expression text that does not parse
+    public static final int INVALID_EXPRESSION = 7;
+    // Expression variable without a value
+    public static final int UNBOUND_VARIABLE = 8;
+    // Operand arrays or matrices whose shapes do not fit the operation
+    public static final int DIMENSION_MISMATCH = 9;
+    // Matrix result with more elements than the configured maximum
+    public static final int RESULT_TOO_LARGE = 10;
+
+    private ErrorCodes() {}
+}
@@ -0,0 +1,89 @@
+package com.calc.calculator.array;
+
+import java.util.BitSet;
+
+import com.calc.calculator.Calculator;
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.calculator.operation.Operation;
+
+/**
+ * Element-wise add, sub, mul and div over two equally long double arrays.
+ *
+ * Runs on SIMD kernels (jdk.incubator.vector) when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, and on plain loops otherwise; both give
+ * the same results. Division by zero does not fail the call: those elements are NaN
+ * and reported in {@link ArrayResult#divisionByZero()}. Plugged-in operations have no
+ * array kernels and are rejected as unsupported.
+ */
+public class ArrayCalculator {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private final Calculator calculator;
+    private final ArrayKernels kernels;
+    private final int lanes;
+
+    public ArrayCalculator() {
+        this(new Calculator(), true);
+    }
+
+    // Shares the operation registry of an existing calculator; vectorized=false forces the scalar loops
+    public ArrayCalculator(Calculator calculator, boolean vectorized) {
+        this.calculator = calculator;
+        ArrayKernels vector = vectorized ? vectorKernels() : null;
+        this.kernels = vector != null ? vector : new ScalarKernels();
+        this.lanes = vector != null ? VectorKernels.lanes() : 1;
+    }
+
+    public ArrayResult evaluate(byte opcode, double[] a, double[] b) {
+        return evaluate(calculator.getRegistry().byOpcode(opcode), a, b);
+    }
+
+    public ArrayResult evaluate(String operation, double[] a, double[] b) {
+        return evaluate(operation != null ? calculator.getRegistry().byName(operation) : null, a, b);
+    }
+
+    // For callers that resolved the operation themselves; null means unsupported
+    public ArrayResult evaluate(Operation op, double[] a, double[] b) {
+        if (!(op instanceof BuiltinOperation builtin)) {
+            return ArrayResult.error(ErrorCodes.UNSUPPORTED_OPERATION);
+        }
+        if (a == null || b == null) {
+            return ArrayResult.error(ErrorCodes.MISSING_OPERAND);
+        }
+        if (a.length != b.length) {
+            return ArrayResult.error(ErrorCodes.DIMENSION_MISMATCH);
+        }
+        double[] out = new double[a.length];
+        BitSet divisionByZero = new BitSet();
+        switch (builtin) {
+            case ADD -> kernels.add(a, b, out);
+            case SUB -> kernels.sub(a, b, out);
+            case MUL -> kernels.mul(a, b, out);
+            case DIV -> kernels.div(a, b, out, divisionByZero);
+        }
+        return ArrayResult.ok(out, divisionByZero);
+    }
+
+    public boolean isVectorized() {
+        return lanes > 1;
+    }
+
+    // Doubles per vector operation; 1 on the scalar loops
+    public int getLanes() {
+        return lanes;
+    }
+
+    // Null unless the incubator module was added to the boot layer; referencing its classes otherwise fails
+    private static ArrayKernels vectorKernels() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return VectorKernels.lanes() > 1 ? new VectorKernels() : null;
+        } catch (LinkageError e) {
+            return null;
+        }
+    }
+}
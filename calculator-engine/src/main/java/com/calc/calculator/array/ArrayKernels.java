@@ -0,0 +1,16 @@
+package com.calc.calculator.array;
+
+import java.util.BitSet;
+
+// Element-wise loops over equally long arrays, writing every element of out
+interface ArrayKernels {
+
+    void add(double[] a, double[] b, double[] out);
+
+    void sub(double[] a, double[] b, double[] out);
+
+    void mul(double[] a, double[] b, double[] out);
+
+    // Zero divisors give NaN and are marked in divisionByZero
+    void div(double[] a, double[] b, double[] out, BitSet divisionByZero);
+}
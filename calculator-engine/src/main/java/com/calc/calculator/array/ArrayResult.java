@@ -0,0 +1,22 @@
+package com.calc.calculator.array;
+
+import java.util.BitSet;
+
+import com.calc.calculator.ErrorCodes;
+
+// Outcome of an element-wise operation: one value per element, or one of ErrorCodes for the whole call.
+// Elements divided by zero are NaN and marked in divisionByZero; the other elements are still valid.
+public record ArrayResult(double[] values, BitSet divisionByZero, int errorCode) {
+
+    public static ArrayResult ok(double[] values, BitSet divisionByZero) {
+        return new ArrayResult(values, divisionByZero, ErrorCodes.NONE);
+    }
+
+    public static ArrayResult error(int errorCode) {
+        return new ArrayResult(null, null, errorCode);
+    }
+
+    public boolean isSuccess() {
+        return errorCode == ErrorCodes.NONE;
+    }
+}
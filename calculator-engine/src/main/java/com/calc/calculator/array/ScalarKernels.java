@@ -0,0 +1,58 @@
+package com.calc.calculator.array;
+
+import java.util.BitSet;
+
+// One element at a time. Used when the Vector API is unavailable, and for the tails the vector loops leave.
+final class ScalarKernels implements ArrayKernels {
+
+    @Override
+    public void add(double[] a, double[] b, double[] out) {
+        add(a, b, out, 0);
+    }
+
+    @Override
+    public void sub(double[] a, double[] b, double[] out) {
+        sub(a, b, out, 0);
+    }
+
+    @Override
+    public void mul(double[] a, double[] b, double[] out) {
+        mul(a, b, out, 0);
+    }
+
+    @Override
+    public void div(double[] a, double[] b, double[] out, BitSet divisionByZero) {
+        div(a, b, out, 0, divisionByZero);
+    }
+
+    // The range variants start at from and run to the end of out
+
+    static void add(double[] a, double[] b, double[] out, int from) {
+        for (int i = from; i < out.length; i++) {
+            out[i] = a[i] + b[i];
+        }
+    }
+
+    static void sub(double[] a, double[] b, double[] out, int from) {
+        for (int i = from; i < out.length; i++) {
+            out[i] = a[i] - b[i];
+        }
+    }
+
+    static void mul(double[] a, double[] b, double[] out, int from) {
+        for (int i = from; i < out.length; i++) {
+            out[i] = a[i] * b[i];
+        }
+    }
+
+    static void div(double[] a, double[] b, double[] out, int from, BitSet divisionByZero) {
+        for (int i = from; i < out.length; i++) {
+            if (b[i] == 0.0) {
+                out[i] = Double.NaN;
+                divisionByZero.set(i);
+            } else {
+                out[i] = a[i] / b[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.calc.calculator.array;
+
+import java.util.BitSet;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD loops on the Vector API, using the widest vector shape the CPU supports.
+ *
+ * Each loop handles whole vectors up to the last full one and leaves the remaining
+ * elements to the scalar kernels, so results are identical for any array length.
+ * Only loaded once ArrayCalculator has found jdk.incubator.vector in the boot layer.
+ */
+final class VectorKernels implements ArrayKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public void add(double[] a, double[] b, double[] out) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(out.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).add(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        ScalarKernels.add(a, b, out, i);
+    }
+
+    @Override
+    public void sub(double[] a, double[] b, double[] out) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(out.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        ScalarKernels.sub(a, b, out, i);
+    }
+
+    @Override
+    public void mul(double[] a, double[] b, double[] out) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(out.length); i < bound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).intoArray(out, i);
+        }
+        ScalarKernels.mul(a, b, out, i);
+    }
+
+    // Divides every lane, then overwrites the lanes with a zero divisor; zero divisors are rare,
+    // so the mask is only turned into bits when a vector has one
+    @Override
+    public void div(double[] a, double[] b, double[] out, BitSet divisionByZero) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(out.length); i < bound; i += SPECIES.length()) {
+            DoubleVector divisor = DoubleVector.fromArray(SPECIES, b, i);
+            DoubleVector quotient = DoubleVector.fromArray(SPECIES, a, i).div(divisor);
+            VectorMask<Double> zero = divisor.eq(0.0);
+            if (zero.anyTrue()) {
+                quotient = quotient.blend(Double.NaN, zero);
+                for (long lanes = zero.toLong(); lanes != 0; lanes &= lanes - 1) {
+                    divisionByZero.set(i + Long.numberOfTrailingZeros(lanes));
+                }
+            }
+            quotient.intoArray(out, i);
+        }
+        ScalarKernels.div(a, b, out, i, divisionByZero);
+    }
+}
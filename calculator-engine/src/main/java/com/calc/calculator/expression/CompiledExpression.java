@@ -0,0 +1,112 @@
+package com.calc.calculator.expression;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.ErrorCodes;
+
+/**
+ * A parsed expression, ready to be evaluated any number of times with new variable values.
+ *
+ * Variables are resolved to slots once, at parse time; evaluating walks the tree on a
+ * double[] of their values. Once an expression has been evaluated compile-threshold times,
+ * the next evaluation generates code for the whole formula (see ExpressionCompiler) and
+ * later ones run that instead of walking the tree. Results and error codes are the same
+ * either way, and if code generation fails the expression simply stays interpreted.
+ * Instances are safe to share between threads.
+ */
+public final class CompiledExpression {
+
+    // Compile threshold that keeps an expression interpreted
+    public static final int NEVER = -1;
+
+    private final String text;
+    private final Expression root;
+    private final List<String> variables;
+    private final Calculator calculator;
+    private final int compileThreshold;
+
+    private final AtomicInteger evaluations = new AtomicInteger();
+    // Generated code; null until the threshold is reached, or for good when generation failed
+    private volatile Formula formula;
+    // Set once generation was attempted, so evaluations stop counting
+    private volatile boolean settled;
+
+    CompiledExpression(String text, Expression root, List<String> variables, Calculator calculator, int compileThreshold) {
+        this.text = text;
+        this.root = root;
+        this.variables = List.copyOf(variables);
+        this.calculator = calculator;
+        this.compileThreshold = compileThreshold;
+        this.settled = compileThreshold < 0;
+    }
+
+    // Values by variable name; names the expression does not use are ignored
+    public CalculationResult evaluate(Map<String, Double> bindings) {
+        double[] values = new double[variables.size()];
+        for (int i = 0; i < values.length; i++) {
+            Double value = bindings != null ? bindings.get(variables.get(i)) : null;
+            if (value == null) {
+                return CalculationResult.error(ErrorCodes.UNBOUND_VARIABLE);
+            }
+            values[i] = value;
+        }
+        return evaluate(values);
+    }
+
+    // Values in the order of variables()
+    public CalculationResult evaluate(double... values) {
+        if (values.length != variables.size()) {
+            return CalculationResult.error(ErrorCodes.UNBOUND_VARIABLE);
+        }
+        Formula generated = formula;
+        // Exactly one evaluation sees the threshold and pays for generating the code
+        if (generated == null && !settled && evaluations.getAndIncrement() == compileThreshold) {
+            generated = generate();
+        }
+        try {
+            double value = generated != null ? generated.evaluate(values) : root.evaluate(calculator, values);
+            return CalculationResult.ok(value);
+        } catch (EvaluationException e) {
+            return CalculationResult.error(e.getErrorCode());
+        }
+    }
+
+    // Generates code now, whatever the threshold; false if the expression stays interpreted
+    public boolean compile() {
+        return formula != null || generate() != null;
+    }
+
+    // True once evaluations run generated code instead of walking the tree
+    public boolean isCompiled() {
+        return formula != null;
+    }
+
+    private Formula generate() {
+        Formula generated;
+        try {
+            generated = ExpressionCompiler.compile(root, calculator);
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            generated = null;
+        }
+        formula = generated;
+        settled = true;
+        return generated;
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public Expression root() {
+        return root;
+    }
+
+    // Variable names in order of first appearance
+    public List<String> variables() {
+        return variables;
+    }
+}
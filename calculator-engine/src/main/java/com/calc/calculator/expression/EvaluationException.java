@@ -0,0 +1,17 @@
+package com.calc.calculator.expression;
+
+// Unwinds a failed evaluation to CompiledExpression, which turns it into an error result.
+// Stackless: it is control flow, not a diagnostic.
+final class EvaluationException extends RuntimeException {
+
+    private final int errorCode;
+
+    EvaluationException(int errorCode) {
+        super(null, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    int getErrorCode() {
+        return errorCode;
+    }
+}
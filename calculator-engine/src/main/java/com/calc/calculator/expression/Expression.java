@@ -0,0 +1,59 @@
+package com.calc.calculator.expression;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.operation.Operation;
+
+/**
+ * Node of a parsed expression, evaluated on primitive doubles.
+ *
+ * Every operator is an {@link Operation} from the calculator's registry and is applied
+ * through {@link Calculator#evaluate(Operation, double, double)}, so validation (division
+ * by zero) and error codes are the same as for a single calculation. The first failing
+ * operation aborts the evaluation with an {@link EvaluationException}.
+ */
+public sealed interface Expression {
+
+    double evaluate(Calculator calculator, double[] variables);
+
+    record Constant(double value) implements Expression {
+        @Override
+        public double evaluate(Calculator calculator, double[] variables) {
+            return value;
+        }
+    }
+
+    // slot is the variable's index in CompiledExpression.variables()
+    record Variable(String name, int slot) implements Expression {
+        @Override
+        public double evaluate(Calculator calculator, double[] variables) {
+            return variables[slot];
+        }
+    }
+
+    record Negation(Expression operand) implements Expression {
+        @Override
+        public double evaluate(Calculator calculator, double[] variables) {
+            return -operand.evaluate(calculator, variables);
+        }
+    }
+
+    // An infix operator (a + b) or a call of a registered operation (pow(a, b))
+    record Application(Operation operation, Expression left, Expression right) implements Expression {
+        @Override
+        public double evaluate(Calculator calculator, double[] variables) {
+            double a = left.evaluate(calculator, variables);
+            double b = right.evaluate(calculator, variables);
+            return apply(calculator, operation, a, b);
+        }
+
+        // Also called by generated code, so both ways of evaluating fail the same way
+        static double apply(Calculator calculator, Operation operation, double a, double b) {
+            CalculationResult result = calculator.evaluate(operation, a, b);
+            if (!result.isSuccess()) {
+                throw new EvaluationException(result.errorCode());
+            }
+            return result.value();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.calc.calculator.expression;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.calc.calculator.Calculator;
+
+/**
+ * Bounded LRU cache of compiled expressions, keyed by expression text.
+ *
+ * Formulas are typically re-run with new variable values, so only the first request
+ * for a text pays for parsing. Parsing happens outside the lock; two threads missing
+ * on the same text at once both parse it and the later one wins. Texts that fail to
+ * parse are not cached. A max size of 0 disables the cache. Cached expressions generate
+ * code once evaluated compile-threshold times (see CompiledExpression).
+ */
+public class ExpressionCache {
+
+    private final Calculator calculator;
+    private final int maxSize;
+    private final int compileThreshold;
+    private final Map<String, CompiledExpression> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ExpressionCache(Calculator calculator, int maxSize) {
+        this(calculator, maxSize, CompiledExpression.NEVER);
+    }
+
+    public ExpressionCache(Calculator calculator, int maxSize, int compileThreshold) {
+        this.calculator = calculator;
+        this.maxSize = Math.max(maxSize, 0);
+        this.compileThreshold = compileThreshold;
+        // Access-ordered: get moves an entry to the tail, the head is evicted first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledExpression> eldest) {
+                return size() > ExpressionCache.this.maxSize;
+            }
+        };
+    }
+
+    // Throws ExpressionException for text that does not parse
+    public CompiledExpression compile(String text) {
+        if (maxSize == 0) {
+            // Used once, so generated code would never pay for itself
+            return ExpressionParser.parse(text, calculator);
+        }
+        CompiledExpression compiled;
+        synchronized (entries) {
+            compiled = entries.get(text);
+        }
+        if (compiled != null) {
+            hits.increment();
+            return compiled;
+        }
+        misses.increment();
+        compiled = ExpressionParser.parse(text, calculator, compileThreshold);
+        synchronized (entries) {
+            entries.put(text, compiled);
+        }
+        return compiled;
+    }
+
+    public long getHits() { return hits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
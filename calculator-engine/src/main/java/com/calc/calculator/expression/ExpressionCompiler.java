@@ -0,0 +1,116 @@
+package com.calc.calculator.expression;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import com.calc.calculator.Calculator;
+import com.calc.calculator.operation.Operation;
+
+/**
+ * Turns an expression tree into a {@link Formula} that computes it on primitive doubles.
+ *
+ * Every node becomes a method handle of type {@code (double[])double}: constants and variable
+ * slots are bound in, and each operation is {@link Expression.Application#apply} with the
+ * calculator and operation bound, so validation and error codes stay those of the calculator.
+ * The tree is installed in a hidden copy of {@link FormulaTemplate}, which makes it a JIT
+ * constant. Hidden classes are not strongly held: once an expression is evicted from the
+ * cache its class can be unloaded.
+ */
+final class ExpressionCompiler {
+
+    // Larger trees stay interpreted: building handles costs time per node and very deep
+    // trees exceed the JIT's inlining depth anyway
+    static final int MAX_NODES = 256;
+
+    private static final MethodType FORMULA_TYPE = MethodType.methodType(double.class, double[].class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle VALUE_AT = MethodHandles.arrayElementGetter(double[].class);
+    private static final MethodHandle NEGATE;
+    private static final MethodHandle APPLY;
+
+    static {
+        try {
+            NEGATE = LOOKUP.findStatic(ExpressionCompiler.class, "negate",
+                MethodType.methodType(double.class, double.class));
+            APPLY = LOOKUP.findStatic(Expression.Application.class, "apply",
+                MethodType.methodType(double.class, Calculator.class, Operation.class, double.class, double.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private ExpressionCompiler() {
+    }
+
+    // Throws when the tree is too large or the class cannot be defined; callers keep interpreting
+    static Formula compile(Expression root, Calculator calculator) throws ReflectiveOperationException {
+        if (size(root, 0) > MAX_NODES) {
+            throw new IllegalArgumentException("Expression has more than " + MAX_NODES + " nodes");
+        }
+        MethodHandle tree = handleOf(root, calculator);
+        MethodHandles.Lookup formula = LOOKUP.defineHiddenClassWithClassData(Template.BYTES, tree, true);
+        MethodHandle constructor = formula.findConstructor(formula.lookupClass(), MethodType.methodType(void.class));
+        try {
+            return (Formula) constructor.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle handleOf(Expression expression, Calculator calculator) {
+        return switch (expression) {
+            case Expression.Constant constant ->
+                MethodHandles.dropArguments(MethodHandles.constant(double.class, constant.value()), 0, double[].class);
+            case Expression.Variable variable ->
+                MethodHandles.insertArguments(VALUE_AT, 1, variable.slot());
+            case Expression.Negation negation ->
+                MethodHandles.filterReturnValue(handleOf(negation.operand(), calculator), NEGATE);
+            case Expression.Application application -> {
+                MethodHandle operation = MethodHandles.insertArguments(APPLY, 0, calculator, application.operation());
+                // The outer filter runs first: left before right, as in the interpreter
+                MethodHandle both = MethodHandles.filterArguments(
+                    MethodHandles.filterArguments(operation, 1, handleOf(application.right(), calculator)),
+                    0, handleOf(application.left(), calculator));
+                yield MethodHandles.permuteArguments(both, FORMULA_TYPE, 0, 0);
+            }
+        };
+    }
+
+    // Stops counting once over the limit, so huge trees are not walked in full
+    private static int size(Expression expression, int counted) {
+        if (counted > MAX_NODES) {
+            return counted;
+        }
+        return switch (expression) {
+            case Expression.Constant constant -> counted + 1;
+            case Expression.Variable variable -> counted + 1;
+            case Expression.Negation negation -> size(negation.operand(), counted + 1);
+            case Expression.Application application ->
+                size(application.right(), size(application.left(), counted + 1));
+        };
+    }
+
+    private static double negate(double value) {
+        return -value;
+    }
+
+    // Read on first compilation only, so a missing class file just leaves every expression interpreted
+    private static final class Template {
+        static final byte[] BYTES = read();
+
+        private static byte[] read() {
+            try (InputStream in = ExpressionCompiler.class.getResourceAsStream("FormulaTemplate.class")) {
+                if (in == null) {
+                    throw new IllegalStateException("FormulaTemplate.class not found");
+                }
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.calc.calculator.expression;
+
+import com.calc.calculator.ErrorCodes;
+
+// Expression text that cannot be compiled: a syntax error or an operation the registry does not know
+public class ExpressionException extends IllegalArgumentException {
+
+    private final int errorCode;
+    private final int position;
+
+    public ExpressionException(int errorCode, String message, int position) {
+        super(message + " at position " + position);
+        this.errorCode = errorCode;
+        this.position = position;
+    }
+
+    static ExpressionException syntax(String message, int position) {
+        return new ExpressionException(ErrorCodes.INVALID_EXPRESSION, message, position);
+    }
+
+    // One of ErrorCodes: INVALID_EXPRESSION or UNSUPPORTED_OPERATION
+    public int getErrorCode() {
+        return errorCode;
+    }
+
+    // Zero-based offset into the expression text
+    public int getPosition() {
+        return position;
+    }
+}
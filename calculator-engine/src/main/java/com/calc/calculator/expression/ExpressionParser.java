@@ -0,0 +1,212 @@
+package com.calc.calculator.expression;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.calc.calculator.Calculator;
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.operation.Operation;
+import com.calc.calculator.operation.OperationRegistry;
+
+/**
+ * Recursive-descent parser for arithmetic expressions such as {@code (a + b) * c / d}.
+ *
+ * <pre>
+ * expression := term (('+' | '-') term)*
+ * term       := unary (('*' | '/') unary)*
+ * unary      := ('-' | '+') unary | primary
+ * primary    := number | name '(' expression ',' expression ')' | name | '(' expression ')'
+ * </pre>
+ *
+ * The operators resolve to the registry's add, sub, mul and div; any other registered
+ * operation can be called by name with two arguments. Other names are variables.
+ * Numbers use Java's double syntax without suffixes (1, 2.5, .5, 1e-3).
+ */
+public final class ExpressionParser {
+
+    // Bounds the work a single request can cause and keeps recursion well inside the stack
+    public static final int MAX_LENGTH = 4096;
+    public static final int MAX_DEPTH = 128;
+
+    private final String text;
+    private final OperationRegistry registry;
+    private final List<String> variables = new ArrayList<>();
+    private int position;
+    private int depth;
+
+    private ExpressionParser(String text, OperationRegistry registry) {
+        this.text = text;
+        this.registry = registry;
+    }
+
+    // Parses for interpretation only
+    public static CompiledExpression parse(String text, Calculator calculator) {
+        return parse(text, calculator, CompiledExpression.NEVER);
+    }
+
+    // Code is generated once the expression has been evaluated compileThreshold times; negative never
+    public static CompiledExpression parse(String text, Calculator calculator, int compileThreshold) {
+        if (text == null || text.isBlank()) {
+            throw ExpressionException.syntax("Empty expression", 0);
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw ExpressionException.syntax("Expression longer than " + MAX_LENGTH + " characters", MAX_LENGTH);
+        }
+        ExpressionParser parser = new ExpressionParser(text, calculator.getRegistry());
+        Expression root = parser.expression();
+        parser.skipWhitespace();
+        if (parser.position < text.length()) {
+            throw ExpressionException.syntax("Unexpected '" + text.charAt(parser.position) + "'", parser.position);
+        }
+        return new CompiledExpression(text, root, parser.variables, calculator, compileThreshold);
+    }
+
+    private Expression expression() {
+        Expression left = term();
+        while (true) {
+            if (accept('+')) {
+                left = new Expression.Application(operator("add"), left, term());
+            } else if (accept('-')) {
+                left = new Expression.Application(operator("sub"), left, term());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression term() {
+        Expression left = unary();
+        while (true) {
+            if (accept('*')) {
+                left = new Expression.Application(operator("mul"), left, unary());
+            } else if (accept('/')) {
+                left = new Expression.Application(operator("div"), left, unary());
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Expression unary() {
+        enter();
+        Expression result;
+        if (accept('-')) {
+            result = new Expression.Negation(unary());
+        } else if (accept('+')) {
+            result = unary();
+        } else {
+            result = primary();
+        }
+        depth--;
+        return result;
+    }
+
+    private Expression primary() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw ExpressionException.syntax("Unexpected end of expression", position);
+        }
+        char c = text.charAt(position);
+        if (accept('(')) {
+            Expression inner = expression();
+            expect(')');
+            return inner;
+        }
+        if (isDigit(c) || c == '.') {
+            return number();
+        }
+        if (Character.isLetter(c) || c == '_') {
+            int start = position;
+            String name = name();
+            if (accept('(')) {
+                Operation operation = registry.byName(name);
+                if (operation == null) {
+                    throw new ExpressionException(ErrorCodes.UNSUPPORTED_OPERATION, "Unknown operation '" + name + "'", start);
+                }
+                Expression left = expression();
+                expect(',');
+                Expression right = expression();
+                expect(')');
+                return new Expression.Application(operation, left, right);
+            }
+            return variable(name);
+        }
+        throw ExpressionException.syntax("Unexpected '" + c + "'", position);
+    }
+
+    private Expression number() {
+        int start = position;
+        while (position < text.length() && isDigit(text.charAt(position))) position++;
+        if (position < text.length() && text.charAt(position) == '.') {
+            position++;
+            while (position < text.length() && isDigit(text.charAt(position))) position++;
+        }
+        if (position < text.length() && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+            position++;
+            if (position < text.length() && (text.charAt(position) == '+' || text.charAt(position) == '-')) position++;
+            while (position < text.length() && isDigit(text.charAt(position))) position++;
+        }
+        try {
+            return new Expression.Constant(Double.parseDouble(text.substring(start, position)));
+        } catch (NumberFormatException e) {
+            throw ExpressionException.syntax("Invalid number '" + text.substring(start, position) + "'", start);
+        }
+    }
+
+    private String name() {
+        int start = position;
+        while (position < text.length() && (Character.isLetterOrDigit(text.charAt(position)) || text.charAt(position) == '_')) {
+            position++;
+        }
+        return text.substring(start, position);
+    }
+
+    // Repeated names share one slot
+    private Expression variable(String name) {
+        int slot = variables.indexOf(name);
+        if (slot < 0) {
+            slot = variables.size();
+            variables.add(name);
+        }
+        return new Expression.Variable(name, slot);
+    }
+
+    private Operation operator(String name) {
+        Operation operation = registry.byName(name);
+        if (operation == null) {
+            throw new ExpressionException(ErrorCodes.UNSUPPORTED_OPERATION, "Operation '" + name + "' is not registered", position - 1);
+        }
+        return operation;
+    }
+
+    private void enter() {
+        if (++depth > MAX_DEPTH) {
+            throw ExpressionException.syntax("Expression nested deeper than " + MAX_DEPTH + " levels", position);
+        }
+    }
+
+    private boolean accept(char expected) {
+        skipWhitespace();
+        if (position < text.length() && text.charAt(position) == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char expected) {
+        if (!accept(expected)) {
+            throw ExpressionException.syntax("Expected '" + expected + "'", position);
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,8 @@
+package com.calc.calculator.expression;
+
+// Generated code for one expression: computes it on the values of its variable slots.
+// Failing operations throw EvaluationException, as the tree interpreter does.
+interface Formula {
+
+    double evaluate(double[] values);
+}
@@ -0,0 +1,38 @@
+package com.calc.calculator.expression;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Class file that ExpressionCompiler copies into one hidden class per expression; never used directly.
+ *
+ * Each copy receives the expression's method handle tree as class data. Held in a static final
+ * field of its own class, the handle is a constant to the JIT, which can then inline the whole
+ * tree into {@link #evaluate}. A handle kept in an ordinary field would be called through
+ * the generic invoker on every evaluation.
+ */
+final class FormulaTemplate implements Formula {
+
+    private static final MethodHandle FORMULA;
+
+    static {
+        try {
+            FORMULA = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME, MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public double evaluate(double[] values) {
+        try {
+            return (double) FORMULA.invokeExact(values);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // The tree only calls methods that throw unchecked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+}
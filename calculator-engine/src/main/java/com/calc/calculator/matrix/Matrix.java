@@ -0,0 +1,26 @@
+package com.calc.calculator.matrix;
+
+// Dense matrix stored row-major in one flat array: element (row, col) is data[row * cols + col]
+public record Matrix(int rows, int cols, double[] data) {
+
+    public Matrix {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Matrix dimensions must not be negative: " + rows + "x" + cols);
+        }
+        if (data == null || data.length != (long) rows * cols) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " matrix needs " + (long) rows * cols + " elements");
+        }
+    }
+
+    public static Matrix zeros(int rows, int cols) {
+        return new Matrix(rows, cols, new double[Math.multiplyExact(rows, cols)]);
+    }
+
+    public double get(int row, int col) {
+        return data[row * cols + col];
+    }
+
+    public int size() {
+        return data.length;
+    }
+}
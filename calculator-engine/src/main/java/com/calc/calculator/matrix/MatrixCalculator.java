@@ -0,0 +1,103 @@
+package com.calc.calculator.matrix;
+
+import java.util.concurrent.ForkJoinPool;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.array.ArrayCalculator;
+import com.calc.calculator.array.ArrayResult;
+import com.calc.calculator.operation.BuiltinOperation;
+
+/**
+ * Add, multiply and transpose-multiply of dense matrices held in flat double arrays.
+ *
+ * Products are cache-blocked and, above a few hundred thousand multiply-adds, split
+ * into fork-join tasks on the given pool; the calling thread waits for the result.
+ * Results are the same for any pool size. Addition runs on the array kernels.
+ */
+public class MatrixCalculator {
+
+    // Largest array the JVM will allocate
+    public static final int MAX_ELEMENTS = Integer.MAX_VALUE - 8;
+
+    private final ArrayCalculator arrays;
+    private final ForkJoinPool pool;
+    private final int maxElements;
+
+    public MatrixCalculator() {
+        this(new ArrayCalculator(), ForkJoinPool.commonPool(), MAX_ELEMENTS);
+    }
+
+    // maxElements bounds the size of results; larger ones fail with RESULT_TOO_LARGE instead of being allocated
+    public MatrixCalculator(ArrayCalculator arrays, ForkJoinPool pool, int maxElements) {
+        this.arrays = arrays;
+        this.pool = pool;
+        this.maxElements = Math.min(maxElements, MAX_ELEMENTS);
+    }
+
+    public MatrixResult evaluate(byte opcode, Matrix a, Matrix b) {
+        return evaluate(MatrixOperation.byOpcode(opcode), a, b);
+    }
+
+    public MatrixResult evaluate(String operation, Matrix a, Matrix b) {
+        return evaluate(operation != null ? MatrixOperation.byName(operation) : null, a, b);
+    }
+
+    // Null means unsupported
+    public MatrixResult evaluate(MatrixOperation operation, Matrix a, Matrix b) {
+        if (operation == null) {
+            return MatrixResult.error(ErrorCodes.UNSUPPORTED_OPERATION);
+        }
+        if (a == null || b == null) {
+            return MatrixResult.error(ErrorCodes.MISSING_OPERAND);
+        }
+        return switch (operation) {
+            case ADD -> add(a, b);
+            case MULTIPLY -> multiply(a, b);
+            case TRANSPOSE_MULTIPLY -> transposeMultiply(a, b);
+        };
+    }
+
+    public MatrixResult add(Matrix a, Matrix b) {
+        if (a.rows() != b.rows() || a.cols() != b.cols()) {
+            return MatrixResult.error(ErrorCodes.DIMENSION_MISMATCH);
+        }
+        ArrayResult sum = arrays.evaluate(BuiltinOperation.ADD, a.data(), b.data());
+        return sum.isSuccess() ? MatrixResult.ok(new Matrix(a.rows(), a.cols(), sum.values())) : MatrixResult.error(sum.errorCode());
+    }
+
+    // a (m x k) * b (k x n)
+    public MatrixResult multiply(Matrix a, Matrix b) {
+        if (a.cols() != b.rows()) {
+            return MatrixResult.error(ErrorCodes.DIMENSION_MISMATCH);
+        }
+        return product(a.data(), a.cols(), 1, a.rows(), b, a.cols());
+    }
+
+    // a^T * b for a (k x m) and b (k x n), reading a column-wise rather than transposing it
+    public MatrixResult transposeMultiply(Matrix a, Matrix b) {
+        if (a.rows() != b.rows()) {
+            return MatrixResult.error(ErrorCodes.DIMENSION_MISMATCH);
+        }
+        return product(a.data(), 1, a.cols(), a.cols(), b, a.rows());
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    private MatrixResult product(double[] a, int aRowStride, int aColStride, int m, Matrix b, int k) {
+        int n = b.cols();
+        if ((long) m * n > maxElements) {
+            return MatrixResult.error(ErrorCodes.RESULT_TOO_LARGE);
+        }
+        double[] c = new double[m * n];
+        MatrixProduct product = new MatrixProduct(a, aRowStride, aColStride, b.data(), c, k, n, 0, m, 0, n);
+        // Not worth a task hand-off; computed on the calling thread
+        if (product.work() <= MatrixProduct.SPLIT_THRESHOLD || pool.getParallelism() == 1) {
+            product.multiply();
+        } else {
+            pool.invoke(product);
+        }
+        return MatrixResult.ok(new Matrix(m, n, c));
+    }
+}
@@ -0,0 +1,48 @@
+package com.calc.calculator.matrix;
+
+// Operations on two matrices; opcodes are part of the matrix wire format and independent of BuiltinOperation's
+public enum MatrixOperation {
+
+    // a + b, both of the same shape
+    ADD((byte) 1, "add"),
+    // a * b, where a has as many columns as b has rows
+    MULTIPLY((byte) 2, "mul"),
+    // a^T * b, where a and b have the same number of rows; a is never transposed in memory
+    TRANSPOSE_MULTIPLY((byte) 3, "tmul");
+
+    private final byte opcode;
+    private final String operationName;
+
+    MatrixOperation(byte opcode, String operationName) {
+        this.opcode = opcode;
+        this.operationName = operationName;
+    }
+
+    public byte opcode() {
+        return opcode;
+    }
+
+    public String operationName() {
+        return operationName;
+    }
+
+    // Null when no operation has the opcode
+    public static MatrixOperation byOpcode(byte opcode) {
+        for (MatrixOperation operation : values()) {
+            if (operation.opcode == opcode) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    // Null when no operation has the name
+    public static MatrixOperation byName(String name) {
+        for (MatrixOperation operation : values()) {
+            if (operation.operationName.equals(name)) {
+                return operation;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.calc.calculator.matrix;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * c = op(a) * b on flat row-major arrays, where op(a) is a or its transpose.
+ *
+ * The product runs over tiles small enough that the block of b in use stays in the
+ * L2 cache, four rows of c at a time so that each element of b loaded is used four
+ * times, with the innermost loop running along rows of b and c, which the JIT
+ * vectorizes. Every element of c sums its terms in ascending k order however the
+ * work is tiled or split, so results do not depend on the thread count. Large
+ * products are split into disjoint tiles of c and run as fork-join tasks.
+ */
+final class MatrixProduct extends RecursiveAction {
+
+    // Tile of c computed at a time: ROW_BLOCK x COL_BLOCK, from a DEPTH_BLOCK x COL_BLOCK block of b (1 MB)
+    static final int ROW_BLOCK = 64;
+    static final int DEPTH_BLOCK = 256;
+    static final int COL_BLOCK = 512;
+    // Multiply-adds below which a product is not split any further
+    static final long SPLIT_THRESHOLD = 1L << 18;
+
+    private final double[] a;
+    // Element (i, p) of op(a) is a[i * aRowStride + p * aColStride]
+    private final int aRowStride;
+    private final int aColStride;
+    private final double[] b;
+    private final double[] c;
+    private final int k;
+    private final int n;
+    private final int rowFrom;
+    private final int rowTo;
+    private final int colFrom;
+    private final int colTo;
+
+    MatrixProduct(double[] a, int aRowStride, int aColStride, double[] b, double[] c, int k, int n,
+            int rowFrom, int rowTo, int colFrom, int colTo) {
+        this.a = a;
+        this.aRowStride = aRowStride;
+        this.aColStride = aColStride;
+        this.b = b;
+        this.c = c;
+        this.k = k;
+        this.n = n;
+        this.rowFrom = rowFrom;
+        this.rowTo = rowTo;
+        this.colFrom = colFrom;
+        this.colTo = colTo;
+    }
+
+    // Multiply-adds of this task's tile of c
+    long work() {
+        return (long) (rowTo - rowFrom) * (colTo - colFrom) * k;
+    }
+
+    // Halves the longer side of the tile, at a tile boundary, until the pieces are small
+    @Override
+    protected void compute() {
+        int rows = rowTo - rowFrom;
+        int cols = colTo - colFrom;
+        if (work() <= SPLIT_THRESHOLD || (rows <= ROW_BLOCK && cols <= COL_BLOCK)) {
+            multiply();
+        } else if (rows > ROW_BLOCK && (rows >= cols || cols <= COL_BLOCK)) {
+            int middle = rowFrom + half(rows, ROW_BLOCK);
+            invokeAll(tile(rowFrom, middle, colFrom, colTo), tile(middle, rowTo, colFrom, colTo));
+        } else {
+            int middle = colFrom + half(cols, COL_BLOCK);
+            invokeAll(tile(rowFrom, rowTo, colFrom, middle), tile(rowFrom, rowTo, middle, colTo));
+        }
+    }
+
+    private MatrixProduct tile(int rowFrom, int rowTo, int colFrom, int colTo) {
+        return new MatrixProduct(a, aRowStride, aColStride, b, c, k, n, rowFrom, rowTo, colFrom, colTo);
+    }
+
+    private static int half(int length, int block) {
+        int blocks = (length + block - 1) / block;
+        return Math.max(1, blocks / 2) * block;
+    }
+
+    // Sequential tiled product over this task's part of c
+    void multiply() {
+        for (int ii = rowFrom; ii < rowTo; ii += ROW_BLOCK) {
+            int iEnd = Math.min(ii + ROW_BLOCK, rowTo);
+            for (int pp = 0; pp < k; pp += DEPTH_BLOCK) {
+                int pEnd = Math.min(pp + DEPTH_BLOCK, k);
+                for (int jj = colFrom; jj < colTo; jj += COL_BLOCK) {
+                    int jEnd = Math.min(jj + COL_BLOCK, colTo);
+                    int i = ii;
+                    for (; i + 3 < iEnd; i += 4) {
+                        multiplyRows4(i, pp, pEnd, jj, jEnd);
+                    }
+                    for (; i < iEnd; i++) {
+                        multiplyRow(i, pp, pEnd, jj, jEnd);
+                    }
+                }
+            }
+        }
+    }
+
+    private void multiplyRows4(int i, int pFrom, int pTo, int jFrom, int jTo) {
+        int c0 = i * n;
+        int c1 = c0 + n;
+        int c2 = c1 + n;
+        int c3 = c2 + n;
+        for (int p = pFrom; p < pTo; p++) {
+            double a0 = a[i * aRowStride + p * aColStride];
+            double a1 = a[(i + 1) * aRowStride + p * aColStride];
+            double a2 = a[(i + 2) * aRowStride + p * aColStride];
+            double a3 = a[(i + 3) * aRowStride + p * aColStride];
+            int bRow = p * n;
+            for (int j = jFrom; j < jTo; j++) {
+                double bpj = b[bRow + j];
+                c[c0 + j] += a0 * bpj;
+                c[c1 + j] += a1 * bpj;
+                c[c2 + j] += a2 * bpj;
+                c[c3 + j] += a3 * bpj;
+            }
+        }
+    }
+
+    private void multiplyRow(int i, int pFrom, int pTo, int jFrom, int jTo) {
+        int cRow = i * n;
+        for (int p = pFrom; p < pTo; p++) {
+            double aip = a[i * aRowStride + p * aColStride];
+            int bRow = p * n;
+            for (int j = jFrom; j < jTo; j++) {
+                c[cRow + j] += aip * b[bRow + j];
+            }
+        }
+    }
+}
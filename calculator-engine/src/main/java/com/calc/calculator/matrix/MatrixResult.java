@@ -0,0 +1,19 @@
+package com.calc.calculator.matrix;
+
+import com.calc.calculator.ErrorCodes;
+
+// Outcome of a matrix operation: the result matrix, or one of ErrorCodes
+public record MatrixResult(Matrix value, int errorCode) {
+
+    public static MatrixResult ok(Matrix value) {
+        return new MatrixResult(value, ErrorCodes.NONE);
+    }
+
+    public static MatrixResult error(int errorCode) {
+        return new MatrixResult(null, errorCode);
+    }
+
+    public boolean isSuccess() {
+        return errorCode == ErrorCodes.NONE;
+    }
+}
@@ -0,0 +1,74 @@
+package com.calc.calculator.operation;
+
+import com.calc.calculator.ErrorCodes;
+
+// The four operations exposed by the REST API; opcodes are part of the wire format
+public enum BuiltinOperation implements Operation {
+
+    ADD((byte) 1, "add") {
+        @Override
+        public double apply(double a, double b) { return a + b; }
+    },
+    SUB((byte) 2, "sub") {
+        @Override
+        public double apply(double a, double b) { return a - b; }
+    },
+    MUL((byte) 3, "mul") {
+        @Override
+        public double apply(double a, double b) { return a * b; }
+    },
+    DIV((byte) 4, "div") {
+        @Override
+        public double apply(double a, double b) {
+            if (b == 0.0) {
+                throw new IllegalArgumentException("Division by zero is not allowed");
+            }
+            return a / b;
+        }
+
+        @Override
+        public int validate(double a, double b) {
+            return b == 0.0 ? ErrorCodes.DIVISION_BY_ZERO : ErrorCodes.NONE;
+        }
+    };
+
+    private final byte opcode;
+    private final String operationName;
+
+    BuiltinOperation(byte opcode, String operationName) {
+        this.opcode = opcode;
+        this.operationName = operationName;
+    }
+
+    @Override
+    public byte opcode() { return opcode; }
+
+    @Override
+    public String operationName() { return operationName; }
+
+    // Null when no built-in operation has the opcode
+    public static BuiltinOperation byOpcode(byte opcode) {
+        for (BuiltinOperation operation : values()) {
+            if (operation.opcode == opcode) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    // Null when no built-in operation has the name
+    public static BuiltinOperation byName(String name) {
+        for (BuiltinOperation operation : values()) {
+            if (operation.operationName.equals(name)) {
+                return operation;
+            }
+        }
+        return null;
+    }
+
+    // UNKNOWN_OPCODE for names that are not built in, which then travel by name
+    public static byte opcodeOf(String name) {
+        BuiltinOperation operation = byName(name);
+        return operation != null ? operation.opcode : UNKNOWN_OPCODE;
+    }
+}
@@ -0,0 +1,29 @@
+package com.calc.calculator.operation;
+
+import com.calc.calculator.ErrorCodes;
+
+/**
+ * A binary operation on primitive doubles, identified on the wire by a one-byte opcode.
+ *
+ * Additional operations are plugged in through {@link java.util.ServiceLoader}:
+ * implement this interface, give it an unused opcode and operation name, and list the class in
+ * META-INF/services/com.calc.calculator.operation.Operation.
+ */
+public interface Operation {
+
+    // Sent instead of an opcode when only the name of the operation is known
+    byte UNKNOWN_OPCODE = 0;
+
+    // Wire identifier, 1..127
+    byte opcode();
+
+    // Name used by the REST API, e.g. "add"
+    String operationName();
+
+    double apply(double a, double b);
+
+    // Checked before apply on the exception-free path; return one of ErrorCodes to reject the operands
+    default int validate(double a, double b) {
+        return ErrorCodes.NONE;
+    }
+}
@@ -0,0 +1,60 @@
+package com.calc.calculator.operation;
+
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Opcode-indexed table of operations.
+ *
+ * Lookups by opcode are a plain array read; lookups by name are only needed for
+ * senders that do not know the opcode of an operation.
+ *
+ * Registration may happen while listener threads already look operations up, so both
+ * tables publish their entries safely; register itself stays synchronized to keep the
+ * duplicate checks and the two writes atomic.
+ */
+public class OperationRegistry {
+
+    private final AtomicReferenceArray<Operation> byOpcode = new AtomicReferenceArray<>(128);
+    private final Map<String, Operation> byName = new ConcurrentHashMap<>();
+
+    // Built-in operations plus everything found through ServiceLoader
+    public static OperationRegistry withDefaults() {
+        OperationRegistry registry = new OperationRegistry();
+        for (BuiltinOperation operation : BuiltinOperation.values()) {
+            registry.register(operation);
+        }
+        for (Operation operation : ServiceLoader.load(Operation.class)) {
+            registry.register(operation);
+        }
+        return registry;
+    }
+
+    public synchronized void register(Operation operation) {
+        int opcode = operation.opcode();
+        if (opcode <= 0) {
+            throw new IllegalArgumentException("Opcode must be between 1 and 127: " + opcode);
+        }
+        Operation existing = byOpcode.get(opcode);
+        if (existing != null) {
+            throw new IllegalArgumentException("Opcode " + opcode + " is already registered to " + existing.operationName());
+        }
+        if (byName.containsKey(operation.operationName())) {
+            throw new IllegalArgumentException("Operation already registered: " + operation.operationName());
+        }
+        byOpcode.set(opcode, operation);
+        byName.put(operation.operationName(), operation);
+    }
+
+    // Returns null for unknown opcodes
+    public Operation byOpcode(byte opcode) {
+        return opcode > 0 ? byOpcode.get(opcode) : null;
+    }
+
+    // Returns null for unknown names
+    public Operation byName(String name) {
+        return name != null ? byName.get(name) : null;
+    }
+}
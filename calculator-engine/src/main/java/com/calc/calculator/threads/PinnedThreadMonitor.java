@@ -0,0 +1,61 @@
+package com.calc.calculator.threads;
+
+import java.time.Duration;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Streams jdk.VirtualThreadPinned JFR events and logs where a virtual thread
+ * stayed pinned to its carrier for longer than the given threshold.
+ * Intended for finding pinning hot spots while running in virtual-thread mode.
+ *
+ * Both services start one when calculator.threads.pinning-monitor.enabled is set.
+ * It logs through System.Logger, which Spring Boot routes to its own logging.
+ */
+public final class PinnedThreadMonitor implements AutoCloseable {
+
+    private static final System.Logger log = System.getLogger(PinnedThreadMonitor.class.getName());
+    private static final int MAX_FRAMES = 8;
+
+    private final RecordingStream stream;
+
+    private PinnedThreadMonitor(RecordingStream stream) {
+        this.stream = stream;
+    }
+
+    public static PinnedThreadMonitor start(Duration threshold) {
+        RecordingStream stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned")
+            .withThreshold(threshold)
+            .withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", PinnedThreadMonitor::report);
+        stream.startAsync();
+        return new PinnedThreadMonitor(stream);
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private static void report(RecordedEvent event) {
+        StringBuilder frames = new StringBuilder();
+        if (event.getStackTrace() != null) {
+            int count = 0;
+            for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                if (count++ == MAX_FRAMES) {
+                    break;
+                }
+                frames.append("\n    at ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+            }
+        }
+        log.log(System.Logger.Level.WARNING, "Virtual thread pinned for {0} ms{1}", event.getDuration().toMillis(), frames);
+    }
+}
@@ -0,0 +1,16 @@
+package com.calc.calculator.threads;
+
+import java.util.concurrent.ThreadFactory;
+
+// Thread creation shared by both services, so the platform and virtual modes stay alike
+public final class Threads {
+
+    private Threads() {}
+
+    // Non-daemon platform threads, or virtual threads, named prefix0, prefix1, ...
+    public static ThreadFactory factory(String prefix, boolean virtual) {
+        return virtual
+            ? Thread.ofVirtual().name(prefix, 0).factory()
+            : Thread.ofPlatform().name(prefix, 0).factory();
+    }
+}
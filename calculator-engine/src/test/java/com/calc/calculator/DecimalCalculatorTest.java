@@ -0,0 +1,115 @@
+package com.calc.calculator;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.calc.calculator.operation.Operation;
+import com.calc.calculator.operation.OperationRegistry;
+
+@DisplayName("Decimal Calculator Tests")
+class DecimalCalculatorTest {
+
+    private final DecimalCalculator calculator = new DecimalCalculator(MathContext.DECIMAL128);
+
+    @ParameterizedTest
+    @CsvSource({
+        "add, 0.1, 0.2, 0.3",
+        "sub, 1.10, 0.1, 1",
+        "mul, 99999999999999999999, 3, 299999999999999999997",
+        "div, 1, 3, 0.3333333333333333333333333333333333",
+        "div, 10, 4, 2.5",
+        "mul, 1E+3, 2, 2000",
+        "add, 5, 2, 7",
+        "mul, -0, 5, 0",
+        "div, 1.5, 0.5, 3",
+        "add, 1.5, 2.25, 3.75",
+        "sub, -1.25, 0.5, -1.75",
+        "mul, 0.5, 0.125, 0.0625",
+        "div, 7.5, 2.5, 3",
+        "div, 3, 0.25, 12",
+        "div, 1, 1024, 0.0009765625"
+    })
+    @DisplayName("Results should be exact, rounded to the precision and in plain form")
+    void testExactResults(String operation, String a, String b, String expected) {
+        DecimalResult result = calculator.evaluate(operation, a, b);
+        assertTrue(result.isSuccess());
+        assertEquals(expected, result.decimal());
+        assertEquals(Double.parseDouble(expected), result.value());
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "div, 1, 0, 1",
+        "div, 0.0, 0, 1",
+        "mod, 1, 2, 2",
+        "add, abc, 1, 5",
+        "add, 1E+5000, 1, 5"
+    })
+    @DisplayName("Failures should be reported as error codes")
+    void testErrorCodes(String operation, String a, String b, int errorCode) {
+        DecimalResult result = calculator.evaluate(operation, a, b);
+        assertFalse(result.isSuccess());
+        assertEquals(errorCode, result.errorCode());
+    }
+
+    @Test
+    @DisplayName("The exact double path should give the same text as BigDecimal")
+    void testExactPathMatchesBigDecimal() {
+        for (int i = -40; i <= 40; i++) {
+            for (int j = -40; j <= 40; j++) {
+                BigDecimal a = BigDecimal.valueOf(i, 0).divide(BigDecimal.valueOf(8));
+                BigDecimal b = BigDecimal.valueOf(j, 0).divide(BigDecimal.valueOf(16));
+                String x = a.toPlainString();
+                String y = b.toPlainString();
+                assertEquals(a.add(b).stripTrailingZeros().toPlainString(), calculator.evaluate("add", x, y).decimal());
+                assertEquals(a.subtract(b).stripTrailingZeros().toPlainString(), calculator.evaluate("sub", x, y).decimal());
+                assertEquals(a.multiply(b).stripTrailingZeros().toPlainString(), calculator.evaluate("mul", x, y).decimal());
+                if (j != 0) {
+                    assertEquals(a.divide(b, MathContext.DECIMAL128).stripTrailingZeros().toPlainString(),
+                        calculator.evaluate("div", x, y).decimal(), x + " / " + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Precision and rounding should come from the MathContext")
+    void testMathContext() {
+        assertEquals("0.67", new DecimalCalculator(new MathContext(2, RoundingMode.HALF_UP)).evaluate("div", "2", "3").decimal());
+        assertEquals("0.66", new DecimalCalculator(new MathContext(2, RoundingMode.DOWN)).evaluate("div", "2", "3").decimal());
+        assertEquals("120", new DecimalCalculator(new MathContext(2)).evaluate("add", "60", "55").decimal(),
+            "Whole results with more digits than the precision should be rounded too");
+        assertEquals("1.3", new DecimalCalculator(new MathContext(2, RoundingMode.HALF_UP)).evaluate("add", "1", "0.25").decimal(),
+            "Exact fractional results with more digits than the precision should be rounded too");
+        assertEquals(ErrorCodes.INEXACT_RESULT,
+            new DecimalCalculator(MathContext.UNLIMITED).evaluate("div", "1", "3").errorCode());
+        assertEquals("0.125", new DecimalCalculator(MathContext.UNLIMITED).evaluate("div", "1", "8").decimal());
+    }
+
+    @Test
+    @DisplayName("Plugged-in operations should be calculated on doubles")
+    void testCustomOperation() {
+        OperationRegistry registry = OperationRegistry.withDefaults();
+        registry.register(new PowerOperation((byte) 10, "pow"));
+        DecimalResult result = new DecimalCalculator(new Calculator(registry), MathContext.DECIMAL128).evaluate("pow", "2", "0.5");
+        assertTrue(result.isSuccess());
+        assertEquals(Math.sqrt(2), result.value());
+        assertEquals(Double.toString(Math.sqrt(2)), result.decimal());
+    }
+
+    private record PowerOperation(byte opcode, String operationName) implements Operation {
+        @Override
+        public double apply(double a, double b) {
+            return Math.pow(a, b);
+        }
+    }
+}
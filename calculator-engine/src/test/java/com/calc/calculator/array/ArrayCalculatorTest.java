@@ -0,0 +1,79 @@
+package com.calc.calculator.array;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.ErrorCodes;
+
+@DisplayName("Array Calculator Tests")
+class ArrayCalculatorTest {
+
+    private final Calculator calculator = new Calculator();
+
+    private final ArrayCalculator vectorized = new ArrayCalculator(calculator, true);
+
+    private final ArrayCalculator scalar = new ArrayCalculator(calculator, false);
+
+    // Lengths around the vector width exercise the scalar tail
+    @ParameterizedTest
+    @CsvSource({"add, 1", "sub, 7", "mul, 9", "div, 17", "add, 1001", "div, 1001"})
+    @DisplayName("Vector and scalar kernels should match the calculator element by element")
+    void testKernelsMatchCalculator(String operation, int length) {
+        double[] a = new double[length];
+        double[] b = new double[length];
+        for (int i = 0; i < length; i++) {
+            a[i] = i * 1.5 - 7;
+            b[i] = i % 5 == 0 ? 0.0 : (i % 3) - 1.25;
+        }
+        ArrayResult vector = vectorized.evaluate(operation, a, b);
+        ArrayResult loop = scalar.evaluate(operation, a, b);
+        assertTrue(vector.isSuccess());
+        assertArrayEquals(loop.values(), vector.values());
+        assertEquals(loop.divisionByZero(), vector.divisionByZero());
+        for (int i = 0; i < length; i++) {
+            CalculationResult expected = calculator.evaluate(operation, a[i], b[i]);
+            if (expected.isSuccess()) {
+                assertEquals(expected.value(), vector.values()[i], "Element " + i);
+            } else {
+                assertEquals(ErrorCodes.DIVISION_BY_ZERO, expected.errorCode());
+                assertTrue(Double.isNaN(vector.values()[i]));
+                assertTrue(vector.divisionByZero().get(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Division by a zero of either sign should be reported per element")
+    void testDivisionByZeroMask() {
+        ArrayResult result = vectorized.evaluate("div", new double[] {1, 2, 3, 4, 5}, new double[] {2, 0.0, 4, -0.0, 5});
+        assertTrue(result.isSuccess());
+        assertEquals(0.5, result.values()[0]);
+        assertTrue(Double.isNaN(result.values()[1]));
+        assertEquals(0.75, result.values()[2]);
+        assertTrue(Double.isNaN(result.values()[3]));
+        assertArrayEquals(new int[] {1, 3}, result.divisionByZero().stream().toArray());
+        assertTrue(vectorized.evaluate("mul", new double[] {1}, new double[] {0}).divisionByZero().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Invalid calls should fail as a whole")
+    void testErrors() {
+        double[] three = {1, 2, 3};
+        assertEquals(ErrorCodes.DIMENSION_MISMATCH, vectorized.evaluate("add", three, new double[2]).errorCode());
+        assertEquals(ErrorCodes.MISSING_OPERAND, vectorized.evaluate("add", three, null).errorCode());
+        assertEquals(ErrorCodes.UNSUPPORTED_OPERATION, vectorized.evaluate("pow", three, three).errorCode());
+        assertEquals(ErrorCodes.UNSUPPORTED_OPERATION, vectorized.evaluate((String) null, three, three).errorCode());
+        assertNull(vectorized.evaluate("add", three, null).values());
+        assertFalse(scalar.isVectorized());
+        assertEquals(1, scalar.getLanes());
+    }
+}
@@ -0,0 +1,157 @@
+package com.calc.calculator.expression;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.ErrorCodes;
+
+@DisplayName("Expression Tests")
+class ExpressionTest {
+
+    private final Calculator calculator = new Calculator();
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "1 + 2 * 3; 7",
+        "(1 + 2) * 3; 9",
+        "10 - 4 - 3; 3",
+        "24 / 4 / 2; 3",
+        "-2 * -3; 6",
+        "-(1 + 2); -3",
+        "+.5 + 1e1; 10.5",
+        "div(9, add(1, 2)); 3"
+    })
+    @DisplayName("Operators should follow the usual precedence and associativity")
+    void testConstantExpressions(String text, double expected) {
+        CalculationResult result = ExpressionParser.parse(text, calculator).evaluate();
+        assertTrue(result.isSuccess());
+        assertEquals(expected, result.value());
+    }
+
+    @Test
+    @DisplayName("Variables should be bound by name and by slot")
+    void testVariables() {
+        CompiledExpression expression = ExpressionParser.parse("(a + b) * c / d + a", calculator);
+        assertEquals(List.of("a", "b", "c", "d"), expression.variables(), "Repeated names should share a slot");
+        assertEquals(3.25, expression.evaluate(Map.of("a", 1.0, "b", 2.0, "c", 3.0, "d", 4.0, "unused", 9.0)).value());
+        assertEquals(3.25, expression.evaluate(1.0, 2.0, 3.0, 4.0).value());
+        assertEquals(ErrorCodes.UNBOUND_VARIABLE, expression.evaluate(Map.of("a", 1.0)).errorCode());
+        assertEquals(ErrorCodes.UNBOUND_VARIABLE, expression.evaluate(1.0, 2.0).errorCode());
+    }
+
+    @Test
+    @DisplayName("Operation errors should abort the evaluation with their code")
+    void testEvaluationErrors() {
+        CompiledExpression expression = ExpressionParser.parse("1 + a / (b - b)", calculator);
+        CalculationResult result = expression.evaluate(1.0, 2.0);
+        assertFalse(result.isSuccess());
+        assertEquals(ErrorCodes.DIVISION_BY_ZERO, result.errorCode());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "1 +; 7",
+        "(1 + 2; 7",
+        "1 2; 7",
+        "2 ^ 3; 7",
+        "1..2; 7",
+        "'  '; 7",
+        "mod(1, 2); 2",
+        "add(1); 7"
+    })
+    @DisplayName("Invalid text should be rejected at parse time with its error code")
+    void testParseErrors(String text, int errorCode) {
+        ExpressionException e = assertThrows(ExpressionException.class, () -> ExpressionParser.parse(text, calculator));
+        assertEquals(errorCode, e.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Overlong and overly nested expressions should be rejected")
+    void testLimits() {
+        assertThrows(ExpressionException.class, () -> ExpressionParser.parse("1+".repeat(ExpressionParser.MAX_LENGTH), calculator));
+        String nested = "(".repeat(ExpressionParser.MAX_DEPTH + 1) + "1" + ")".repeat(ExpressionParser.MAX_DEPTH + 1);
+        assertThrows(ExpressionException.class, () -> ExpressionParser.parse(nested, calculator));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "(a + b) * c / d",
+        "-a - -b * div(c, d)",
+        "a / (b - b) + 1",
+        "1e308 * a * 10 / b",
+        "a * 2 + sub(mul(b, c), d) - 0.5"
+    })
+    @DisplayName("Generated code should give the same results and error codes as the interpreter")
+    void testCompiledMatchesInterpreted(String text) {
+        CompiledExpression interpreted = ExpressionParser.parse(text, calculator);
+        CompiledExpression compiled = ExpressionParser.parse(text, calculator);
+        assertTrue(compiled.compile());
+        assertTrue(compiled.isCompiled());
+        assertFalse(interpreted.isCompiled());
+        double[] values = Arrays.copyOf(new double[] {1.5, 2.5, 3.5, 4.5}, interpreted.variables().size());
+        assertEquals(interpreted.evaluate(values), compiled.evaluate(values));
+    }
+
+    @Test
+    @DisplayName("Code should be generated once the compile threshold is reached")
+    void testCompileThreshold() {
+        CompiledExpression expression = ExpressionParser.parse("a * 2", calculator, 3);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2.0 * i, expression.evaluate((double) i).value());
+            assertFalse(expression.isCompiled());
+        }
+        assertEquals(6.0, expression.evaluate(3.0).value());
+        assertTrue(expression.isCompiled());
+
+        CompiledExpression never = ExpressionParser.parse("a * 2", calculator, CompiledExpression.NEVER);
+        for (int i = 0; i < 10; i++) {
+            never.evaluate(1.0);
+        }
+        assertFalse(never.isCompiled());
+    }
+
+    @Test
+    @DisplayName("Expressions too large for code generation should stay interpreted")
+    void testInterpretedFallback() {
+        CompiledExpression expression = ExpressionParser.parse("1" + " + a".repeat(300), calculator, 0);
+        assertEquals(301.0, expression.evaluate(1.0).value());
+        assertFalse(expression.isCompiled());
+        assertFalse(expression.compile());
+        assertEquals(601.0, expression.evaluate(2.0).value());
+    }
+
+    @Test
+    @DisplayName("Cache should parse each text once and evict the least recently used")
+    void testCache() {
+        ExpressionCache cache = new ExpressionCache(calculator, 2);
+        CompiledExpression first = cache.compile("a + 1");
+        assertSame(first, cache.compile("a + 1"));
+        cache.compile("a + 2");
+        cache.compile("a + 1");
+        cache.compile("a + 3");
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertSame(first, cache.compile("a + 1"), "Recently used entries should survive eviction");
+        assertThrows(ExpressionException.class, () -> cache.compile("a +"));
+        assertEquals(2, cache.size(), "Texts that fail to parse should not be cached");
+
+        ExpressionCache disabled = new ExpressionCache(calculator, 0);
+        assertNotSame(disabled.compile("a + 1"), disabled.compile("a + 1"));
+        assertEquals(0, disabled.size());
+    }
+}
@@ -0,0 +1,101 @@
+package com.calc.calculator.matrix;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.array.ArrayCalculator;
+
+@DisplayName("Matrix Calculator Tests")
+class MatrixCalculatorTest {
+
+    private final MatrixCalculator matrices = new MatrixCalculator(new ArrayCalculator(), new ForkJoinPool(4), 1 << 20);
+
+    private Matrix random(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        double[] data = new double[rows * cols];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = random.nextDouble() - 0.5;
+        }
+        return new Matrix(rows, cols, data);
+    }
+
+    // Textbook i-k-j loop: the same terms summed in the same order as the blocked kernel
+    private double[] naiveProduct(Matrix a, Matrix b, boolean transposeA) {
+        int m = transposeA ? a.cols() : a.rows();
+        int k = transposeA ? a.rows() : a.cols();
+        int n = b.cols();
+        double[] c = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int p = 0; p < k; p++) {
+                double aip = transposeA ? a.get(p, i) : a.get(i, p);
+                for (int j = 0; j < n; j++) {
+                    c[i * n + j] += aip * b.get(p, j);
+                }
+            }
+        }
+        return c;
+    }
+
+    // Shapes off the tile sizes, and large enough to be split into parallel tasks
+    @ParameterizedTest
+    @CsvSource({"1, 1, 1", "3, 5, 7", "65, 129, 63", "300, 200, 700", "130, 1000, 70", "0, 4, 3", "4, 0, 3"})
+    @DisplayName("Blocked parallel products should equal the naive product exactly")
+    void testProductsMatchNaive(int m, int k, int n) {
+        Matrix a = random(m, k, 1);
+        Matrix b = random(k, n, 2);
+        MatrixResult product = matrices.evaluate("mul", a, b);
+        assertTrue(product.isSuccess());
+        assertEquals(m, product.value().rows());
+        assertEquals(n, product.value().cols());
+        assertArrayEquals(naiveProduct(a, b, false), product.value().data());
+
+        Matrix at = random(k, m, 3);
+        MatrixResult transposed = matrices.evaluate("tmul", at, b);
+        assertTrue(transposed.isSuccess());
+        assertArrayEquals(naiveProduct(at, b, true), transposed.value().data());
+    }
+
+    @Test
+    @DisplayName("Results should not depend on the number of threads")
+    void testDeterministicAcrossPools() {
+        Matrix a = random(257, 600, 4);
+        Matrix b = random(600, 1100, 5);
+        MatrixCalculator sequential = new MatrixCalculator(new ArrayCalculator(), new ForkJoinPool(1), MatrixCalculator.MAX_ELEMENTS);
+        assertArrayEquals(sequential.multiply(a, b).value().data(), matrices.multiply(a, b).value().data());
+    }
+
+    @Test
+    @DisplayName("Addition should work element by element")
+    void testAdd() {
+        Matrix a = new Matrix(2, 2, new double[] {1, 2, 3, 4});
+        Matrix b = new Matrix(2, 2, new double[] {0.5, -2, 10, 0});
+        MatrixResult sum = matrices.evaluate("add", a, b);
+        assertArrayEquals(new double[] {1.5, 0, 13, 4}, sum.value().data());
+        assertEquals(2, sum.value().rows());
+    }
+
+    @Test
+    @DisplayName("Invalid calls should fail with an error code")
+    void testErrors() {
+        Matrix twoByThree = random(2, 3, 6);
+        assertEquals(ErrorCodes.DIMENSION_MISMATCH, matrices.evaluate("mul", twoByThree, twoByThree).errorCode());
+        assertEquals(ErrorCodes.DIMENSION_MISMATCH, matrices.evaluate("add", twoByThree, random(3, 2, 7)).errorCode());
+        assertEquals(ErrorCodes.DIMENSION_MISMATCH, matrices.evaluate("tmul", twoByThree, random(3, 2, 7)).errorCode());
+        assertEquals(ErrorCodes.MISSING_OPERAND, matrices.evaluate("mul", twoByThree, null).errorCode());
+        assertEquals(ErrorCodes.UNSUPPORTED_OPERATION, matrices.evaluate("div", twoByThree, twoByThree).errorCode());
+        assertEquals(ErrorCodes.UNSUPPORTED_OPERATION, matrices.evaluate((byte) 9, twoByThree, twoByThree).errorCode());
+        assertEquals(ErrorCodes.RESULT_TOO_LARGE, matrices.evaluate("mul", random(2048, 1, 8), random(1, 2048, 9)).errorCode(),
+            "A product larger than the limit should fail before it is allocated");
+        assertThrows(IllegalArgumentException.class, () -> new Matrix(2, 2, new double[3]));
+    }
+}
@@ -0,0 +1,125 @@
+package com.calc.calculator.operation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.ErrorCodes;
+
+@DisplayName("Operation Registry Tests")
+class OperationRegistryTest {
+
+    @ParameterizedTest
+    @CsvSource({
+        "1, add, 5.0",
+        "2, sub, -1.0",
+        "3, mul, 6.0",
+        "4, div, 0.6666666666666666"
+    })
+    @DisplayName("Built-in operations should be reachable by opcode and by name")
+    void testBuiltinLookup(byte opcode, String name, double expected) {
+        Calculator calculator = new Calculator();
+        assertEquals(expected, calculator.calculate(opcode, 2.0, 3.0));
+        assertEquals(name, calculator.getRegistry().byOpcode(opcode).operationName());
+        assertEquals(opcode, calculator.getRegistry().byName(name).opcode());
+    }
+
+    @Test
+    @DisplayName("Unknown opcode should throw IllegalArgumentException")
+    void testUnknownOpcode() {
+        Calculator calculator = new Calculator();
+        assertNull(calculator.getRegistry().byOpcode((byte) 99));
+        assertThrows(IllegalArgumentException.class, () -> calculator.calculate((byte) 99, 1.0, 2.0));
+        assertThrows(IllegalArgumentException.class, () -> calculator.calculate((byte) 0, 1.0, 2.0));
+    }
+
+    @Test
+    @DisplayName("Custom operations should be usable once registered")
+    void testCustomOperation() {
+        OperationRegistry registry = OperationRegistry.withDefaults();
+        registry.register(new TestOperation((byte) 10, "pow"));
+
+        Calculator calculator = new Calculator(registry);
+        assertEquals(8.0, calculator.makeOperation(2.0, 3.0, "pow"));
+        assertEquals(8.0, calculator.calculate((byte) 10, 2.0, 3.0));
+    }
+
+    @Test
+    @DisplayName("Operations registered on one thread should be visible to readers on another")
+    void testConcurrentRegistration() throws InterruptedException {
+        OperationRegistry registry = OperationRegistry.withDefaults();
+        Thread writer = new Thread(() -> {
+            for (int opcode = 20; opcode < 120; opcode++) {
+                registry.register(new TestOperation((byte) opcode, "op" + opcode));
+            }
+        });
+
+        writer.start();
+        for (int opcode = 20; opcode < 120; opcode++) {
+            while (registry.byOpcode((byte) opcode) == null || registry.byName("op" + opcode) == null) {
+                Thread.onSpinWait();
+            }
+            assertEquals("op" + opcode, registry.byOpcode((byte) opcode).operationName());
+            assertEquals(opcode, registry.byName("op" + opcode).opcode());
+        }
+        writer.join();
+        assertNull(registry.byName(null));
+    }
+
+    @Test
+    @DisplayName("Duplicate opcode or name should be rejected")
+    void testDuplicateRegistration() {
+        OperationRegistry registry = OperationRegistry.withDefaults();
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new TestOperation((byte) 1, "pow")));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new TestOperation((byte) 10, "add")));
+        assertThrows(IllegalArgumentException.class, () -> registry.register(new TestOperation((byte) 0, "pow")));
+    }
+
+    @Test
+    @DisplayName("Built-in operations should be found by name and opcode without a registry")
+    void testBuiltinOperationLookup() {
+        assertEquals(BuiltinOperation.DIV, BuiltinOperation.byName("div"));
+        assertEquals(BuiltinOperation.DIV, BuiltinOperation.byOpcode((byte) 4));
+        assertEquals((byte) 2, BuiltinOperation.opcodeOf("sub"));
+        assertEquals(Operation.UNKNOWN_OPCODE, BuiltinOperation.opcodeOf("pow"));
+        assertEquals(Operation.UNKNOWN_OPCODE, BuiltinOperation.opcodeOf(null));
+        assertNull(BuiltinOperation.byOpcode(Operation.UNKNOWN_OPCODE));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "div, 1.0, 0.0, 1",
+        "mod, 1.0, 2.0, 2",
+        "'', 1.0, 2.0, 2"
+    })
+    @DisplayName("Evaluate should report failures as error codes instead of throwing")
+    void testEvaluateErrorCodes(String operation, double a, double b, int errorCode) {
+        CalculationResult result = new Calculator().evaluate(operation, a, b);
+        assertFalse(result.isSuccess());
+        assertEquals(errorCode, result.errorCode());
+    }
+
+    @Test
+    @DisplayName("Evaluate should return the value on success")
+    void testEvaluateSuccess() {
+        CalculationResult result = new Calculator().evaluate((byte) 3, 4.0, 2.5);
+        assertTrue(result.isSuccess());
+        assertEquals(10.0, result.value());
+        assertEquals(ErrorCodes.UNSUPPORTED_OPERATION, new Calculator().evaluate((String) null, 1.0, 2.0).errorCode());
+    }
+
+    private record TestOperation(byte opcode, String operationName) implements Operation {
+        @Override
+        public double apply(double a, double b) {
+            return Math.pow(a, b);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.calc.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line of the load test. Every option is --name=value:
+ *
+ *   --rates=500,1000,2000     requests per second of each step, run in order
+ *   --duration=20             seconds of each step
+ *   --warmup=10               seconds at the first rate before measuring
+ *   --mix=add:1,sub:1,...     relative weight of each operation
+ *   --timeout-ms=10000        client-side timeout of a single request
+ *   --slo-p99-ms=100          p99 a step must stay under to count as sustainable
+ *   --rest.<property>=value   passed to service-rest, e.g. --rest.calculator.cache.max-size=0
+ *   --calc.<property>=value   passed to service-calculator
+ */
+record LoadOptions(List<Integer> rates, int durationSeconds, int warmupSeconds, Map<String, Integer> mix,
+                   long timeoutMs, double sloP99Ms, List<String> restArgs, List<String> calculatorArgs) {
+
+    static LoadOptions parse(String[] args) {
+        List<Integer> rates = List.of(500, 1000, 2000, 5000);
+        int duration = 20;
+        int warmup = 10;
+        Map<String, Integer> mix = Map.of("add", 1, "sub", 1, "mul", 1, "div", 1);
+        long timeoutMs = 10_000;
+        double sloP99Ms = 100;
+        List<String> restArgs = new ArrayList<>();
+        List<String> calculatorArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (!arg.startsWith("--") || eq < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, eq);
+            String value = arg.substring(eq + 1);
+            if (name.startsWith("rest.")) {
+                restArgs.add("--" + name.substring("rest.".length()) + "=" + value);
+                continue;
+            }
+            if (name.startsWith("calc.")) {
+                calculatorArgs.add("--" + name.substring("calc.".length()) + "=" + value);
+                continue;
+            }
+            switch (name) {
+                case "rates" -> rates = parseRates(value);
+                case "duration" -> duration = Integer.parseInt(value);
+                case "warmup" -> warmup = Integer.parseInt(value);
+                case "mix" -> mix = parseMix(value);
+                case "timeout-ms" -> timeoutMs = Long.parseLong(value);
+                case "slo-p99-ms" -> sloP99Ms = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        return new LoadOptions(rates, duration, warmup, mix, timeoutMs, sloP99Ms, restArgs, calculatorArgs);
+    }
+
+    private static List<Integer> parseRates(String value) {
+        List<Integer> rates = new ArrayList<>();
+        for (String rate : value.split(",")) {
+            rates.add(Integer.parseInt(rate.trim()));
+        }
+        return rates;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            mix.put(parts[0].trim(), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return mix;
+    }
+}
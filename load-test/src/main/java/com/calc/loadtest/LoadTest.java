@@ -0,0 +1,98 @@
+package com.calc.loadtest;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import com.calc.calculator.CalculatorServiceApplication;
+import com.calc.rest.RestServiceApplication;
+
+/**
+ * End-to-end load test: starts an embedded Kafka broker, the calculator service and
+ * the REST service in this JVM, then drives open-loop HTTP load through
+ * CalculatorController -> Kafka -> CalculationService -> Kafka -> CalculatorKafkaService
+ * at each configured rate and prints latency percentiles per step.
+ *
+ * Everything shares one host, so the numbers are for comparing changes, not for sizing
+ * production. Options are described in {@link LoadOptions}.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadOptions options = LoadOptions.parse(args);
+
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 12);
+        broker.afterPropertiesSet();
+        ConfigurableApplicationContext calculator = null;
+        ConfigurableApplicationContext rest = null;
+        try {
+            String bootstrapServers = broker.getBrokersAsString();
+            calculator = start(CalculatorServiceApplication.class, "service-calculator", WebApplicationType.NONE, bootstrapServers,
+                options.calculatorArgs(), "--calculator.metrics.port=0");
+            rest = start(RestServiceApplication.class, "service-rest", WebApplicationType.SERVLET, bootstrapServers,
+                options.restArgs(), "--server.port=0", "--calculator.instance-id=load-test");
+            int port = ((WebServerApplicationContext) rest).getWebServer().getPort();
+
+            run(options, "http://localhost:" + port);
+        } finally {
+            if (rest != null) {
+                rest.close();
+            }
+            if (calculator != null) {
+                calculator.close();
+            }
+            broker.destroy();
+        }
+    }
+
+    private static void run(LoadOptions options, String baseUrl) throws InterruptedException {
+        try (HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build()) {
+            OpenLoopLoad load = new OpenLoopLoad(client, baseUrl, options.mix(), options.timeoutMs());
+
+            System.out.printf("Warming up for %d s at %d req/s%n", options.warmupSeconds(), options.rates().get(0));
+            load.run(options.rates().get(0), options.warmupSeconds());
+
+            System.out.println(StepResult.HEADER);
+            List<StepResult> results = new ArrayList<>();
+            for (int rate : options.rates()) {
+                StepResult result = load.run(rate, options.durationSeconds());
+                results.add(result);
+                System.out.println(result.row());
+            }
+
+            double sustainable = results.stream()
+                .filter(result -> result.sustainable(options.sloP99Ms()))
+                .mapToDouble(StepResult::throughput)
+                .max()
+                .orElse(0);
+            System.out.printf("Max sustainable throughput: %.0f req/s (p99 <= %.0f ms, no timeouts)%n",
+                sustainable, options.sloP99Ms());
+        }
+    }
+
+    // Each service runs on its own application.properties, which the build copies to <service>.properties
+    // because both are named the same on this classpath. Only what cannot be shared in one JVM is
+    // overlaid: the broker address, free ports, the REST instance id and the development log levels.
+    private static ConfigurableApplicationContext start(Class<?> application, String service, WebApplicationType type,
+            String bootstrapServers, List<String> overrides, String... args) {
+        List<String> all = new ArrayList<>(List.of(args));
+        all.add("--spring.config.location=classpath:/" + service + ".properties");
+        all.add("--spring.kafka.bootstrap-servers=" + bootstrapServers);
+        all.add("--logging.level.root=WARN");
+        all.add("--logging.level.com.calc=WARN");
+        all.add("--logging.level.org.springframework.kafka=WARN");
+        all.addAll(overrides);
+        return new SpringApplicationBuilder(application)
+            .web(type)
+            .run(all.toArray(String[]::new));
+    }
+}
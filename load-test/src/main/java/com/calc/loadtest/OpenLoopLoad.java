@@ -0,0 +1,119 @@
+package com.calc.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Sends requests on a fixed schedule, whether or not earlier ones were answered.
+ *
+ * Latency is measured from the moment a request was due, not from when it was
+ * actually sent, so a stalled system is charged for every request it delayed
+ * (no coordinated omission).
+ */
+class OpenLoopLoad {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String[] operations;
+    private final long timeoutMs;
+
+    OpenLoopLoad(HttpClient client, String baseUrl, Map<String, Integer> mix, long timeoutMs) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.operations = weighted(mix);
+        this.timeoutMs = timeoutMs;
+    }
+
+    StepResult run(int ratePerSecond, int durationSeconds) throws InterruptedException {
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        LongAdder ok = new LongAdder();
+        LongAdder serverTimeouts = new LongAdder();
+        LongAdder clientTimeouts = new LongAdder();
+        LongAdder shed = new LongAdder();
+        LongAdder errors = new LongAdder();
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long total = (long) ratePerSecond * durationSeconds;
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[(int) total];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = start + i * intervalNanos;
+            waitUntil(due);
+            inFlight[i] = client.sendAsync(nextRequest(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, e) -> {
+                    recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (System.nanoTime() - due) / 1_000));
+                    if (e != null) {
+                        Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                        (cause instanceof HttpTimeoutException ? clientTimeouts : errors).increment();
+                    } else if (response.statusCode() == 200) {
+                        ok.increment();
+                    } else if (response.statusCode() == 503) {
+                        shed.increment();
+                    } else if (response.statusCode() == 504) {
+                        serverTimeouts.increment();
+                    } else {
+                        errors.increment();
+                    }
+                });
+        }
+        long sendNanos = System.nanoTime() - start;
+        CompletableFuture.allOf(inFlight).exceptionally(e -> null).join();
+        long elapsedNanos = System.nanoTime() - start;
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new StepResult(ratePerSecond, total, total * 1e9 / sendNanos, ok.sum() * 1e9 / elapsedNanos,
+            ok.sum(), shed.sum(), serverTimeouts.sum(), clientTimeouts.sum(), errors.sum(),
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+
+    private HttpRequest nextRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String operation = operations[random.nextInt(operations.length)];
+        // Fresh operands every time, so the result cache does not answer instead of the calculator
+        double op1 = random.nextDouble(1, 1_000_000);
+        double op2 = random.nextDouble(1, 1_000_000);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/" + operation + "?op1=" + op1 + "&op2=" + op2))
+            .timeout(Duration.ofMillis(timeoutMs))
+            .GET()
+            .build();
+    }
+
+    // Parks for long waits and spins for the last stretch, where parking overshoots
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > 100_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static String[] weighted(Map<String, Integer> mix) {
+        return mix.entrySet().stream()
+            .flatMap(entry -> Stream.generate(entry::getKey).limit(entry.getValue()))
+            .toArray(String[]::new);
+    }
+}
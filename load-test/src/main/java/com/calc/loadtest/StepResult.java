@@ -0,0 +1,23 @@
+package com.calc.loadtest;
+
+// Outcome of one load step; latencies in milliseconds, throughputs in requests per second
+record StepResult(int targetRate, long sent, double sendRate, double throughput,
+                  long ok, long shed, long serverTimeouts, long clientTimeouts, long errors,
+                  double p50, double p99, double p999, double max) {
+
+    static final String HEADER = String.format("%8s %9s %9s %9s %7s %8s %8s %7s %9s %9s %9s %9s",
+        "rate", "sent/s", "ok/s", "ok", "shed", "timeout", "client", "error", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+
+    // The driver kept up, nearly everything succeeded in time and the tail stayed within the SLO
+    boolean sustainable(double sloP99Ms) {
+        return sendRate >= 0.95 * targetRate
+            && ok >= 0.99 * sent
+            && serverTimeouts == 0 && clientTimeouts == 0
+            && p99 <= sloP99Ms;
+    }
+
+    String row() {
+        return String.format("%8d %9.0f %9.0f %9d %7d %8d %8d %7d %9.2f %9.2f %9.2f %9.2f",
+            targetRate, sendRate, throughput, ok, shed, serverTimeouts, clientTimeouts, errors, p50, p99, p999, max);
+    }
+}
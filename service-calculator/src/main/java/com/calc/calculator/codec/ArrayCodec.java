@@ -0,0 +1,128 @@
+package com.calc.calculator.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+
+import com.calc.calculator.dto.ArrayCalculationRequest;
+import com.calc.calculator.dto.ArrayCalculationResponse;
+
+/**
+ * Binary encoding of the element-wise array DTOs; arrays never travel as JSON.
+ *
+ * Request:  magic(1) opcode(1) length1(4) length2(4) [op1(8 * length1)] [op2(8 * length2)]
+ * Response: magic(1) errorCode(1) [length(4) results(8 * length) words(4) divisionByZero(8 * words)]
+ *
+ * Doubles are raw IEEE 754 bits in little-endian order, so on x86 and ARM the arrays are
+ * copied in bulk rather than converted one by one. A missing operand has length -1.
+ * Error responses end after the error code. The division-by-zero indices are the words of
+ * a bit set, so a result without any costs four bytes.
+ */
+public final class ArrayCodec {
+
+    static final byte REQUEST_MAGIC = (byte) 0xA1;
+    static final byte RESPONSE_MAGIC = (byte) 0xA2;
+
+    private static final int REQUEST_HEADER = 10;
+    // Key, headers and record batch framing around the payload
+    private static final int RECORD_OVERHEAD = 1024;
+
+    private ArrayCodec() {}
+
+    // Bytes Kafka must accept per record for arrays of up to maxLength elements; requests are the larger side
+    public static int maxRecordSize(int maxLength) {
+        return Math.toIntExact(REQUEST_HEADER + 16L * maxLength + RECORD_OVERHEAD);
+    }
+
+    public static byte[] encode(ArrayCalculationRequest request) {
+        double[] operand1 = request.getOperand1();
+        double[] operand2 = request.getOperand2();
+        long size = REQUEST_HEADER + 8L * (lengthOf(operand1) + lengthOf(operand2));
+        ByteBuffer buffer = allocate(size);
+        buffer.put(REQUEST_MAGIC).put(request.getOpcode());
+        buffer.putInt(operand1 != null ? operand1.length : -1).putInt(operand2 != null ? operand2.length : -1);
+        putDoubles(buffer, operand1);
+        putDoubles(buffer, operand2);
+        return buffer.array();
+    }
+
+    public static ArrayCalculationRequest decodeRequest(byte[] data) {
+        ByteBuffer buffer = wrap(data);
+        expectMagic(buffer, REQUEST_MAGIC);
+        ArrayCalculationRequest request = new ArrayCalculationRequest();
+        request.setOpcode(buffer.get());
+        int length1 = buffer.getInt();
+        int length2 = buffer.getInt();
+        request.setOperand1(getDoubles(buffer, length1));
+        request.setOperand2(getDoubles(buffer, length2));
+        return request;
+    }
+
+    public static byte[] encode(ArrayCalculationResponse response) {
+        if (!response.isSuccess()) {
+            return new byte[] { RESPONSE_MAGIC, (byte) response.getErrorCode() };
+        }
+        double[] results = response.getResults();
+        long[] words = response.getDivisionByZero() != null ? response.getDivisionByZero().toLongArray() : new long[0];
+        ByteBuffer buffer = allocate(10 + 8L * results.length + 8L * words.length);
+        buffer.put(RESPONSE_MAGIC).put((byte) 0);
+        buffer.putInt(results.length);
+        putDoubles(buffer, results);
+        buffer.putInt(words.length);
+        buffer.asLongBuffer().put(words);
+        return buffer.array();
+    }
+
+    public static ArrayCalculationResponse decodeResponse(byte[] data) {
+        ByteBuffer buffer = wrap(data);
+        expectMagic(buffer, RESPONSE_MAGIC);
+        int errorCode = Byte.toUnsignedInt(buffer.get());
+        if (errorCode != 0) {
+            return new ArrayCalculationResponse(errorCode);
+        }
+        double[] results = getDoubles(buffer, buffer.getInt());
+        long[] words = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(words);
+        return new ArrayCalculationResponse(results, BitSet.valueOf(words));
+    }
+
+    private static int lengthOf(double[] values) {
+        return values != null ? values.length : 0;
+    }
+
+    private static ByteBuffer allocate(long size) {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Arrays too large for one record");
+        }
+        return ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer wrap(byte[] data) {
+        return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // The view buffers share the bytes but not the position, so it is advanced by hand
+    private static void putDoubles(ByteBuffer buffer, double[] values) {
+        if (values == null) return;
+        buffer.asDoubleBuffer().put(values);
+        buffer.position(buffer.position() + 8 * values.length);
+    }
+
+    private static double[] getDoubles(ByteBuffer buffer, int length) {
+        if (length < 0) return null;
+        if (length > buffer.remaining() / 8) {
+            throw new IllegalArgumentException("Array length " + length + " exceeds the payload");
+        }
+        double[] values = new double[length];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + 8 * length);
+        return values;
+    }
+
+    private static void expectMagic(ByteBuffer buffer, byte magic) {
+        byte actual = buffer.get();
+        if (actual != magic) {
+            throw new IllegalArgumentException(String.format("Unexpected payload type 0x%02X", actual));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.calc.calculator.codec;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.calc.calculator.dto.ArrayCalculationRequest;
+
+// Kafka adapter for the binary array request layout
+public class ArrayRequestDeserializer implements Deserializer<ArrayCalculationRequest> {
+
+    @Override
+    public ArrayCalculationRequest deserialize(String topic, byte[] data) {
+        return data == null ? null : ArrayCodec.decodeRequest(data);
+    }
+}
@@ -0,0 +1,14 @@
+package com.calc.calculator.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.calc.calculator.dto.ArrayCalculationResponse;
+
+// Kafka adapter for the binary array response layout
+public class ArrayResponseSerializer implements Serializer<ArrayCalculationResponse> {
+
+    @Override
+    public byte[] serialize(String topic, ArrayCalculationResponse data) {
+        return data == null ? null : ArrayCodec.encode(data);
+    }
+}
@@ -0,0 +1,24 @@
+package com.calc.calculator.codec;
+
+/**
+ * Size bounds of the batch records, which travel as JSON rather than through a binary codec.
+ *
+ * The widest item either way is a failed reply such as
+ * {"requestId":null,"result":-2.2250738585072014E-308,"success":false,"errorMessage":null,
+ * "errorCode":10,"decimalResult":null}, about 120 bytes; the REST service caps op names
+ * in request items at 64 characters. Each item is given twice that much room so a new
+ * nullable field does not push a full batch over the limit.
+ */
+public final class BatchRecords {
+
+    static final int MAX_ITEM_BYTES = 256;
+    // Batch request id, envelope fields, key, headers and record batch framing
+    private static final int RECORD_OVERHEAD = 1024;
+
+    private BatchRecords() {}
+
+    // Bytes Kafka must accept per record for batches of up to maxItems items, in either direction
+    public static int maxRecordSize(int maxItems) {
+        return Math.toIntExact((long) MAX_ITEM_BYTES * maxItems + RECORD_OVERHEAD);
+    }
+}
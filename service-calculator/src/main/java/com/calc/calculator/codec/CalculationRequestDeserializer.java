@@ -0,0 +1,26 @@
+package com.calc.calculator.codec;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.calc.calculator.dto.CalculationRequest;
+
+// Kafka adapter for the binary request layout; JSON payloads are still accepted
+// so instances can be switched between codecs one at a time
+public class CalculationRequestDeserializer implements Deserializer<CalculationRequest> {
+
+    private final JsonDeserializer<CalculationRequest> json = new JsonDeserializer<>(CalculationRequest.class, false);
+
+    @Override
+    public CalculationRequest deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return CalculationCodec.isBinary(data) ? CalculationCodec.decodeRequest(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.calc.calculator.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.calc.calculator.dto.CalculationResponse;
+
+// Kafka adapter for the binary response layout (calculator.kafka.codec=binary)
+public class CalculationResponseSerializer implements Serializer<CalculationResponse> {
+
+    @Override
+    public byte[] serialize(String topic, CalculationResponse data) {
+        return data == null ? null : CalculationCodec.encode(data);
+    }
+}
@@ -0,0 +1,44 @@
+package com.calc.calculator.codec;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Per-hop timestamps of a traced request, carried in the {@value #HEADER} Kafka header.
+ *
+ * Request, written by service-rest: sendWallMicros(8) sendNanos(8)
+ * Reply, appended here:             the request stamps, receiveWallMicros(8)
+ *                                   computeNanos(8) residenceNanos(8)
+ *
+ * The durations are measured on this host's monotonic clock from the moment the
+ * request was received; the request stamps are copied back untouched.
+ */
+public final class HopTimestamps {
+
+    public static final String HEADER = "calc_hops";
+
+    static final int REQUEST_BYTES = 2 * Long.BYTES;
+    static final int REPLY_BYTES = 5 * Long.BYTES;
+
+    private HopTimestamps() {}
+
+    // Returns null when the request stamps are not in the expected layout
+    public static byte[] reply(byte[] request, long receivedAtNanos, long computedAtNanos) {
+        if (request == null || request.length != REQUEST_BYTES) {
+            return null;
+        }
+        long residenceNanos = System.nanoTime() - receivedAtNanos;
+        long receiveWallMicros = wallClockMicros() - residenceNanos / 1_000;
+        return ByteBuffer.allocate(REPLY_BYTES)
+            .put(request)
+            .putLong(receiveWallMicros)
+            .putLong(computedAtNanos - receivedAtNanos)
+            .putLong(residenceNanos)
+            .array();
+    }
+
+    private static long wallClockMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+}
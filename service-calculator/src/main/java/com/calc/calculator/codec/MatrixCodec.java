@@ -0,0 +1,138 @@
+package com.calc.calculator.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.calc.calculator.dto.MatrixCalculationRequest;
+import com.calc.calculator.dto.MatrixCalculationResponse;
+import com.calc.calculator.dto.MatrixData;
+
+/**
+ * Binary encoding of the matrix DTOs, laid out like the array records.
+ *
+ * Request:  magic(1) opcode(1) rows1(4) cols1(4) rows2(4) cols2(4) [op1(8 * rows1 * cols1)] [op2(8 * rows2 * cols2)]
+ * Response: magic(1) errorCode(1) [rows(4) cols(4) result(8 * rows * cols)]
+ *
+ * Elements are row-major raw IEEE 754 bits in little-endian order, copied in bulk.
+ * A missing operand has -1 rows and columns. Error responses end after the error code.
+ */
+public final class MatrixCodec {
+
+    static final byte REQUEST_MAGIC = (byte) 0xB1;
+    static final byte RESPONSE_MAGIC = (byte) 0xB2;
+
+    private static final int REQUEST_HEADER = 18;
+    private static final int RESPONSE_HEADER = 10;
+    // Key, headers and record batch framing around the payload
+    private static final int RECORD_OVERHEAD = 1024;
+
+    private MatrixCodec() {}
+
+    // Bytes Kafka must accept per record for matrices of up to maxElements elements; requests are the larger side
+    public static int maxRecordSize(int maxElements) {
+        return Math.toIntExact(REQUEST_HEADER + 16L * maxElements + RECORD_OVERHEAD);
+    }
+
+    public static byte[] encode(MatrixCalculationRequest request) {
+        MatrixData operand1 = request.getOperand1();
+        MatrixData operand2 = request.getOperand2();
+        ByteBuffer buffer = allocate(REQUEST_HEADER + 8L * (sizeOf(operand1) + sizeOf(operand2)));
+        buffer.put(REQUEST_MAGIC).put(request.getOpcode());
+        putShape(buffer, operand1);
+        putShape(buffer, operand2);
+        putData(buffer, operand1);
+        putData(buffer, operand2);
+        return buffer.array();
+    }
+
+    public static MatrixCalculationRequest decodeRequest(byte[] data) {
+        ByteBuffer buffer = wrap(data);
+        expectMagic(buffer, REQUEST_MAGIC);
+        MatrixCalculationRequest request = new MatrixCalculationRequest();
+        request.setOpcode(buffer.get());
+        int rows1 = buffer.getInt();
+        int cols1 = buffer.getInt();
+        int rows2 = buffer.getInt();
+        int cols2 = buffer.getInt();
+        request.setOperand1(getMatrix(buffer, rows1, cols1));
+        request.setOperand2(getMatrix(buffer, rows2, cols2));
+        return request;
+    }
+
+    public static byte[] encode(MatrixCalculationResponse response) {
+        if (!response.isSuccess()) {
+            return new byte[] { RESPONSE_MAGIC, (byte) response.getErrorCode() };
+        }
+        MatrixData result = response.getResult();
+        ByteBuffer buffer = allocate(RESPONSE_HEADER + 8L * sizeOf(result));
+        buffer.put(RESPONSE_MAGIC).put((byte) 0);
+        putShape(buffer, result);
+        putData(buffer, result);
+        return buffer.array();
+    }
+
+    public static MatrixCalculationResponse decodeResponse(byte[] data) {
+        ByteBuffer buffer = wrap(data);
+        expectMagic(buffer, RESPONSE_MAGIC);
+        int errorCode = Byte.toUnsignedInt(buffer.get());
+        if (errorCode != 0) {
+            return new MatrixCalculationResponse(errorCode);
+        }
+        int rows = buffer.getInt();
+        int cols = buffer.getInt();
+        return new MatrixCalculationResponse(getMatrix(buffer, rows, cols));
+    }
+
+    private static long sizeOf(MatrixData matrix) {
+        return matrix != null && matrix.getData() != null ? matrix.getData().length : 0;
+    }
+
+    private static ByteBuffer allocate(long size) {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Matrices too large for one record");
+        }
+        return ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer wrap(byte[] data) {
+        return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void putShape(ByteBuffer buffer, MatrixData matrix) {
+        if (matrix == null) {
+            buffer.putInt(-1).putInt(-1);
+            return;
+        }
+        if (sizeOf(matrix) != (long) matrix.getRows() * matrix.getCols()) {
+            throw new IllegalArgumentException("A " + matrix.getRows() + "x" + matrix.getCols() + " matrix needs "
+                + (long) matrix.getRows() * matrix.getCols() + " elements");
+        }
+        buffer.putInt(matrix.getRows()).putInt(matrix.getCols());
+    }
+
+    // The view buffers share the bytes but not the position, so it is advanced by hand
+    private static void putData(ByteBuffer buffer, MatrixData matrix) {
+        if (matrix == null || matrix.getData() == null) return;
+        buffer.asDoubleBuffer().put(matrix.getData());
+        buffer.position(buffer.position() + 8 * matrix.getData().length);
+    }
+
+    private static MatrixData getMatrix(ByteBuffer buffer, int rows, int cols) {
+        if (rows < 0 && cols < 0) return null;
+        long size = (long) rows * cols;
+        if (rows < 0 || cols < 0 || size > buffer.remaining() / 8) {
+            throw new IllegalArgumentException("Matrix shape " + rows + "x" + cols + " exceeds the payload");
+        }
+        double[] data = new double[(int) size];
+        buffer.asDoubleBuffer().get(data);
+        buffer.position(buffer.position() + 8 * data.length);
+        return new MatrixData(rows, cols, data);
+    }
+
+    private static void expectMagic(ByteBuffer buffer, byte magic) {
+        byte actual = buffer.get();
+        if (actual != magic) {
+            throw new IllegalArgumentException(String.format("Unexpected payload type 0x%02X", actual));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.calc.calculator.codec;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.calc.calculator.dto.MatrixCalculationRequest;
+
+// Kafka adapter for the binary matrix request layout
+public class MatrixRequestDeserializer implements Deserializer<MatrixCalculationRequest> {
+
+    @Override
+    public MatrixCalculationRequest deserialize(String topic, byte[] data) {
+        return data == null ? null : MatrixCodec.decodeRequest(data);
+    }
+}
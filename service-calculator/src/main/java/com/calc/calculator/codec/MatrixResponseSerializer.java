@@ -0,0 +1,14 @@
+package com.calc.calculator.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.calc.calculator.dto.MatrixCalculationResponse;
+
+// Kafka adapter for the binary matrix response layout
+public class MatrixResponseSerializer implements Serializer<MatrixCalculationResponse> {
+
+    @Override
+    public byte[] serialize(String topic, MatrixCalculationResponse data) {
+        return data == null ? null : MatrixCodec.encode(data);
+    }
+}
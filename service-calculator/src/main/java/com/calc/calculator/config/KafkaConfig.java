@@ -2,6 +2,7 @@ package com.calc.calculator.config;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -10,6 +11,8 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
@@ -19,8 +22,25 @@ import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.calc.calculator.codec.ArrayCodec;
+import com.calc.calculator.codec.ArrayRequestDeserializer;
+import com.calc.calculator.codec.ArrayResponseSerializer;
+import com.calc.calculator.codec.BatchRecords;
+import com.calc.calculator.codec.CalculationRequestDeserializer;
+import com.calc.calculator.codec.CalculationResponseSerializer;
+import com.calc.calculator.codec.MatrixCodec;
+import com.calc.calculator.codec.MatrixRequestDeserializer;
+import com.calc.calculator.codec.MatrixResponseSerializer;
+import com.calc.calculator.dto.ArrayCalculationRequest;
+import com.calc.calculator.dto.ArrayCalculationResponse;
+import com.calc.calculator.dto.BatchCalculationRequest;
+import com.calc.calculator.dto.BatchCalculationResponse;
 import com.calc.calculator.dto.CalculationRequest;
 import com.calc.calculator.dto.CalculationResponse;
+import com.calc.calculator.dto.ExpressionRequest;
+import com.calc.calculator.dto.MatrixCalculationRequest;
+import com.calc.calculator.dto.MatrixCalculationResponse;
+import com.calc.calculator.threads.Threads;
 
 @Configuration
 public class KafkaConfig {
@@ -28,15 +48,42 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Wire format of the calculation records this service sends: json (default) or binary
+    @Value("${calculator.kafka.codec:json}")
+    private String codec;
+
+    // Consumer threads per instance; 0 means one per available core
+    @Value("${calculator.kafka.listener-concurrency:0}")
+    private int listenerConcurrency;
+
+    // Records handed to the batch listener per poll
+    @Value("${calculator.kafka.batch-listener.max-poll-records:500}")
+    private int batchMaxPollRecords;
+
+    // How long the producer waits to fill a batch of replies
+    @Value("${calculator.kafka.producer.linger-ms:5}")
+    private int producerLingerMs;
+
+    // Longest operand array accepted; sizes the array records on both sides
+    @Value("${calculator.array.max-length:1048576}")
+    private int arrayMaxLength;
+
+    // Most elements of a matrix operand or result; sizes the matrix records on both sides
+    @Value("${calculator.matrix.max-elements:4194304}")
+    private int matrixMaxElements;
+
+    // Most items in a batch; sizes the batch records on both sides
+    @Value("${calculator.batch.max-items:10000}")
+    private int batchMaxItems;
+
     // Producer Configuration (for sending responses)
     @Bean
     public ProducerFactory<String, CalculationResponse> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(producerConfigs(
+                isBinaryCodec() ? CalculationResponseSerializer.class : JsonSerializer.class));
     }
 
     @Bean
@@ -44,9 +91,167 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    // Batch Producer Configuration (for sending batch responses; a full 10,000-item reply is over 1 MB)
+    @Bean
+    public ProducerFactory<String, BatchCalculationResponse> batchProducerFactory() {
+        Map<String, Object> configProps = producerConfigs(JsonSerializer.class);
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, BatchRecords.maxRecordSize(batchMaxItems));
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, BatchCalculationResponse> batchKafkaTemplate() {
+        return new KafkaTemplate<>(batchProducerFactory());
+    }
+
+    // Array Producer Configuration (binary only; a million-element reply is about 8 MB)
+    @Bean
+    public ProducerFactory<String, ArrayCalculationResponse> arrayProducerFactory() {
+        Map<String, Object> configProps = producerConfigs(ArrayResponseSerializer.class);
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, ArrayCodec.maxRecordSize(arrayMaxLength));
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, Math.max(32L << 20, 4L * ArrayCodec.maxRecordSize(arrayMaxLength)));
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, ArrayCalculationResponse> arrayKafkaTemplate() {
+        return new KafkaTemplate<>(arrayProducerFactory());
+    }
+
+    // Matrix Producer Configuration (binary only; a 2048 x 2048 result is 32 MB, so fewer replies are buffered than for arrays)
+    @Bean
+    public ProducerFactory<String, MatrixCalculationResponse> matrixProducerFactory() {
+        Map<String, Object> configProps = producerConfigs(MatrixResponseSerializer.class);
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, MatrixCodec.maxRecordSize(matrixMaxElements));
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, Math.max(32L << 20, 2L * MatrixCodec.maxRecordSize(matrixMaxElements)));
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, MatrixCalculationResponse> matrixKafkaTemplate() {
+        return new KafkaTemplate<>(matrixProducerFactory());
+    }
+
     // Consumer Configuration (for receiving requests)
     @Bean
     public ConsumerFactory<String, CalculationRequest> consumerFactory() {
+        // Reads both binary and JSON payloads, whatever codec the sender is configured with
+        return new DefaultKafkaConsumerFactory<>(consumerConfigs(), new StringDeserializer(),
+                new CalculationRequestDeserializer());
+    }
+
+    // Batch Consumer Configuration (for receiving batch requests): one fetch holds at least one full-size batch
+    @Bean
+    public ConsumerFactory<String, BatchCalculationRequest> batchRequestConsumerFactory() {
+        Map<String, Object> props = consumerConfigs();
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, BatchRecords.maxRecordSize(batchMaxItems));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(BatchCalculationRequest.class));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BatchCalculationRequest> batchRequestListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, BatchCalculationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchRequestConsumerFactory());
+        factory.setConcurrency(listenerConcurrency > 0 ? listenerConcurrency : Runtime.getRuntime().availableProcessors());
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    // Expression Consumer Configuration (for receiving formulas; replies are plain calculation responses)
+    @Bean
+    public ConsumerFactory<String, ExpressionRequest> expressionRequestConsumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerConfigs(), new StringDeserializer(),
+                new JsonDeserializer<>(ExpressionRequest.class));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ExpressionRequest> expressionRequestListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ExpressionRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(expressionRequestConsumerFactory());
+        factory.setConcurrency(listenerConcurrency > 0 ? listenerConcurrency : Runtime.getRuntime().availableProcessors());
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    // Array Consumer Configuration: one fetch holds at most one full-size record, so the
+    // buffered fetches of all consumer threads stay bounded however many requests are queued
+    @Bean
+    public ConsumerFactory<String, ArrayCalculationRequest> arrayRequestConsumerFactory() {
+        Map<String, Object> props = consumerConfigs();
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, ArrayCodec.maxRecordSize(arrayMaxLength));
+        props.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, ArrayCodec.maxRecordSize(arrayMaxLength));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ArrayRequestDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ArrayCalculationRequest> arrayRequestListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ArrayCalculationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(arrayRequestConsumerFactory());
+        factory.setConcurrency(listenerConcurrency > 0 ? listenerConcurrency : Runtime.getRuntime().availableProcessors());
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    // Matrix Consumer Configuration: bounded to one full-size record per fetch, like arrays
+    @Bean
+    public ConsumerFactory<String, MatrixCalculationRequest> matrixRequestConsumerFactory() {
+        Map<String, Object> props = consumerConfigs();
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, MatrixCodec.maxRecordSize(matrixMaxElements));
+        props.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, MatrixCodec.maxRecordSize(matrixMaxElements));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new MatrixRequestDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MatrixCalculationRequest> matrixRequestListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, MatrixCalculationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(matrixRequestConsumerFactory());
+        factory.setConcurrency(listenerConcurrency > 0 ? listenerConcurrency : Runtime.getRuntime().availableProcessors());
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> kafkaListenerContainerFactory() {
+        return newListenerContainerFactory();
+    }
+
+    // Batch listener factory: one invocation per poll instead of per record
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> factory = newListenerContainerFactory();
+        factory.setBatchListener(true);
+        Properties consumerProps = new Properties();
+        consumerProps.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchMaxPollRecords));
+        factory.getContainerProperties().setKafkaConsumerProperties(consumerProps);
+        return factory;
+    }
+
+    private ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> newListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency > 0 ? listenerConcurrency : Runtime.getRuntime().availableProcessors());
+        // Platform or virtual listener threads, depending on spring.threads.virtual.enabled
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    private boolean isBinaryCodec() {
+        return "binary".equalsIgnoreCase(codec);
+    }
+
+    // A Serializer class; Class<?> since JsonSerializer.class is a raw type
+    private Map<String, Object> producerConfigs(Class<?> valueSerializer) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs);
+        return configProps;
+    }
+
+    private Map<String, Object> consumerConfigs() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "calculator-service-group");
@@ -54,14 +259,10 @@ public class KafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
-                new JsonDeserializer<>(CalculationRequest.class));
+        return props;
     }
 
-    @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, CalculationRequest> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
-        return factory;
+    private AsyncTaskExecutor listenerTaskExecutor() {
+        return new SimpleAsyncTaskExecutor(Threads.factory("calculator-kafka-listener-", virtualThreads));
     }
 }
@@ -1,26 +1,116 @@
 package com.calc.calculator.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+import com.calc.calculator.codec.ArrayCodec;
+import com.calc.calculator.codec.BatchRecords;
+import com.calc.calculator.codec.MatrixCodec;
+
 @Configuration
 public class KafkaTopicConfig {
 
+    // Upper bound on parallel consumers in calculator-service-group
+    @Value("${calculator.kafka.request-partitions:12}")
+    private int requestPartitions;
+
+    @Value("${calculator.kafka.response-partitions:1}")
+    private int responsePartitions;
+
+    @Value("${calculator.array.max-length:1048576}")
+    private int arrayMaxLength;
+
+    @Value("${calculator.matrix.max-elements:4194304}")
+    private int matrixMaxElements;
+
+    @Value("${calculator.batch.max-items:10000}")
+    private int batchMaxItems;
+
     @Bean
     public NewTopic calculationRequestsTopic() {
         return TopicBuilder.name("calculation-requests")
-                .partitions(1)
+                .partitions(requestPartitions)
                 .replicas(1)
                 .build();
     }
 
+    // Shared fallback for requests that do not advertise a reply topic
     @Bean
     public NewTopic calculationResponsesTopic() {
         return TopicBuilder.name("calculation-responses")
-                .partitions(1)
+                .partitions(responsePartitions)
+                .replicas(1)
+                .build();
+    }
+
+    // A full batch is larger than the broker's 1 MB default
+    @Bean
+    public NewTopic calculationBatchRequestsTopic() {
+        return TopicBuilder.name("calculation-batch-requests")
+                .partitions(requestPartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(BatchRecords.maxRecordSize(batchMaxItems)))
+                .build();
+    }
+
+    // Shared fallback for batch requests that do not advertise a reply topic
+    @Bean
+    public NewTopic calculationBatchResponsesTopic() {
+        return TopicBuilder.name("calculation-batch-responses")
+                .partitions(responsePartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(BatchRecords.maxRecordSize(batchMaxItems)))
+                .build();
+    }
+
+    @Bean
+    public NewTopic calculationExpressionRequestsTopic() {
+        return TopicBuilder.name("calculation-expression-requests")
+                .partitions(requestPartitions)
+                .replicas(1)
+                .build();
+    }
+
+    // Array records are far larger than the broker's 1 MB default
+    @Bean
+    public NewTopic calculationArrayRequestsTopic() {
+        return TopicBuilder.name("calculation-array-requests")
+                .partitions(requestPartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(ArrayCodec.maxRecordSize(arrayMaxLength)))
+                .build();
+    }
+
+    // Shared fallback for array requests that do not advertise a reply topic
+    @Bean
+    public NewTopic calculationArrayResponsesTopic() {
+        return TopicBuilder.name("calculation-array-responses")
+                .partitions(responsePartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(ArrayCodec.maxRecordSize(arrayMaxLength)))
+                .build();
+    }
+
+    @Bean
+    public NewTopic calculationMatrixRequestsTopic() {
+        return TopicBuilder.name("calculation-matrix-requests")
+                .partitions(requestPartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(MatrixCodec.maxRecordSize(matrixMaxElements)))
+                .build();
+    }
+
+    // Shared fallback for matrix requests that do not advertise a reply topic
+    @Bean
+    public NewTopic calculationMatrixResponsesTopic() {
+        return TopicBuilder.name("calculation-matrix-responses")
+                .partitions(responsePartitions)
                 .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(MatrixCodec.maxRecordSize(matrixMaxElements)))
                 .build();
     }
 }
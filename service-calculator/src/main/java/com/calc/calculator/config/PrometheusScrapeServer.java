@@ -0,0 +1,73 @@
+package com.calc.calculator.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Serves the Prometheus scrape page. The calculator service runs without a web server,
+ * so Actuator cannot expose it; the JDK's built-in HTTP server answers the scrapes on
+ * a single thread instead of pulling in a servlet container.
+ */
+@Component
+@ConditionalOnProperty(name = "calculator.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class PrometheusScrapeServer implements SmartLifecycle {
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    @Autowired
+    private PrometheusMeterRegistry registry;
+
+    @Value("${calculator.metrics.port:9464}")
+    private int port;
+
+    private HttpServer server;
+
+    @Override
+    public synchronized void start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open metrics port " + port, e);
+        }
+        server.createContext("/actuator/prometheus", this::scrape);
+        server.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    private void scrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.calc.calculator.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.calc.calculator.threads.PinnedThreadMonitor;
+
+@Configuration
+public class ThreadsConfig {
+
+    @Value("${calculator.threads.pinning-monitor.threshold-ms:20}")
+    private long pinningThresholdMs;
+
+    // Only while looking for pinning hot spots; closed with the context
+    @Bean
+    @ConditionalOnProperty(name = "calculator.threads.pinning-monitor.enabled", havingValue = "true")
+    public PinnedThreadMonitor pinnedThreadMonitor() {
+        return PinnedThreadMonitor.start(Duration.ofMillis(pinningThresholdMs));
+    }
+}
@@ -0,0 +1,29 @@
+package com.calc.calculator.dto;
+
+// Element-wise operation over two equally long arrays; only travels in the binary array layout
+public class ArrayCalculationRequest {
+    // Wire opcode of a built-in operation
+    private byte opcode;
+    private double[] operand1;
+    private double[] operand2;
+
+    // Default constructor
+    public ArrayCalculationRequest() {}
+
+    // Constructor
+    public ArrayCalculationRequest(byte opcode, double[] operand1, double[] operand2) {
+        this.opcode = opcode;
+        this.operand1 = operand1;
+        this.operand2 = operand2;
+    }
+
+    // Getters and Setters
+    public byte getOpcode() { return opcode; }
+    public void setOpcode(byte opcode) { this.opcode = opcode; }
+
+    public double[] getOperand1() { return operand1; }
+    public void setOperand1(double[] operand1) { this.operand1 = operand1; }
+
+    public double[] getOperand2() { return operand2; }
+    public void setOperand2(double[] operand2) { this.operand2 = operand2; }
+}
@@ -0,0 +1,38 @@
+package com.calc.calculator.dto;
+
+import java.util.BitSet;
+
+// One result per element, or an error code for the whole call; the request id travels in the correlation header
+public class ArrayCalculationResponse {
+    private double[] results;
+    // Indices of the elements divided by zero; their results are NaN
+    private BitSet divisionByZero;
+    // One of ErrorCodes when the call as a whole failed
+    private int errorCode;
+
+    // Default constructor
+    public ArrayCalculationResponse() {}
+
+    // Success constructor
+    public ArrayCalculationResponse(double[] results, BitSet divisionByZero) {
+        this.results = results;
+        this.divisionByZero = divisionByZero;
+    }
+
+    // Error constructor
+    public ArrayCalculationResponse(int errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    // Getters and Setters
+    public double[] getResults() { return results; }
+    public void setResults(double[] results) { this.results = results; }
+
+    public BitSet getDivisionByZero() { return divisionByZero; }
+    public void setDivisionByZero(BitSet divisionByZero) { this.divisionByZero = divisionByZero; }
+
+    public int getErrorCode() { return errorCode; }
+    public void setErrorCode(int errorCode) { this.errorCode = errorCode; }
+
+    public boolean isSuccess() { return errorCode == 0; }
+}
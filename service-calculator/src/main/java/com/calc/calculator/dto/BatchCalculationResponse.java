@@ -0,0 +1,46 @@
+package com.calc.calculator.dto;
+
+import java.util.List;
+
+public class BatchCalculationResponse {
+    private String requestId;
+    // One entry per item, in request order; each carries its own success flag
+    private List<CalculationResponse> results;
+    private boolean success;
+    private String errorMessage;
+    // One of ErrorCodes when the batch as a whole failed
+    private int errorCode;
+
+    // Default constructor
+    public BatchCalculationResponse() {}
+
+    // Success constructor
+    public BatchCalculationResponse(String requestId, List<CalculationResponse> results) {
+        this.requestId = requestId;
+        this.results = results;
+        this.success = true;
+    }
+
+    // Error constructor (the batch as a whole failed, e.g. timeout)
+    public BatchCalculationResponse(String requestId, int errorCode) {
+        this.requestId = requestId;
+        this.errorCode = errorCode;
+        this.success = false;
+    }
+
+    // Getters and Setters
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public List<CalculationResponse> getResults() { return results; }
+    public void setResults(List<CalculationResponse> results) { this.results = results; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public int getErrorCode() { return errorCode; }
+    public void setErrorCode(int errorCode) { this.errorCode = errorCode; }
+}
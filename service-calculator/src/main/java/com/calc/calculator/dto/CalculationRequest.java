@@ -5,6 +5,11 @@ public class CalculationRequest {
     private Double operand1;
     private Double operand2;
     private String operation;
+    // Compact identifier of the operation; 0 when only the name is known
+    private byte opcode;
+    // Exact decimal text of the operands; set together with the doubles, which stay for older calculators
+    private String decimalOperand1;
+    private String decimalOperand2;
 
     // Default constructor
     public CalculationRequest() {}
@@ -29,4 +34,13 @@ public class CalculationRequest {
 
     public String getOperation() { return operation; }
     public void setOperation(String operation) { this.operation = operation; }
+
+    public byte getOpcode() { return opcode; }
+    public void setOpcode(byte opcode) { this.opcode = opcode; }
+
+    public String getDecimalOperand1() { return decimalOperand1; }
+    public void setDecimalOperand1(String decimalOperand1) { this.decimalOperand1 = decimalOperand1; }
+
+    public String getDecimalOperand2() { return decimalOperand2; }
+    public void setDecimalOperand2(String decimalOperand2) { this.decimalOperand2 = decimalOperand2; }
 }
@@ -5,6 +5,10 @@ public class CalculationResponse {
     private Double result;
     private boolean success;
     private String errorMessage;
+    // One of ErrorCodes; 0 on success
+    private int errorCode;
+    // Exact decimal text of the result for decimal requests; result then holds its nearest double
+    private String decimalResult;
 
     // Default constructor
     public CalculationResponse() {}
@@ -23,6 +27,13 @@ public class CalculationResponse {
         this.success = false;
     }
 
+    // Error constructor with a numeric code (see ErrorCodes)
+    public CalculationResponse(String requestId, int errorCode) {
+        this.requestId = requestId;
+        this.errorCode = errorCode;
+        this.success = false;
+    }
+
     // Getters and Setters
     public String getRequestId() { return requestId; }
     public void setRequestId(String requestId) { this.requestId = requestId; }
@@ -35,4 +46,10 @@ public class CalculationResponse {
 
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public int getErrorCode() { return errorCode; }
+    public void setErrorCode(int errorCode) { this.errorCode = errorCode; }
+
+    public String getDecimalResult() { return decimalResult; }
+    public void setDecimalResult(String decimalResult) { this.decimalResult = decimalResult; }
 }
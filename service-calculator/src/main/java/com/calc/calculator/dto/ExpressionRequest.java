@@ -0,0 +1,31 @@
+package com.calc.calculator.dto;
+
+import java.util.Map;
+
+public class ExpressionRequest {
+    private String requestId;
+    // Formula text, e.g. "(a + b) * c / d"
+    private String expression;
+    // Values of the formula's variables by name
+    private Map<String, Double> variables;
+
+    // Default constructor
+    public ExpressionRequest() {}
+
+    // Constructor
+    public ExpressionRequest(String requestId, String expression, Map<String, Double> variables) {
+        this.requestId = requestId;
+        this.expression = expression;
+        this.variables = variables;
+    }
+
+    // Getters and Setters
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public String getExpression() { return expression; }
+    public void setExpression(String expression) { this.expression = expression; }
+
+    public Map<String, Double> getVariables() { return variables; }
+    public void setVariables(Map<String, Double> variables) { this.variables = variables; }
+}
@@ -0,0 +1,29 @@
+package com.calc.calculator.dto;
+
+// Operation on two matrices; only travels in the binary matrix layout
+public class MatrixCalculationRequest {
+    // Wire opcode of a MatrixOperation
+    private byte opcode;
+    private MatrixData operand1;
+    private MatrixData operand2;
+
+    // Default constructor
+    public MatrixCalculationRequest() {}
+
+    // Constructor
+    public MatrixCalculationRequest(byte opcode, MatrixData operand1, MatrixData operand2) {
+        this.opcode = opcode;
+        this.operand1 = operand1;
+        this.operand2 = operand2;
+    }
+
+    // Getters and Setters
+    public byte getOpcode() { return opcode; }
+    public void setOpcode(byte opcode) { this.opcode = opcode; }
+
+    public MatrixData getOperand1() { return operand1; }
+    public void setOperand1(MatrixData operand1) { this.operand1 = operand1; }
+
+    public MatrixData getOperand2() { return operand2; }
+    public void setOperand2(MatrixData operand2) { this.operand2 = operand2; }
+}
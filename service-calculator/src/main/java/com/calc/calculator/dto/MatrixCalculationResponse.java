@@ -0,0 +1,30 @@
+package com.calc.calculator.dto;
+
+// The result matrix, or an error code; the request id travels in the correlation header
+public class MatrixCalculationResponse {
+    private MatrixData result;
+    // One of ErrorCodes when the operation failed
+    private int errorCode;
+
+    // Default constructor
+    public MatrixCalculationResponse() {}
+
+    // Success constructor
+    public MatrixCalculationResponse(MatrixData result) {
+        this.result = result;
+    }
+
+    // Error constructor
+    public MatrixCalculationResponse(int errorCode) {
+        this.errorCode = errorCode;
+    }
+
+    // Getters and Setters
+    public MatrixData getResult() { return result; }
+    public void setResult(MatrixData result) { this.result = result; }
+
+    public int getErrorCode() { return errorCode; }
+    public void setErrorCode(int errorCode) { this.errorCode = errorCode; }
+
+    public boolean isSuccess() { return errorCode == 0; }
+}
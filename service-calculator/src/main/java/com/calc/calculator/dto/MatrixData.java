@@ -0,0 +1,28 @@
+package com.calc.calculator.dto;
+
+// Dense matrix as it travels: row-major elements, data[row * cols + col]
+public class MatrixData {
+    private int rows;
+    private int cols;
+    private double[] data;
+
+    // Default constructor
+    public MatrixData() {}
+
+    // Constructor
+    public MatrixData(int rows, int cols, double[] data) {
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public int getRows() { return rows; }
+    public void setRows(int rows) { this.rows = rows; }
+
+    public int getCols() { return cols; }
+    public void setCols(int cols) { this.cols = cols; }
+
+    public double[] getData() { return data; }
+    public void setData(double[] data) { this.data = data; }
+}
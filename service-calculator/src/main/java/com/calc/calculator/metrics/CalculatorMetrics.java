@@ -0,0 +1,96 @@
+package com.calc.calculator.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.calc.calculator.operation.Operation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers of the calculator side of a round trip, tagged by operation.
+ *
+ * Compute timers are indexed by opcode and registered on first use, so recording
+ * allocates nothing once warm. Operations the registry does not know share the tag
+ * "unsupported", which keeps arbitrary names sent by clients out of the tag values.
+ * Whole expressions, including parsing on a cache miss, are tagged "eval", and
+ * element-wise operations over arrays "array", whatever their length, and matrix
+ * operations "matrix", whatever their shape.
+ */
+@Component
+public class CalculatorMetrics {
+
+    private static final String UNSUPPORTED = "unsupported";
+    private static final String EVAL = "eval";
+    private static final String ARRAY = "array";
+    private static final String MATRIX = "matrix";
+
+    private final MeterRegistry registry;
+    // Racing first uses register the same meter twice, which the registry deduplicates
+    private final Timer[] computeByOpcode = new Timer[128];
+    private final Timer computeUnsupported;
+    private final Timer computeExpression;
+    private final Timer computeArray;
+    private final Timer computeMatrix;
+    private final Timer requestWait;
+
+    public CalculatorMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.computeUnsupported = computeTimer(UNSUPPORTED);
+        this.computeExpression = computeTimer(EVAL);
+        this.computeArray = computeTimer(ARRAY);
+        this.computeMatrix = computeTimer(MATRIX);
+        this.requestWait = Timer.builder("calculator.request.wait")
+            .description("Time from the REST service producing a request until it is consumed here")
+            .register(registry);
+    }
+
+    // operation is null when it could not be resolved
+    public void recordCompute(Operation operation, long nanos) {
+        timerOf(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordExpression(long nanos) {
+        computeExpression.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordArray(long nanos) {
+        computeArray.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordMatrix(long nanos) {
+        computeMatrix.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Relies on synchronized clocks between the services; records without a timestamp are skipped
+    public void recordRequestWait(long requestTimestampMs) {
+        if (requestTimestampMs <= 0) {
+            return;
+        }
+        long waitMs = System.currentTimeMillis() - requestTimestampMs;
+        if (waitMs >= 0) {
+            requestWait.record(waitMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private Timer timerOf(Operation operation) {
+        if (operation == null) {
+            return computeUnsupported;
+        }
+        Timer timer = computeByOpcode[operation.opcode()];
+        if (timer == null) {
+            timer = computeTimer(operation.operationName());
+            computeByOpcode[operation.opcode()] = timer;
+        }
+        return timer;
+    }
+
+    private Timer computeTimer(String operation) {
+        return Timer.builder("calculator.compute")
+            .description("Time spent evaluating a single operation")
+            .tag("operation", operation)
+            .register(registry);
+    }
+}
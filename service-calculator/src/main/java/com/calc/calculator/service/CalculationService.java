@@ -1,38 +1,333 @@
 package com.calc.calculator.service;
 
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.stereotype.Service;
 
+import com.calc.calculator.CalculationResult;
 import com.calc.calculator.Calculator;
+import com.calc.calculator.DecimalCalculator;
+import com.calc.calculator.DecimalResult;
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.array.ArrayCalculator;
+import com.calc.calculator.array.ArrayResult;
+import com.calc.calculator.codec.HopTimestamps;
+import com.calc.calculator.dto.ArrayCalculationRequest;
+import com.calc.calculator.dto.ArrayCalculationResponse;
+import com.calc.calculator.dto.BatchCalculationRequest;
+import com.calc.calculator.dto.BatchCalculationResponse;
+import com.calc.calculator.dto.BatchItem;
 import com.calc.calculator.dto.CalculationRequest;
 import com.calc.calculator.dto.CalculationResponse;
+import com.calc.calculator.dto.ExpressionRequest;
+import com.calc.calculator.dto.MatrixCalculationRequest;
+import com.calc.calculator.dto.MatrixCalculationResponse;
+import com.calc.calculator.dto.MatrixData;
+import com.calc.calculator.expression.ExpressionCache;
+import com.calc.calculator.expression.ExpressionException;
+import com.calc.calculator.matrix.Matrix;
+import com.calc.calculator.matrix.MatrixCalculator;
+import com.calc.calculator.matrix.MatrixResult;
+import com.calc.calculator.metrics.CalculatorMetrics;
+import com.calc.calculator.operation.Operation;
+import com.calc.calculator.operation.OperationRegistry;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class CalculationService {
 
+    private static final Logger log = LoggerFactory.getLogger(CalculationService.class);
+
     @Autowired 
     private KafkaTemplate<String, CalculationResponse> kafkaTemplate;
     private static final String RESPONSE_TOPIC = "calculation-responses";
 
+    @Autowired
+    private KafkaTemplate<String, BatchCalculationResponse> batchKafkaTemplate;
+    private static final String BATCH_RESPONSE_TOPIC = "calculation-batch-responses";
+
+    @Autowired
+    private KafkaTemplate<String, ArrayCalculationResponse> arrayKafkaTemplate;
+    private static final String ARRAY_RESPONSE_TOPIC = "calculation-array-responses";
+
+    @Autowired
+    private KafkaTemplate<String, MatrixCalculationResponse> matrixKafkaTemplate;
+    private static final String MATRIX_RESPONSE_TOPIC = "calculation-matrix-responses";
+
+    @Autowired
+    private CalculatorMetrics metrics;
+
     private final Calculator calculator = new Calculator();
+    private final OperationRegistry operations = calculator.getRegistry();
+
+    // Significant digits of decimal results (0 = exact, failing non-terminating divisions) and their rounding
+    @Value("${calculator.decimal.precision:34}")
+    private int decimalPrecision = 34;
+
+    @Value("${calculator.decimal.rounding:HALF_EVEN}")
+    private RoundingMode decimalRounding = RoundingMode.HALF_EVEN;
+
+    private DecimalCalculator decimalCalculator;
+
+    // Parsed formulas by expression text; 0 parses every request
+    @Value("${calculator.expression.cache-size:1000}")
+    private int expressionCacheSize = 1000;
+
+    // Evaluations of a cached formula before it is compiled to code; -1 keeps every formula interpreted
+    @Value("${calculator.expression.compile-threshold:100}")
+    private int expressionCompileThreshold = 100;
+
+    private ExpressionCache expressions;
+
+    // SIMD kernels for array requests when the JVM has jdk.incubator.vector; false forces the scalar loops
+    @Value("${calculator.array.vectorized:true}")
+    private boolean arrayVectorized = true;
+
+    private ArrayCalculator arrayCalculator;
+
+    // Most elements of a matrix result; larger products fail with RESULT_TOO_LARGE before allocating
+    @Value("${calculator.matrix.max-elements:4194304}")
+    private int matrixMaxElements = 4194304;
+
+    // Fork-join threads shared by all matrix products; 0 means one per available core
+    @Value("${calculator.matrix.parallelism:0}")
+    private int matrixParallelism = 0;
+
+    private ForkJoinPool matrixPool;
+
+    private MatrixCalculator matrixCalculator;
+
+    // Built once the settings above are injected
+    @PostConstruct
+    void configureEngines() {
+        decimalCalculator = new DecimalCalculator(calculator, new MathContext(decimalPrecision, decimalRounding));
+        expressions = new ExpressionCache(calculator, expressionCacheSize, expressionCompileThreshold);
+        arrayCalculator = new ArrayCalculator(calculator, arrayVectorized);
+        if (arrayCalculator.isVectorized()) {
+            log.info("Array calculations use SIMD kernels, {} doubles per vector", arrayCalculator.getLanes());
+        } else {
+            log.info("Array calculations use scalar loops");
+        }
+        // A pool of its own, so long products neither starve nor wait behind other users of the common pool
+        matrixPool = new ForkJoinPool(matrixParallelism > 0 ? matrixParallelism : Runtime.getRuntime().availableProcessors());
+        matrixCalculator = new MatrixCalculator(arrayCalculator, matrixPool, matrixMaxElements);
+        log.info("Matrix products run on {} fork-join threads", matrixPool.getParallelism());
+    }
+
+    @PreDestroy
+    void stopMatrixPool() {
+        if (matrixPool != null) {
+            matrixPool.shutdown();
+        }
+    }
+
+    // Record-at-a-time listener (default mode)
+    @KafkaListener(id = "calculation-requests", topics = "calculation-requests", groupId = "calculator-service-group",
+            autoStartup = "#{!${calculator.kafka.batch-listener.enabled:false}}")
+    public void handleCalculationRequest(ConsumerRecord<String, CalculationRequest> record) {
+        long receivedAt = System.nanoTime();
+        metrics.recordRequestWait(record.timestamp());
+        CalculationResponse response = calculate(record.value());
+        // Reply to the instance that sent the request, or the shared topic for older senders
+        reply(kafkaTemplate, record, RESPONSE_TOPIC, response, receivedAt, System.nanoTime());
+    }
+
+    // Batch listener: computes a whole poll in one pass, then publishes all replies and flushes once
+    @KafkaListener(id = "calculation-requests-batch", topics = "calculation-requests", groupId = "calculator-service-group",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "${calculator.kafka.batch-listener.enabled:false}")
+    public void handleCalculationRequests(List<ConsumerRecord<String, CalculationRequest>> records) {
+        long receivedAt = System.nanoTime();
+        int size = records.size();
+        CalculationResponse[] responses = new CalculationResponse[size];
+        for (int i = 0; i < size; i++) {
+            ConsumerRecord<String, CalculationRequest> record = records.get(i);
+            metrics.recordRequestWait(record.timestamp());
+            responses[i] = calculate(record.value());
+        }
+        long computedAt = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            reply(kafkaTemplate, records.get(i), RESPONSE_TOPIC, responses[i], receivedAt, computedAt);
+        }
+        kafkaTemplate.flush();
+    }
+
+    // Many operations carried in one record; results are returned in item order
+    @KafkaListener(id = "calculation-batch-requests", topics = "calculation-batch-requests", groupId = "calculator-service-group",
+            containerFactory = "batchRequestListenerContainerFactory")
+    public void handleBatchCalculationRequest(ConsumerRecord<String, BatchCalculationRequest> record) {
+        long receivedAt = System.nanoTime();
+        metrics.recordRequestWait(record.timestamp());
+        BatchCalculationRequest request = record.value();
+        List<BatchItem> items = request.getItems() != null ? request.getItems() : List.of();
+        List<CalculationResponse> results = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            results.add(calculate(null, item.getOp1(), item.getOp2(), item.getOp()));
+        }
+        reply(batchKafkaTemplate, record, BATCH_RESPONSE_TOPIC,
+            new BatchCalculationResponse(request.getRequestId(), results), receivedAt, System.nanoTime());
+    }
+
+    // A whole formula in one record; the reply is an ordinary calculation response
+    @KafkaListener(id = "calculation-expression-requests", topics = "calculation-expression-requests", groupId = "calculator-service-group",
+            containerFactory = "expressionRequestListenerContainerFactory")
+    public void handleExpressionRequest(ConsumerRecord<String, ExpressionRequest> record) {
+        long receivedAt = System.nanoTime();
+        metrics.recordRequestWait(record.timestamp());
+        CalculationResponse response = evaluate(record.value());
+        reply(kafkaTemplate, record, RESPONSE_TOPIC, response, receivedAt, System.nanoTime());
+    }
 
-    @KafkaListener(topics = "calculation-requests", groupId = "calculator-service-group")
-    public void handleCalculationRequest(CalculationRequest request) {
-      
+    // Element-wise operation over two arrays; the reply is binary like the request
+    @KafkaListener(id = "calculation-array-requests", topics = "calculation-array-requests", groupId = "calculator-service-group",
+            containerFactory = "arrayRequestListenerContainerFactory")
+    public void handleArrayCalculationRequest(ConsumerRecord<String, ArrayCalculationRequest> record) {
+        long receivedAt = System.nanoTime();
+        metrics.recordRequestWait(record.timestamp());
+        ArrayCalculationResponse response = calculate(record.value());
+        reply(arrayKafkaTemplate, record, ARRAY_RESPONSE_TOPIC, response, receivedAt, System.nanoTime());
+    }
+
+    // Matrix operation; the listener thread waits while the product runs on the matrix pool
+    @KafkaListener(id = "calculation-matrix-requests", topics = "calculation-matrix-requests", groupId = "calculator-service-group",
+            containerFactory = "matrixRequestListenerContainerFactory")
+    public void handleMatrixCalculationRequest(ConsumerRecord<String, MatrixCalculationRequest> record) {
+        long receivedAt = System.nanoTime();
+        metrics.recordRequestWait(record.timestamp());
+        MatrixCalculationResponse response = calculate(record.value());
+        reply(matrixKafkaTemplate, record, MATRIX_RESPONSE_TOPIC, response, receivedAt, System.nanoTime());
+    }
+
+    MatrixCalculationResponse calculate(MatrixCalculationRequest request) {
+        long start = System.nanoTime();
+        MatrixResult result = matrixCalculator.evaluate(request.getOpcode(), toMatrix(request.getOperand1()), toMatrix(request.getOperand2()));
+        metrics.recordMatrix(System.nanoTime() - start);
+        if (!result.isSuccess()) {
+            return new MatrixCalculationResponse(result.errorCode());
+        }
+        Matrix value = result.value();
+        return new MatrixCalculationResponse(new MatrixData(value.rows(), value.cols(), value.data()));
+    }
+
+    // The codec only decodes shapes that match their data
+    private static Matrix toMatrix(MatrixData data) {
+        return data != null ? new Matrix(data.getRows(), data.getCols(), data.getData()) : null;
+    }
+
+    ArrayCalculationResponse calculate(ArrayCalculationRequest request) {
+        long start = System.nanoTime();
+        ArrayResult result = arrayCalculator.evaluate(request.getOpcode(), request.getOperand1(), request.getOperand2());
+        metrics.recordArray(System.nanoTime() - start);
+        return result.isSuccess()
+            ? new ArrayCalculationResponse(result.values(), result.divisionByZero())
+            : new ArrayCalculationResponse(result.errorCode());
+    }
+
+    CalculationResponse evaluate(ExpressionRequest request) {
+        long start = System.nanoTime();
+        CalculationResult result;
         try {
-            // Perform the calculation
-            var result = calculator.makeOperation(request.getOperand1(), request.getOperand2(), request.getOperation());
-            
-            // Send successful response
-            CalculationResponse response = new CalculationResponse(request.getRequestId(), result);
-            kafkaTemplate.send(RESPONSE_TOPIC, request.getRequestId(), response);
-            
-        } catch (Exception e) {
-            // Send error response
-            CalculationResponse response = new CalculationResponse(request.getRequestId(), e.getMessage());
-            kafkaTemplate.send(RESPONSE_TOPIC, request.getRequestId(), response);
+            result = expressions.compile(request.getExpression()).evaluate(request.getVariables());
+        } catch (ExpressionException e) {
+            result = CalculationResult.error(e.getErrorCode());
+        }
+        metrics.recordExpression(System.nanoTime() - start);
+        return toResponse(request.getRequestId(), result);
+    }
+
+    CalculationResponse calculate(CalculationRequest request) {
+        // Dispatch by opcode; senders that did not know it only sent the name
+        Operation operation = request.getOpcode() != 0
+            ? operations.byOpcode(request.getOpcode())
+            : resolve(request.getOperation());
+        // Decimal senders also fill the doubles; the exact text wins
+        if (request.getDecimalOperand1() != null && request.getDecimalOperand2() != null) {
+            return toResponse(request.getRequestId(), evaluate(operation, request.getDecimalOperand1(), request.getDecimalOperand2()));
+        }
+        if (request.getOperand1() == null || request.getOperand2() == null) {
+            return new CalculationResponse(request.getRequestId(), ErrorCodes.MISSING_OPERAND);
+        }
+        return toResponse(request.getRequestId(), evaluate(operation, request.getOperand1(), request.getOperand2()));
+    }
+
+    private CalculationResponse calculate(String requestId, Double operand1, Double operand2, String operation) {
+        if (operand1 == null || operand2 == null) {
+            return new CalculationResponse(requestId, ErrorCodes.MISSING_OPERAND);
         }
+        return toResponse(requestId, evaluate(resolve(operation), operand1, operand2));
+    }
+
+    private Operation resolve(String operation) {
+        return operation != null ? operations.byName(operation) : null;
+    }
+
+    private CalculationResult evaluate(Operation operation, double operand1, double operand2) {
+        long start = System.nanoTime();
+        CalculationResult result = calculator.evaluate(operation, operand1, operand2);
+        metrics.recordCompute(operation, System.nanoTime() - start);
+        return result;
+    }
+
+    private DecimalResult evaluate(Operation operation, String operand1, String operand2) {
+        long start = System.nanoTime();
+        DecimalResult result = decimalCalculator.evaluate(operation, operand1, operand2);
+        metrics.recordCompute(operation, System.nanoTime() - start);
+        return result;
+    }
+
+    private static CalculationResponse toResponse(String requestId, DecimalResult result) {
+        if (!result.isSuccess()) {
+            return new CalculationResponse(requestId, result.errorCode());
+        }
+        CalculationResponse response = new CalculationResponse(requestId, result.value());
+        response.setDecimalResult(result.decimal());
+        return response;
+    }
+
+    private static CalculationResponse toResponse(String requestId, CalculationResult result) {
+        return result.isSuccess()
+            ? new CalculationResponse(requestId, result.value())
+            : new CalculationResponse(requestId, result.errorCode());
+    }
+
+    // The correlation header is echoed untouched; senders that put the id in the payload get it back there.
+    // Traced requests get their hop timestamps back with this service's receive, compute and reply times added.
+    private static <T> void reply(KafkaTemplate<String, T> template, ConsumerRecord<String, ?> record, String fallbackTopic, T response,
+            long receivedAt, long computedAt) {
+        ProducerRecord<String, T> reply = new ProducerRecord<>(replyTopicOf(record, fallbackTopic), response);
+        Header correlationId = record.headers().lastHeader(KafkaHeaders.CORRELATION_ID);
+        if (correlationId != null) {
+            reply.headers().add(correlationId);
+        }
+        Header hops = record.headers().lastHeader(HopTimestamps.HEADER);
+        if (hops != null) {
+            byte[] stamps = HopTimestamps.reply(hops.value(), receivedAt, computedAt);
+            if (stamps != null) {
+                reply.headers().add(HopTimestamps.HEADER, stamps);
+            }
+        }
+        template.send(reply);
+    }
+
+    private static String replyTopicOf(ConsumerRecord<String, ?> record, String fallback) {
+        Header header = record.headers().lastHeader(KafkaHeaders.REPLY_TOPIC);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : fallback;
     }
 }
@@ -1,20 +1,50 @@
 package com.calc.restcalc;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
 
-import com.calc.calculator.Calculator;
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.codec.ArrayCodec;
+import com.calc.calculator.codec.HopTimestamps;
+import com.calc.calculator.codec.MatrixCodec;
+import com.calc.calculator.dto.ArrayCalculationRequest;
+import com.calc.calculator.dto.ArrayCalculationResponse;
+import com.calc.calculator.dto.CalculationRequest;
+import com.calc.calculator.dto.CalculationResponse;
+import com.calc.calculator.dto.ExpressionRequest;
+import com.calc.calculator.dto.MatrixCalculationRequest;
+import com.calc.calculator.dto.MatrixCalculationResponse;
+import com.calc.calculator.dto.MatrixData;
+import com.calc.calculator.metrics.CalculatorMetrics;
 import com.calc.calculator.service.CalculationService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
 @DisplayName("Calculator Service Application Tests")
 class RestcalcApplicationTests {
 
@@ -26,183 +56,190 @@ class RestcalcApplicationTests {
 	}
 
 	@Nested
-	@DisplayName("Calculator Core Logic Tests")
-	class CalculatorTests {
-		
-		private Calculator calculator;
-		
-		@BeforeEach
-		void setUp() {
-			calculator = new Calculator();
-		}
-		
-		@Nested
-		@DisplayName("Addition Tests")
-		class AdditionTests {
-			
-			@ParameterizedTest
-			@CsvSource({
-				"2.0, 3.0, 5.0",
-				"0.0, 0.0, 0.0",
-				"-5.0, 3.0, -2.0",
-				"10.5, 4.5, 15.0",
-				"1000000.0, 2000000.0, 3000000.0"
-			})
-			@DisplayName("Should correctly add various number pairs")
-			void testAddition(Double a, Double b, Double expected) {
-				Double result = calculator.makeOperation(a, b, "add");
-				assertEquals(expected, result, 0.001, "Addition should be correct");
-			}
-			
-			@Test
-			@DisplayName("Should handle very large numbers")
-			void testAdditionWithLargeNumbers() {
-				Double result = calculator.makeOperation(Double.MAX_VALUE / 2, Double.MAX_VALUE / 4, "add");
-				assertTrue(Double.isFinite(result), "Result should be finite for large number addition");
-			}		
-			@Test
-			@DisplayName("Addition with very large numbers")
-			void testAdditionLargeNumbers() {
-				Double result = calculator.makeOperation(Double.MAX_VALUE / 2, Double.MAX_VALUE / 2, "add");
-				        assertTrue(Double.isFinite(result), "Result should be finite for large number addition");
-			}
+	@DisplayName("Listener Tests")
+	class ListenerTests {
+
+		@Test
+		@DisplayName("Service should dispatch by opcode when the name is absent")
+		@SuppressWarnings("unchecked")
+		void testServiceDispatchByOpcode() throws Exception {
+			KafkaTemplate<String, CalculationResponse> kafkaTemplate = mock(KafkaTemplate.class);
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			CalculationService service = newService(new CalculatorMetrics(meterRegistry));
+			set(service, "kafkaTemplate", kafkaTemplate);
+
+			CalculationRequest request = new CalculationRequest("r1", 6.0, 3.0, null);
+			request.setOpcode((byte) 4);
+			service.handleCalculationRequests(List.of(new ConsumerRecord<>("calculation-requests", 0, 0L, null, request)));
+
+			ArgumentCaptor<ProducerRecord<String, CalculationResponse>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+			verify(kafkaTemplate).send(captor.capture());
+			assertEquals("calculation-responses", captor.getValue().topic());
+			assertTrue(captor.getValue().value().isSuccess());
+			assertEquals(2.0, captor.getValue().value().getResult());
+			assertEquals(1, meterRegistry.get("calculator.compute").tag("operation", "div").timer().count(),
+				"Compute time should be tagged with the resolved operation");
 		}
-		
-		@Nested
-		@DisplayName("Subtraction Tests")
-		class SubtractionTests {
-			
-			@ParameterizedTest(name = "{0} - {1} = {2}")
-			@CsvSource({
-				"5.0, 3.0, 2.0",
-				"10.5, 3.2, 7.3",
-				"-3.0, 2.0, -5.0",
-				"0.0, 5.0, -5.0",
-				"100.0, 100.0, 0.0"
-			})
-			void testSubtraction(Double operand1, Double operand2, Double expected) {
-				Double result = calculator.makeOperation(operand1, operand2, "sub");
-				assertEquals(expected, result, 0.001);
-			}
+
+		@Test
+		@DisplayName("Service should calculate on the decimal operands when present")
+		@SuppressWarnings("unchecked")
+		void testServiceUsesDecimalOperands() throws Exception {
+			KafkaTemplate<String, CalculationResponse> kafkaTemplate = mock(KafkaTemplate.class);
+			CalculationService service = newService(new CalculatorMetrics(new SimpleMeterRegistry()));
+			set(service, "kafkaTemplate", kafkaTemplate);
+
+			CalculationRequest request = new CalculationRequest("r1", 0.1, 0.2, "add");
+			request.setOpcode((byte) 1);
+			request.setDecimalOperand1("0.1");
+			request.setDecimalOperand2("0.2");
+			service.handleCalculationRequests(List.of(new ConsumerRecord<>("calculation-requests", 0, 0L, null, request)));
+
+			ArgumentCaptor<ProducerRecord<String, CalculationResponse>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+			verify(kafkaTemplate).send(captor.capture());
+			CalculationResponse response = captor.getValue().value();
+			assertTrue(response.isSuccess());
+			assertEquals("0.3", response.getDecimalResult());
+			assertEquals(0.3, response.getResult());
 		}
-		
-		@Nested
-		@DisplayName("Multiplication Tests")
-		class MultiplicationTests {
-			
-			@ParameterizedTest(name = "{0} * {1} = {2}")
-			@CsvSource({
-				"4.0, 2.5, 10.0",
-				"3.0, 0.0, 0.0",
-				"-2.0, 5.0, -10.0",
-				"-3.0, -4.0, 12.0",
-				"1.5, 2.0, 3.0"
-			})
-			void testMultiplication(Double operand1, Double operand2, Double expected) {
-				Double result = calculator.makeOperation(operand1, operand2, "mul");
-				assertEquals(expected, result, 0.001);
-			}
+
+		@Test
+		@DisplayName("Expression listener should reply with an ordinary calculation response")
+		@SuppressWarnings("unchecked")
+		void testExpressionListener() throws Exception {
+			KafkaTemplate<String, CalculationResponse> kafkaTemplate = mock(KafkaTemplate.class);
+			CalculationService service = newService(new CalculatorMetrics(new SimpleMeterRegistry()));
+			set(service, "kafkaTemplate", kafkaTemplate);
+
+			ConsumerRecord<String, ExpressionRequest> record = new ConsumerRecord<>("calculation-expression-requests", 0, 0L, null,
+				new ExpressionRequest("r1", "(a + b) * c / d", Map.of("a", 1.0, "b", 2.0, "c", 3.0, "d", 4.0)));
+			byte[] correlationId = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+			record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId);
+			service.handleExpressionRequest(record);
+			service.handleExpressionRequest(new ConsumerRecord<>("calculation-expression-requests", 0, 1L, null,
+				new ExpressionRequest("r2", "(a +", Map.of())));
+
+			ArgumentCaptor<ProducerRecord<String, CalculationResponse>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+			verify(kafkaTemplate, times(2)).send(captor.capture());
+			ProducerRecord<String, CalculationResponse> reply = captor.getAllValues().get(0);
+			assertEquals("calculation-responses", reply.topic());
+			assertArrayEquals(correlationId, reply.headers().lastHeader(KafkaHeaders.CORRELATION_ID).value());
+			assertEquals(2.25, reply.value().getResult());
+			assertEquals("r1", reply.value().getRequestId());
+			assertEquals(ErrorCodes.INVALID_EXPRESSION, captor.getAllValues().get(1).value().getErrorCode());
 		}
-		
-		@Nested
-		@DisplayName("Division Tests")
-		class DivisionTests {
-			
-			@ParameterizedTest(name = "{0} / {1} = {2}")
-			@CsvSource({
-				"15.0, 3.0, 5.0",
-				"10.0, 2.0, 5.0",
-				"-8.0, 2.0, -4.0",
-				"7.5, 2.5, 3.0",
-				"100.0, 4.0, 25.0"
-			})
-			void testDivision(Double operand1, Double operand2, Double expected) {
-				Double result = calculator.makeOperation(operand1, operand2, "div");
-				assertEquals(expected, result, 0.001);
-			}
-			
-			@Test
-			@DisplayName("Division by zero should throw IllegalArgumentException")
-			void testDivisionByZero() {
-				IllegalArgumentException exception = assertThrows(
-					IllegalArgumentException.class,
-					() -> calculator.makeOperation(10.0, 0.0, "div"),
-					"Division by zero should throw IllegalArgumentException"
-				);
-				assertEquals("Division by zero is not allowed", exception.getMessage());
-			}
-			
-			@Test
-			@DisplayName("Division by very small number should not throw exception")
-			void testDivisionByVerySmallNumber() {
-				Double result = calculator.makeOperation(1.0, 0.0001, "div");
-				assertEquals(10000.0, result, 0.001);
-			}
+
+		@Test
+		@DisplayName("Array listener should decode binary requests and reply in binary")
+		@SuppressWarnings("unchecked")
+		void testArrayListener() throws Exception {
+			KafkaTemplate<String, ArrayCalculationResponse> arrayKafkaTemplate = mock(KafkaTemplate.class);
+			CalculationService service = newService(new CalculatorMetrics(new SimpleMeterRegistry()));
+			set(service, "arrayKafkaTemplate", arrayKafkaTemplate);
+
+			byte[] payload = ArrayCodec.encode(new ArrayCalculationRequest((byte) 4, new double[] {3, 1, -8}, new double[] {2, 0, 4}));
+			ConsumerRecord<String, ArrayCalculationRequest> record = new ConsumerRecord<>("calculation-array-requests", 0, 0L, null,
+				ArrayCodec.decodeRequest(payload));
+			byte[] correlationId = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+			record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId);
+			service.handleArrayCalculationRequest(record);
+
+			ArgumentCaptor<ProducerRecord<String, ArrayCalculationResponse>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+			verify(arrayKafkaTemplate).send(captor.capture());
+			assertEquals("calculation-array-responses", captor.getValue().topic());
+			assertArrayEquals(correlationId, captor.getValue().headers().lastHeader(KafkaHeaders.CORRELATION_ID).value());
+			ArrayCalculationResponse reply = ArrayCodec.decodeResponse(ArrayCodec.encode(captor.getValue().value()));
+			assertTrue(reply.isSuccess());
+			assertArrayEquals(new double[] {1.5, Double.NaN, -2.0}, reply.getResults());
+			BitSet expected = new BitSet();
+			expected.set(1);
+			assertEquals(expected, reply.getDivisionByZero());
+
+			ArrayCalculationResponse error = ArrayCodec.decodeResponse(ArrayCodec.encode(new ArrayCalculationResponse(ErrorCodes.DIMENSION_MISMATCH)));
+			assertFalse(error.isSuccess());
+			assertEquals(ErrorCodes.DIMENSION_MISMATCH, error.getErrorCode());
+			assertEquals(2, ArrayCodec.encode(error).length, "Error replies should carry no arrays");
 		}
-		
-		@Nested
-		@DisplayName("Error Handling Tests")
-		class ErrorHandlingTests {
-			
-			@Test
-			@DisplayName("Unsupported operation should throw IllegalArgumentException")
-			void testUnsupportedOperation() {
-				IllegalArgumentException exception = assertThrows(
-					IllegalArgumentException.class,
-					() -> calculator.makeOperation(5.0, 3.0, "mod"),
-					"Unsupported operation should throw IllegalArgumentException"
-				);
-				assertEquals("Unsupported operation: mod", exception.getMessage());
-			}
-			
-			@Test
-			@DisplayName("Null operation should throw NullPointerException")
-			void testNullOperation() {
-				assertThrows(
-					NullPointerException.class,
-					() -> calculator.makeOperation(5.0, 3.0, null)
-				);
-			}
-			
-			@Test
-			@DisplayName("Empty operation should throw IllegalArgumentException")
-			void testEmptyOperation() {
-				IllegalArgumentException exception = assertThrows(
-					IllegalArgumentException.class,
-					() -> calculator.makeOperation(5.0, 3.0, "")
-				);
-				assertEquals("Unsupported operation: ", exception.getMessage());
-			}
+
+		@Test
+		@DisplayName("Matrix listener should decode binary requests and reply in binary")
+		@SuppressWarnings("unchecked")
+		void testMatrixListener() throws Exception {
+			KafkaTemplate<String, MatrixCalculationResponse> matrixKafkaTemplate = mock(KafkaTemplate.class);
+			CalculationService service = newService(new CalculatorMetrics(new SimpleMeterRegistry()));
+			set(service, "matrixKafkaTemplate", matrixKafkaTemplate);
+
+			// [1 2 3; 4 5 6] x [1 0; 0 1; 1 1]
+			byte[] payload = MatrixCodec.encode(new MatrixCalculationRequest((byte) 2,
+				new MatrixData(2, 3, new double[] {1, 2, 3, 4, 5, 6}), new MatrixData(3, 2, new double[] {1, 0, 0, 1, 1, 1})));
+			ConsumerRecord<String, MatrixCalculationRequest> record = new ConsumerRecord<>("calculation-matrix-requests", 0, 0L, null,
+				MatrixCodec.decodeRequest(payload));
+			byte[] correlationId = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+			record.headers().add(KafkaHeaders.CORRELATION_ID, correlationId);
+			service.handleMatrixCalculationRequest(record);
+
+			ArgumentCaptor<ProducerRecord<String, MatrixCalculationResponse>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+			verify(matrixKafkaTemplate).send(captor.capture());
+			assertEquals("calculation-matrix-responses", captor.getValue().topic());
+			assertArrayEquals(correlationId, captor.getValue().headers().lastHeader(KafkaHeaders.CORRELATION_ID).value());
+			MatrixCalculationResponse reply = MatrixCodec.decodeResponse(MatrixCodec.encode(captor.getValue().value()));
+			assertTrue(reply.isSuccess());
+			assertEquals(2, reply.getResult().getRows());
+			assertEquals(2, reply.getResult().getCols());
+			assertArrayEquals(new double[] {4, 5, 10, 11}, reply.getResult().getData());
+
+			MatrixCalculationRequest missing = MatrixCodec.decodeRequest(MatrixCodec.encode(
+				new MatrixCalculationRequest((byte) 1, null, new MatrixData(1, 1, new double[] {1}))));
+			assertNull(missing.getOperand1());
+			MatrixCalculationResponse error = MatrixCodec.decodeResponse(MatrixCodec.encode(new MatrixCalculationResponse(ErrorCodes.RESULT_TOO_LARGE)));
+			assertEquals(ErrorCodes.RESULT_TOO_LARGE, error.getErrorCode());
+			assertEquals(2, MatrixCodec.encode(error).length, "Error replies should carry no matrix");
+			assertThrows(IllegalArgumentException.class, () -> MatrixCodec.decodeRequest(Arrays.copyOf(payload, payload.length - 8)));
 		}
-		
-		@Nested
-		@DisplayName("Getter/Setter Tests")
-		class GetterSetterTests {
-			
-			@Test
-			@DisplayName("Test operand A getter and setter")
-			void testOperandAGetterSetter() {
-				Double testValue = 42.5;
-				calculator.setOperandA(testValue);
-				assertEquals(testValue, calculator.getOperandA());
-			}
-			
-			@Test
-			@DisplayName("Test operand B getter and setter")
-			void testOperandBGetterSetter() {
-				Double testValue = 17.3;
-				calculator.setOperandB(testValue);
-				assertEquals(testValue, calculator.getOperandB());
-			}
-			
-			@Test
-			@DisplayName("Test null operand handling")
-			void testNullOperands() {
-				calculator.setOperandA(null);
-				calculator.setOperandB(null);
-				assertNull(calculator.getOperandA());
-				assertNull(calculator.getOperandB());
-			}
+	}
+
+	@Nested
+	@DisplayName("Batch Listener Tests")
+	class BatchListenerTests {
+
+		@Test
+		@DisplayName("Batch listener should reply to every record in order and flush once")
+		@SuppressWarnings("unchecked")
+		void testBatchRepliesInOrder() throws Exception {
+			KafkaTemplate<String, CalculationResponse> kafkaTemplate = mock(KafkaTemplate.class);
+			SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+			CalculationService service = newService(new CalculatorMetrics(meterRegistry));
+			set(service, "kafkaTemplate", kafkaTemplate);
+
+			List<ConsumerRecord<String, CalculationRequest>> records = List.of(
+				new ConsumerRecord<>("calculation-requests", 0, 0L, null, new CalculationRequest("r1", 2.0, 3.0, "add")),
+				new ConsumerRecord<>("calculation-requests", 0, 1L, null, new CalculationRequest("r2", 1.0, 0.0, "div")),
+				new ConsumerRecord<>("calculation-requests", 0, 2L, null, new CalculationRequest("r3", 4.0, 2.5, "mul")));
+			byte[] correlationId = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16};
+			records.get(2).headers().add(KafkaHeaders.CORRELATION_ID, correlationId);
+			records.get(2).headers().add(HopTimestamps.HEADER, new byte[16]);
+
+			service.handleCalculationRequests(records);
+
+			ArgumentCaptor<ProducerRecord<String, CalculationResponse>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+			InOrder inOrder = inOrder(kafkaTemplate);
+			inOrder.verify(kafkaTemplate, times(3)).send(captor.capture());
+			inOrder.verify(kafkaTemplate).flush();
+
+			List<CalculationResponse> responses = captor.getAllValues().stream().map(ProducerRecord::value).toList();
+			assertEquals("calculation-responses", captor.getAllValues().get(0).topic());
+			assertArrayEquals(correlationId, captor.getAllValues().get(2).headers().lastHeader(KafkaHeaders.CORRELATION_ID).value(),
+				"Correlation header should be echoed");
+			assertNull(captor.getAllValues().get(0).headers().lastHeader(KafkaHeaders.CORRELATION_ID));
+			assertEquals(40, captor.getAllValues().get(2).headers().lastHeader(HopTimestamps.HEADER).value().length,
+				"Hop timestamps should come back with the calculator's times appended");
+			assertNull(captor.getAllValues().get(0).headers().lastHeader(HopTimestamps.HEADER));
+			assertEquals(5.0, responses.get(0).getResult());
+			assertFalse(responses.get(1).isSuccess());
+			assertEquals(ErrorCodes.DIVISION_BY_ZERO, responses.get(1).getErrorCode());
+			assertNull(responses.get(1).getErrorMessage(), "Messages are resolved by service-rest");
+			assertEquals(10.0, responses.get(2).getResult());
+			assertEquals("r3", responses.get(2).getRequestId());
 		}
 	}
 
@@ -213,4 +250,20 @@ class RestcalcApplicationTests {
 		CalculationService service = new CalculationService();
 		assertNotNull(service, "CalculationService should be created successfully");
 	}
+
+	// Wired the way Spring would: metrics injected, then the engines built from the default settings
+	private static CalculationService newService(CalculatorMetrics metrics) throws Exception {
+		CalculationService service = new CalculationService();
+		set(service, "metrics", metrics);
+		Method configureEngines = CalculationService.class.getDeclaredMethod("configureEngines");
+		configureEngines.setAccessible(true);
+		configureEngines.invoke(service);
+		return service;
+	}
+
+	private static void set(CalculationService service, String name, Object value) throws Exception {
+		Field field = CalculationService.class.getDeclaredField(name);
+		field.setAccessible(true);
+		field.set(service, value);
+	}
 }
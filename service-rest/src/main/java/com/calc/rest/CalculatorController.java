@@ -1,18 +1,53 @@
 package com.calc.rest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.expression.ExpressionParser;
+import com.calc.calculator.matrix.MatrixOperation;
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.rest.codec.BatchRecords;
+import com.calc.rest.codec.MatrixCodec;
+import com.calc.rest.dto.ArrayCalculationRequest;
+import com.calc.rest.dto.ArrayCalculationResponse;
+import com.calc.rest.dto.BatchCalculationResponse;
+import com.calc.rest.dto.BatchItem;
 import com.calc.rest.dto.CalculationResponse;
-import com.calc.rest.service.CalculatorKafkaService;
+import com.calc.rest.dto.ExpressionRequest;
+import com.calc.rest.dto.LatencyBreakdown;
+import com.calc.rest.dto.MatrixCalculationRequest;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.MatrixData;
+import com.calc.rest.dto.RestErrorCodes;
+import com.calc.rest.id.RequestIdGenerator;
+import com.calc.rest.service.CalculationRouter;
+import com.calc.rest.service.StreamingCalculationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -24,18 +59,56 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 @RestController
 @Tag(name = "Calculator", description = "RESTful Calculator API for basic arithmetic operations")
 public class CalculatorController {
     
     @Autowired
-    private CalculatorKafkaService calculatorService;
+    private CalculationRouter calculatorService;
+
+    @Autowired
+    private StreamingCalculationService streamingService;
+
+    @Autowired
+    private RequestIdGenerator requestIdGenerator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${calculator.batch.max-items:10000}")
+    private int maxBatchItems;
+
+    @Value("${calculator.array.max-length:1048576}")
+    private int maxArrayLength = 1048576;
+
+    @Value("${calculator.matrix.max-elements:4194304}")
+    private int maxMatrixElements = 4194304;
+
+    // Matrix replies may take longer than spring.mvc.async.request-timeout allows
+    @Value("${calculator.matrix.timeout-ms:30000}")
+    private long matrixTimeoutMs = 30000;
+
+    // Sent with every 503 so shed clients back off instead of retrying at once
+    @Value("${calculator.admission.retry-after-seconds:1}")
+    private long retryAfterSeconds = 1;
+
+    // Adds a Server-Timing header with the hop breakdown to responses of traced requests
+    @Value("${calculator.tracing.response-header:false}")
+    private boolean serverTimingHeader;
 
     // WELCOMING
     @GetMapping("/")
     public ResponseEntity<Map<String, Object>> welcoming() {
-        String message = "Possible endpoints: /add, /sub, /mul, /div with parameters op1 and op2. Example: /add?op1=5&op2=2.3";
-        String welcomingRequestId = java.util.UUID.randomUUID().toString();
+        String message = "Possible endpoints: /add, /sub, /mul, /div with parameters op1 and op2. Example: /add?op1=5&op2=2.3. " +
+            "POST /batch accepts an array of {op, op1, op2} items. " +
+            "POST /eval accepts {expression, variables}, e.g. {\"expression\": \"(a+b)*c\", \"variables\": {\"a\": 1, \"b\": 2, \"c\": 3}}. " +
+            "POST /array applies add, sub, mul or div element-wise, e.g. {\"op\": \"add\", \"op1\": [1, 2], \"op2\": [3, 4]}. " +
+            "POST /matrix applies add, mul or tmul (op1 transposed times op2) to two matrices, " +
+            "e.g. {\"op\": \"mul\", \"op1\": {\"rows\": 1, \"cols\": 2, \"data\": [1, 2]}, \"op2\": {\"rows\": 2, \"cols\": 1, \"data\": [3, 4]}}. " +
+            "POST /stream reads batch items as newline-delimited JSON and writes one result line per item as it goes.";
+        String welcomingRequestId = requestIdGenerator.next().toString();
 
         return ResponseEntity.ok()
             .header("request-ID", welcomingRequestId)
@@ -61,24 +134,30 @@ public class CalculatorController {
                 examples = @ExampleObject(value = "{\"message\": \"Invalid parameters\"}"))),
         @ApiResponse(responseCode = "500", description = "Internal server error",
             headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
                 schema = @Schema(type = "string", format = "uuid")))
     })
-    public ResponseEntity<Map<String, Object>> addition(
-        @Parameter(description = "First operand", example = "1.5", required = true)
-        @RequestParam(value= "op1", required=true) Double op1,
-        @Parameter(description = "Second operand", example = "2.3", required = true)
-        @RequestParam(value= "op2", required=true) Double op2
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> addition(
+        @Parameter(description = "First operand", example = "1.5", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op1", required=true) String op1,
+        @Parameter(description = "Second operand", example = "2.3", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op2", required=true) String op2
     ) {
-        CalculationResponse response = calculatorService.performCalculation(op1, op2, "add");
-        if (response.isSuccess()) {
-            return ResponseEntity.ok()
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("result", response.getResult()));
-        } else {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("message", response.getErrorMessage()));
-        }
+        return calculate(op1, op2, "add");
     }
 
     // SUBTRACTION
@@ -100,24 +179,30 @@ public class CalculatorController {
                 examples = @ExampleObject(value = "{\"message\": \"Invalid parameters\"}"))),
         @ApiResponse(responseCode = "500", description = "Internal server error",
             headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
                 schema = @Schema(type = "string", format = "uuid")))
     })
-    public ResponseEntity<Map<String, Object>> subtraction(
-        @Parameter(description = "First operand", example = "10.5", required = true)
-        @RequestParam(value= "op1", required=true) Double op1,
-        @Parameter(description = "Second operand", example = "3.2", required = true)
-        @RequestParam(value= "op2", required=true) Double op2
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> subtraction(
+        @Parameter(description = "First operand", example = "10.5", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op1", required=true) String op1,
+        @Parameter(description = "Second operand", example = "3.2", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op2", required=true) String op2
     ) {
-        CalculationResponse response = calculatorService.performCalculation(op1, op2, "sub");
-        if (response.isSuccess()) {
-            return ResponseEntity.ok()
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("result", response.getResult()));
-        } else {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("message", response.getErrorMessage()));
-        }
+        return calculate(op1, op2, "sub");
     }
 
     // MULTIPLICATION
@@ -139,24 +224,30 @@ public class CalculatorController {
                 examples = @ExampleObject(value = "{\"message\": \"Invalid parameters\"}"))),
         @ApiResponse(responseCode = "500", description = "Internal server error",
             headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
                 schema = @Schema(type = "string", format = "uuid")))
     })
-    public ResponseEntity<Map<String, Object>> multiplication(
-        @Parameter(description = "First operand", example = "4.0", required = true)
-        @RequestParam(value= "op1", required=true) Double op1,
-        @Parameter(description = "Second operand", example = "2.5", required = true)
-        @RequestParam(value= "op2", required=true) Double op2
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> multiplication(
+        @Parameter(description = "First operand", example = "4.0", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op1", required=true) String op1,
+        @Parameter(description = "Second operand", example = "2.5", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op2", required=true) String op2
     ) {
-        CalculationResponse response = calculatorService.performCalculation(op1, op2, "mul");
-        if (response.isSuccess()) {
-            return ResponseEntity.ok()
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("result", response.getResult()));
-        } else {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("message", response.getErrorMessage()));
-        }
+        return calculate(op1, op2, "mul");
     }
 
     // DIVISION
@@ -178,32 +269,577 @@ public class CalculatorController {
                 examples = @ExampleObject(value = "{\"message\": \"Invalid parameters\"}"))),
         @ApiResponse(responseCode = "500", description = "Internal server error",
             headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid")))
+    })
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> division(
+        @Parameter(description = "First operand", example = "15.0", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op1", required=true) String op1,
+        @Parameter(description = "Second operand - cannot be zero", example = "3.0", required = true, schema = @Schema(type = "number"))
+        @RequestParam(value= "op2", required=true) String op2
+    ) {
+        return calculate(op1, op2, "div");
+    }
+
+    // BATCH
+    @PostMapping("/batch")
+    @Operation(
+        summary = "Batch calculation",
+        description = "Performs many operations in a single call. Results are returned in request order; " +
+            "each item reports either its result or its own error (e.g. division by zero)."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Batch processed; see each item for its outcome",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"results\": [{\"result\": 3.8}, {\"message\": \"Division by zero is not allowed\", \"code\": 1}]}"))),
+        @ApiResponse(responseCode = "400", description = "Bad request - empty, oversized or malformed batch",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Invalid parameters\"}"))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid")))
+    })
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> batch(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Operations to perform", required = true)
+        @RequestBody List<BatchItem> items
+    ) {
+        String invalid = validateBatch(items);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .header("request-ID", requestIdGenerator.next().toString())
+                .body(Map.of("message", invalid)));
+        }
+        return calculatorService.performBatchAsync(items)
+            .thenApply(this::toBatchResponseEntity);
+    }
+
+    // EXPRESSION
+    @PostMapping("/eval")
+    @Operation(
+        summary = "Expression evaluation",
+        description = "Evaluates a formula such as (a + b) * c / d in a single round trip. Supports + - * /, parentheses, " +
+            "unary minus, calls of registered operations by name (e.g. div(a, b)) and variables bound by name. " +
+            "The calculator compiles each distinct expression once, so re-running a formula with new variables is cheap."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Expression evaluated successfully",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"result\": 2.25}"))),
+        @ApiResponse(responseCode = "400", description = "Bad request - invalid expression, unbound variable or division by zero",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Invalid expression\", \"code\": 7}"))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid")))
+    })
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> evaluation(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Expression and variable values", required = true)
+        @RequestBody ExpressionRequest request
+    ) {
+        String invalid = validateExpression(request);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .header("request-ID", requestIdGenerator.next().toString())
+                .body(Map.of("message", invalid)));
+        }
+        return calculatorService.performEvaluationAsync(request.getExpression(), request.getVariables())
+            .thenApply(this::toResponseEntity);
+    }
+
+    // ARRAY
+    @PostMapping("/array")
+    @Operation(
+        summary = "Element-wise array calculation",
+        description = "Applies add, sub, mul or div to each pair of elements of two equally long arrays (op1[i] op op2[i]) " +
+            "in a single call. A zero divisor does not fail the call: its result is NaN and its index is listed in divisionByZero."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Arrays processed",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"results\": [0.5, \"NaN\", 2.0], \"divisionByZero\": [1]}"))),
+        @ApiResponse(responseCode = "400", description = "Bad request - unsupported operation, missing, empty, oversized or mismatched arrays",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Operand shapes do not fit the operation\", \"code\": 9}"))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid")))
+    })
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> array(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Operation and operand arrays", required = true)
+        @RequestBody ArrayCalculationRequest request
+    ) {
+        String invalid = validateArray(request);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .header("request-ID", requestIdGenerator.next().toString())
+                .body(Map.of("message", invalid)));
+        }
+        if (request.getOp1().length != request.getOp2().length) {
+            return CompletableFuture.completedFuture(
+                errorEntity(requestIdGenerator.next().toString(), null, ErrorCodes.DIMENSION_MISMATCH, null));
+        }
+        return calculatorService.performArrayAsync(request.getOp(), request.getOp1(), request.getOp2())
+            .thenApply(this::toArrayResponseEntity);
+    }
+
+    // Only built-in operations have array kernels
+    private String validateArray(ArrayCalculationRequest request) {
+        if (request == null || BuiltinOperation.byName(request.getOp()) == null) {
+            return "'op' must be one of add, sub, mul, div.";
+        }
+        if (request.getOp1() == null || request.getOp2() == null) {
+            return "'op1' and 'op2' are required.";
+        }
+        int length = Math.max(request.getOp1().length, request.getOp2().length);
+        if (length == 0) {
+            return "Operand arrays must contain at least one element.";
+        }
+        if (length > maxArrayLength) {
+            return String.format("Operand arrays must not contain more than %d elements.", maxArrayLength);
+        }
+        return null;
+    }
+
+    // MATRIX
+    @PostMapping(value = "/matrix", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Matrix calculation",
+        description = "Adds (add) or multiplies (mul) two matrices, or multiplies the transpose of op1 by op2 (tmul), " +
+            "in a single call. Matrices are given as rows, cols and row-major data. Large matrices should be sent as " +
+            "application/octet-stream in the binary layout instead, which skips JSON on the way in and out."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Matrices processed",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"result\": {\"rows\": 1, \"cols\": 1, \"data\": [11.0]}}"))),
+        @ApiResponse(responseCode = "400", description = "Bad request - unsupported operation, missing, empty, oversized or mismatched matrices",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Operand shapes do not fit the operation\", \"code\": 9}"))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "502", description = "Request could not be delivered to the calculator",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
+                schema = @Schema(type = "string", format = "uuid"))),
+        @ApiResponse(responseCode = "503", description = "Too many requests in flight to the calculator",
+            headers = {
+                @Header(name = "request-ID", description = "Unique request identifier",
+                    schema = @Schema(type = "string", format = "uuid")),
+                @Header(name = "Retry-After", description = "Seconds to wait before retrying",
+                    schema = @Schema(type = "integer"))
+            },
+            content = @Content(mediaType = "application/json",
+                examples = @ExampleObject(value = "{\"message\": \"Too many requests in flight, try again later\", \"code\": 102}"))),
+        @ApiResponse(responseCode = "504", description = "The calculator did not reply in time",
+            headers = @Header(name = "request-ID", description = "Unique request identifier",
                 schema = @Schema(type = "string", format = "uuid")))
     })
-    public ResponseEntity<Map<String, Object>> division(
-        @Parameter(description = "First operand", example = "15.0", required = true)
-        @RequestParam(value= "op1", required=true) Double op1,
-        @Parameter(description = "Second operand - cannot be zero", example = "3.0", required = true)
-        @RequestParam(value= "op2", required=true) Double op2
+    public DeferredResult<ResponseEntity<Map<String, Object>>> matrix(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(description = "Operation and operand matrices", required = true)
+        @RequestBody MatrixCalculationRequest request
     ) {
-        CalculationResponse response = calculatorService.performCalculation(op1, op2, "div");
+        ResponseEntity<Map<String, Object>> rejected = validateMatrix(request);
+        if (rejected != null) {
+            return deferMatrix(CompletableFuture.completedFuture(rejected));
+        }
+        return deferMatrix(calculatorService.performMatrixAsync(request.getOp(), request.getOp1(), request.getOp2())
+            .thenApply(this::toMatrixResponseEntity));
+    }
+
+    // Binary variant: the body is a matrix request record and a successful reply is a matrix response record,
+    // so the elements are never formatted as text; errors are still JSON
+    @PostMapping(value = "/matrix", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(
+        summary = "Matrix calculation, binary",
+        description = "Same as the JSON variant with the matrix record layout as body: magic 0xB1, opcode (1 add, 2 mul, " +
+            "3 tmul), rows1, cols1, rows2, cols2 as 32-bit integers, then the elements of op1 and op2 as row-major " +
+            "doubles, all little-endian. Success replies are application/octet-stream: magic 0xB2, 0, rows, cols, elements."
+    )
+    public DeferredResult<ResponseEntity<?>> matrixBinary(InputStream body) throws IOException {
+        // Read no more than the largest valid record, however long the body is
+        int limit = MatrixCodec.maxRecordSize(maxMatrixElements);
+        byte[] payload = body.readNBytes(limit);
+        if (body.read() != -1) {
+            return deferMatrix(CompletableFuture.completedFuture(badRequest(
+                String.format("Operand matrices must not contain more than %d elements.", maxMatrixElements))));
+        }
+        MatrixCalculationRequest request;
+        try {
+            request = MatrixCodec.decodeRequest(payload);
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return deferMatrix(CompletableFuture.completedFuture(badRequest("Body is not a matrix request in the binary layout.")));
+        }
+        ResponseEntity<Map<String, Object>> rejected = validateMatrix(request);
+        if (rejected != null) {
+            return deferMatrix(CompletableFuture.completedFuture(rejected));
+        }
+        return deferMatrix(calculatorService.performMatrixAsync(request.getOp(), request.getOp1(), request.getOp2())
+            .thenApply(this::toBinaryMatrixResponseEntity));
+    }
+
+    // STREAM
+    // Runs on the request thread for as long as the client keeps sending, so no async timeout cuts it short
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Streaming calculation",
+        description = "Reads newline-delimited JSON batch items ({op, op1, op2}, one per line) for as long as the body lasts " +
+            "and writes one NDJSON reply line per item while it is still reading. Replies come in request order, or " +
+            "with ordered=false as soon as they complete, each with the zero-based index of its line. A bounded number " +
+            "of items is in flight at a time; the service reads no further until replies go out."
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Stream processed; see each line for its outcome",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")),
+            content = @Content(mediaType = "application/x-ndjson",
+                examples = @ExampleObject(value = "{\"index\": 1, \"message\": \"Division by zero is not allowed\", \"code\": 1}\n{\"index\": 0, \"result\": 3.8}"))),
+        @ApiResponse(responseCode = "500", description = "Internal server error",
+            headers = @Header(name = "request-ID", description = "Unique request identifier", 
+                schema = @Schema(type = "string", format = "uuid")))
+    })
+    public void stream(
+        @Parameter(description = "Write replies in request order (true) or as they complete, with line indexes (false)", example = "true")
+        @RequestParam(value = "ordered", defaultValue = "true") boolean ordered,
+        InputStream body,
+        HttpServletResponse response
+    ) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader("request-ID", requestIdGenerator.next().toString());
+        streamingService.stream(body, response.getOutputStream(), ordered, this::toStreamLine);
+    }
+
+    // Null when the request may be sent; shape checks run here so oversized work never reaches Kafka
+    private ResponseEntity<Map<String, Object>> validateMatrix(MatrixCalculationRequest request) {
+        MatrixOperation operation = request != null ? MatrixOperation.byName(request.getOp()) : null;
+        if (operation == null) {
+            return badRequest("'op' must be one of add, mul, tmul.");
+        }
+        MatrixData a = request.getOp1();
+        MatrixData b = request.getOp2();
+        if (a == null || b == null) {
+            return badRequest("'op1' and 'op2' are required.");
+        }
+        for (MatrixData operand : List.of(a, b)) {
+            long size = (long) operand.getRows() * operand.getCols();
+            if (operand.getRows() < 1 || operand.getCols() < 1) {
+                return badRequest("Operand matrices must have at least one row and one column.");
+            }
+            if (size > maxMatrixElements) {
+                return badRequest(String.format("Operand matrices must not contain more than %d elements.", maxMatrixElements));
+            }
+            if (operand.getData() == null || operand.getData().length != size) {
+                return badRequest("Each operand needs exactly rows * cols elements in 'data'.");
+            }
+        }
+        boolean fits = switch (operation) {
+            case ADD -> a.getRows() == b.getRows() && a.getCols() == b.getCols();
+            case MULTIPLY -> a.getCols() == b.getRows();
+            case TRANSPOSE_MULTIPLY -> a.getRows() == b.getRows();
+        };
+        if (!fits) {
+            return errorEntity(requestIdGenerator.next().toString(), null, ErrorCodes.DIMENSION_MISMATCH, null);
+        }
+        long resultSize = operation == MatrixOperation.ADD ? (long) a.getRows() * a.getCols()
+            : (long) (operation == MatrixOperation.MULTIPLY ? a.getRows() : a.getCols()) * b.getCols();
+        if (resultSize > maxMatrixElements) {
+            return errorEntity(requestIdGenerator.next().toString(), null, ErrorCodes.RESULT_TOO_LARGE, null);
+        }
+        return null;
+    }
+
+    private ResponseEntity<Map<String, Object>> badRequest(String message) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .header("request-ID", requestIdGenerator.next().toString())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(Map.of("message", message));
+    }
+
+    // Products of a few thousand per side outlast spring.mvc.async.request-timeout; the Kafka route
+    // times out after calculator.matrix.timeout-ms, so the servlet timeout is set just beyond it
+    private <T> DeferredResult<T> deferMatrix(CompletableFuture<? extends T> future) {
+        DeferredResult<T> result = new DeferredResult<>(matrixTimeoutMs + 1000);
+        future.whenComplete((value, e) -> {
+            if (e != null) {
+                result.setErrorResult(e);
+            } else {
+                result.setResult(value);
+            }
+        });
+        return result;
+    }
+
+    // Syntax is checked where the expression is compiled; only what should never reach Kafka is rejected here
+    private String validateExpression(ExpressionRequest request) {
+        if (request == null || request.getExpression() == null || request.getExpression().isBlank()) {
+            return "'expression' is required.";
+        }
+        if (request.getExpression().length() > ExpressionParser.MAX_LENGTH) {
+            return String.format("'expression' must not be longer than %d characters.", ExpressionParser.MAX_LENGTH);
+        }
+        return null;
+    }
+
+    // Operands are parsed here rather than bound as numbers, since only double arithmetic has NaN and Infinity
+    private CompletableFuture<ResponseEntity<Map<String, Object>>> calculate(String op1, String op2, String operation) {
+        boolean doubles = calculatorService.isDoubleArithmetic();
+        Number a = parseOperand(op1, doubles);
+        if (a == null) {
+            return CompletableFuture.completedFuture(invalidParameter("op1", op1));
+        }
+        Number b = parseOperand(op2, doubles);
+        if (b == null) {
+            return CompletableFuture.completedFuture(invalidParameter("op2", op2));
+        }
+        CompletableFuture<CalculationResponse> response = doubles
+            ? calculatorService.performCalculationAsync((Double) a, (Double) b, operation)
+            : calculatorService.performCalculationAsync((BigDecimal) a, (BigDecimal) b, operation);
+        return response.thenApply(this::toResponseEntity);
+    }
+
+    // Null for text that is not a number of the configured arithmetic
+    private static Number parseOperand(String text, boolean doubles) {
+        try {
+            return doubles ? Double.valueOf(text.trim()) : new BigDecimal(text.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String validateBatch(List<BatchItem> items) {
+        if (items == null || items.isEmpty()) {
+            return "Batch must contain at least one item.";
+        }
+        if (items.size() > maxBatchItems) {
+            return String.format("Batch must not contain more than %d items.", maxBatchItems);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            if (item == null || item.getOp() == null || item.getOp1() == null || item.getOp2() == null) {
+                return String.format("Item %d must have 'op', 'op1' and 'op2'.", i);
+            }
+            // Bounds the size of the batch record sent to the calculator
+            if (item.getOp().length() > BatchRecords.MAX_OP_LENGTH) {
+                return String.format("Item %d: 'op' must not be longer than %d characters.", i, BatchRecords.MAX_OP_LENGTH);
+            }
+        }
+        return null;
+    }
+
+    private ResponseEntity<Map<String, Object>> toBatchResponseEntity(BatchCalculationResponse response) {
+        if (!response.isSuccess()) {
+            return errorEntity(response.getRequestId(), response.getLatencyBreakdown(), response.getErrorCode(), response.getErrorMessage());
+        }
+        List<Map<String, Object>> results = new ArrayList<>(response.getResults().size());
+        for (CalculationResponse item : response.getResults()) {
+            if (item.isSuccess()) {
+                results.add(Map.of("result", item.getResult()));
+            } else {
+                results.add(errorBody(item.getErrorCode(), item.getErrorMessage()));
+            }
+        }
+        return headers(ResponseEntity.ok(), response.getRequestId(), response.getLatencyBreakdown())
+            .body(Map.of("results", results));
+    }
+
+    // One reply line of /stream, shaped like a /batch result
+    private byte[] toStreamLine(Long index, CalculationResponse response) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        if (index != null) {
+            line.put("index", index);
+        }
         if (response.isSuccess()) {
-            return ResponseEntity.ok()
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("result", response.getResult()));
+            line.put("result", response.getResult());
         } else {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .header("request-ID", response.getRequestId())
-                .body(Map.of("message", response.getErrorMessage()));
+            line.putAll(errorBody(response.getErrorCode(), response.getErrorMessage()));
+        }
+        try {
+            return objectMapper.writeValueAsBytes(line);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Results stay a primitive array all the way to the JSON writer; NaN is written as the string "NaN"
+    private ResponseEntity<Map<String, Object>> toArrayResponseEntity(ArrayCalculationResponse response) {
+        if (!response.isSuccess()) {
+            return errorEntity(response.getRequestId(), response.getLatencyBreakdown(), response.getErrorCode(), null);
+        }
+        return headers(ResponseEntity.ok(), response.getRequestId(), response.getLatencyBreakdown())
+            .body(Map.of("results", response.getResults(), "divisionByZero", response.getDivisionByZero()));
+    }
+
+    private ResponseEntity<Map<String, Object>> toMatrixResponseEntity(MatrixCalculationResponse response) {
+        if (!response.isSuccess()) {
+            return errorEntity(response.getRequestId(), response.getLatencyBreakdown(), response.getErrorCode(), null);
         }
+        return headers(ResponseEntity.ok(), response.getRequestId(), response.getLatencyBreakdown())
+            .body(Map.of("result", response.getResult()));
+    }
+
+    // Success replies in the same layout the calculator sent them in
+    private ResponseEntity<?> toBinaryMatrixResponseEntity(MatrixCalculationResponse response) {
+        if (!response.isSuccess()) {
+            return errorEntity(response.getRequestId(), response.getLatencyBreakdown(), response.getErrorCode(), null);
+        }
+        return headers(ResponseEntity.ok(), response.getRequestId(), response.getLatencyBreakdown())
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .body(MatrixCodec.encode(response));
+    }
+
+    // Maps a calculation reply onto the HTTP response
+    private ResponseEntity<Map<String, Object>> toResponseEntity(CalculationResponse response) {
+        if (response.isSuccess()) {
+            // Decimal replies carry the exact result; older calculators only send the double
+            Object result = response.getDecimalResult() != null
+                ? new BigDecimal(response.getDecimalResult())
+                : response.getResult();
+            return headers(ResponseEntity.ok(), response.getRequestId(), response.getLatencyBreakdown())
+                .body(Map.of("result", result));
+        } else {
+            return errorEntity(response.getRequestId(), response.getLatencyBreakdown(), response.getErrorCode(), response.getErrorMessage());
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> errorEntity(String requestId, LatencyBreakdown breakdown, int errorCode, String errorMessage) {
+        ResponseEntity.BodyBuilder builder = headers(ResponseEntity.status(statusOf(errorCode)), requestId, breakdown);
+        if (errorCode == RestErrorCodes.OVERLOADED) {
+            builder.header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(errorBody(errorCode, errorMessage));
+    }
+
+    private ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder builder, String requestId, LatencyBreakdown breakdown) {
+        builder.header("request-ID", requestId);
+        if (serverTimingHeader && breakdown != null) {
+            builder.header("Server-Timing", breakdown.toServerTiming());
+        }
+        return builder;
+    }
+
+    private static Map<String, Object> errorBody(int errorCode, String errorMessage) {
+        if (errorCode == ErrorCodes.NONE) {
+            // Reply from a calculator that still sends text instead of a code
+            return Map.of("message", errorMessage != null ? errorMessage : "Calculation failed");
+        }
+        return Map.of("message", messageOf(errorCode), "code", errorCode);
+    }
+
+    // Error codes are only turned into text here, at the HTTP edge
+    private static String messageOf(int errorCode) {
+        return switch (errorCode) {
+            case ErrorCodes.DIVISION_BY_ZERO -> "Division by zero is not allowed";
+            case ErrorCodes.UNSUPPORTED_OPERATION -> "Unsupported operation";
+            case ErrorCodes.MISSING_OPERAND -> "Both operands are required";
+            case ErrorCodes.OPERATION_FAILED -> "Calculation failed";
+            case ErrorCodes.INVALID_OPERAND -> "Operands must be decimal numbers between 1E-1000 and 1E+1000";
+            case ErrorCodes.INEXACT_RESULT -> "Result cannot be represented exactly with the configured precision";
+            case ErrorCodes.INVALID_EXPRESSION -> "Invalid expression";
+            case ErrorCodes.UNBOUND_VARIABLE -> "Every variable of the expression needs a value";
+            case ErrorCodes.DIMENSION_MISMATCH -> "Operand shapes do not fit the operation";
+            case ErrorCodes.RESULT_TOO_LARGE -> "Result has more elements than the configured maximum";
+            case RestErrorCodes.TIMEOUT -> "Request timeout: the calculator did not reply in time";
+            case RestErrorCodes.TRANSPORT_ERROR -> "Request could not be delivered to the calculator";
+            case RestErrorCodes.OVERLOADED -> "Too many requests in flight, try again later";
+            default -> "Error " + errorCode;
+        };
+    }
+
+    private static HttpStatus statusOf(int errorCode) {
+        return switch (errorCode) {
+            case ErrorCodes.OPERATION_FAILED -> HttpStatus.INTERNAL_SERVER_ERROR;
+            // The calculator service is the upstream: unreachable, too slow, or not asked at all
+            case RestErrorCodes.TRANSPORT_ERROR -> HttpStatus.BAD_GATEWAY;
+            case RestErrorCodes.TIMEOUT -> HttpStatus.GATEWAY_TIMEOUT;
+            case RestErrorCodes.OVERLOADED -> HttpStatus.SERVICE_UNAVAILABLE;
+            default -> HttpStatus.BAD_REQUEST;
+        };
     }
 
     // ERROR HANDLER (parameter conversion errors)
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<Map<String, String>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
-        
-        String message = String.format("Invalid value '%s' for parameter '%s'. Expected a valid number.", ex.getValue(), ex.getName());
-        String errorRequestId = java.util.UUID.randomUUID().toString();
+    public ResponseEntity<Map<String, Object>> handleTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        return invalidParameter(ex.getName(), ex.getValue());
+    }
+
+    private ResponseEntity<Map<String, Object>> invalidParameter(String name, Object value) {
+        String message = String.format("Invalid value '%s' for parameter '%s'. Expected a valid number.", value, name);
+        String errorRequestId = requestIdGenerator.next().toString();
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST)
             .header("request-ID", errorRequestId)
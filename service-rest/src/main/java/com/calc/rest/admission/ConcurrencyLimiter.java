@@ -0,0 +1,170 @@
+package com.calc.rest.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control in front of the calculator service: bounds the requests sent to it
+ * and not yet answered. Requests over the limit are shed at once instead of queueing
+ * for a reply that would arrive after the timeout.
+ *
+ * In {@code adaptive} mode the limit follows the observed round-trip time, in the spirit
+ * of TCP Vegas: while replies come back close to the best round trip seen, the limit
+ * grows; once they slow down the calculator is queueing and the limit shrinks with the
+ * ratio of the two. Timeouts and transport errors cut the limit multiplicatively.
+ * {@code fixed} keeps the initial limit, {@code off} admits everything.
+ *
+ * This instance admits single operations and expressions. Batch, array and matrix requests
+ * take far longer per round trip and would drag the estimate down, so they pass a fixed
+ * limiter of their own (see AdmissionConfig).
+ */
+@Component
+@Primary
+public class ConcurrencyLimiter {
+
+    static final String ADAPTIVE = "adaptive";
+    static final String FIXED = "fixed";
+    static final String OFF = "off";
+
+    // Weight of a new sample in the smoothed round trip and of a new estimate in the limit
+    private static final double RTT_SMOOTHING = 0.125;
+    private static final double LIMIT_SMOOTHING = 0.2;
+    // Shrink per dropped request, and the floor of a single latency-driven step
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+    // The best round trip is re-learned this often, so a lasting slowdown becomes the new normal
+    private static final int BASELINE_RESET_SAMPLES = 1000;
+
+    private final boolean adaptive;
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private long baselineRttNanos = Long.MAX_VALUE;
+    private double smoothedRttNanos;
+    private int samplesSinceReset;
+
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public ConcurrencyLimiter(@Value("${calculator.admission.mode:adaptive}") String mode,
+                              @Value("${calculator.admission.initial-limit:200}") int initialLimit,
+                              @Value("${calculator.admission.min-limit:20}") int minLimit,
+                              @Value("${calculator.admission.max-limit:10000}") int maxLimit,
+                              @Value("${calculator.admission.rtt-tolerance:2.0}") double rttTolerance) {
+        if (!ADAPTIVE.equals(mode) && !FIXED.equals(mode) && !OFF.equals(mode)) {
+            throw new IllegalStateException("calculator.admission.mode must be 'adaptive', 'fixed' or 'off', was: " + mode);
+        }
+        this.adaptive = ADAPTIVE.equals(mode);
+        this.enabled = !OFF.equals(mode);
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.rttTolerance = Math.max(1.0, rttTolerance);
+        this.estimatedLimit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    /**
+     * Takes a slot, or returns false and counts the request as shed when the limit is
+     * reached. Every admitted request must end in exactly one of {@link #onSuccess},
+     * {@link #onDropped} or {@link #onIgnore}.
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                shed.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    // A reply arrived after rttNanos
+    public void onSuccess(long rttNanos) {
+        if (!enabled) {
+            return;
+        }
+        int current = inFlight.getAndDecrement();
+        if (adaptive) {
+            updateLimit(rttNanos, current);
+        }
+    }
+
+    // The request timed out or never reached the calculator
+    public void onDropped() {
+        if (!enabled) {
+            return;
+        }
+        inFlight.decrementAndGet();
+        dropped.increment();
+        if (adaptive) {
+            synchronized (this) {
+                estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+                limit = (int) estimatedLimit;
+            }
+        }
+    }
+
+    // The request ended without saying anything about the calculator, e.g. rejected locally
+    public void onIgnore() {
+        if (enabled) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private synchronized void updateLimit(long rttNanos, int inFlightAtCompletion) {
+        if (++samplesSinceReset >= BASELINE_RESET_SAMPLES) {
+            samplesSinceReset = 0;
+            baselineRttNanos = rttNanos;
+        }
+        baselineRttNanos = Math.max(1, Math.min(baselineRttNanos, rttNanos));
+        smoothedRttNanos = smoothedRttNanos == 0
+            ? rttNanos
+            : smoothedRttNanos + (rttNanos - smoothedRttNanos) * RTT_SMOOTHING;
+
+        // 1.0 while replies are within the tolerance of the best round trip, less once they queue
+        double gradient = Math.clamp(rttTolerance * baselineRttNanos / smoothedRttNanos, MIN_GRADIENT, 1.0);
+        // Headroom that lets the limit probe upwards, growing slower than the limit itself
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+
+        // Do not grow on the strength of a limit that is not being used
+        if (newLimit > estimatedLimit && inFlightAtCompletion < estimatedLimit / 2) {
+            return;
+        }
+        estimatedLimit = Math.clamp(estimatedLimit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING, minLimit, maxLimit);
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return enabled ? limit : Integer.MAX_VALUE;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    // Requests rejected at admission
+    public long getShed() {
+        return shed.sum();
+    }
+
+    // Admitted requests that timed out or failed in transport
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
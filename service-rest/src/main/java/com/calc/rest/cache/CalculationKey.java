@@ -0,0 +1,36 @@
+package com.calc.rest.cache;
+
+import java.math.BigDecimal;
+
+// Identity of a calculation: the opcode plus the raw IEEE 754 bits of both operands.
+// No string building, and -0.0 and NaN payloads stay distinct.
+public record CalculationKey(byte opcode, long operand1Bits, long operand2Bits) {
+
+    // Set on the opcode of decimal calculations, whose results differ from the double ones
+    private static final byte DECIMAL = (byte) 0x80;
+
+    // Up to 15 significant digits, distinct decimals in the normal double range map to distinct doubles
+    private static final int MAX_DECIMAL_DIGITS = 15;
+    private static final int MAX_DECIMAL_EXPONENT = 300;
+
+    public static CalculationKey of(byte opcode, double operand1, double operand2) {
+        return new CalculationKey(opcode, Double.doubleToRawLongBits(operand1), Double.doubleToRawLongBits(operand2));
+    }
+
+    // Null when an operand has more digits than its double identifies: such calculations are not shared
+    public static CalculationKey ofDecimals(byte opcode, BigDecimal operand1, BigDecimal operand2) {
+        if (!identifiedByDouble(operand1) || !identifiedByDouble(operand2)) {
+            return null;
+        }
+        // 2.50 and 2.5 share a key, their results only differ in trailing zeros, which are stripped
+        return of((byte) (opcode | DECIMAL), operand1.doubleValue(), operand2.doubleValue());
+    }
+
+    private static boolean identifiedByDouble(BigDecimal value) {
+        if (value.signum() == 0) {
+            return true;
+        }
+        int exponent = value.precision() - value.scale() - 1;
+        return value.precision() <= MAX_DECIMAL_DIGITS && Math.abs(exponent) < MAX_DECIMAL_EXPONENT;
+    }
+}
@@ -0,0 +1,152 @@
+package com.calc.rest.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.CalculationResponse;
+
+/**
+ * Bounded cache of calculation outcomes keyed by {@link CalculationKey}.
+ *
+ * Calculations are pure, so an entry never goes stale; the optional TTL only bounds how
+ * long a rarely used entry may hold memory. Entries live in independently locked LRU
+ * segments so concurrent lookups seldom contend. A max size of 0 disables the cache.
+ */
+@Component
+public class ResultCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    // Small caches use fewer segments so the LRU order stays close to global
+    private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final boolean enabled;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public ResultCache(@Value("${calculator.cache.max-size:10000}") int maxSize,
+                       @Value("${calculator.cache.ttl-ms:0}") long ttlMs) {
+        this.enabled = maxSize > 0;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(ttlMs, 0));
+
+        int count = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxSize / MIN_ENTRIES_PER_SEGMENT)));
+        int perSegment = Math.max(1, (maxSize + count - 1) / count);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.segmentMask = count - 1;
+    }
+
+    // Returns a fresh response without request id, or null on a miss
+    public CalculationResponse get(CalculationKey key) {
+        if (!enabled) {
+            return null;
+        }
+        Segment segment = segmentFor(key);
+        Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && entry.expiresAt != 0 && System.nanoTime() - entry.expiresAt > 0) {
+                segment.remove(key);
+                expirations.increment();
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (entry.result == null) {
+            return new CalculationResponse(null, entry.errorCode);
+        }
+        CalculationResponse response = new CalculationResponse(null, entry.result);
+        response.setDecimalResult(entry.decimalResult);
+        return response;
+    }
+
+    // Stores deterministic outcomes only; timeouts and transport errors are never cached
+    public void put(CalculationKey key, CalculationResponse response) {
+        if (!enabled || !isCacheable(response)) {
+            return;
+        }
+        long expiresAt = ttlNanos > 0 ? (System.nanoTime() + ttlNanos) | 1 : 0;
+        Entry entry = response.isSuccess()
+            ? new Entry(response.getResult(), response.getDecimalResult(), ErrorCodes.NONE, expiresAt)
+            : new Entry(null, null, response.getErrorCode(), expiresAt);
+        Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.put(key, entry);
+        }
+    }
+
+    static boolean isCacheable(CalculationResponse response) {
+        if (response.isSuccess()) {
+            return response.getResult() != null;
+        }
+        return switch (response.getErrorCode()) {
+            case ErrorCodes.DIVISION_BY_ZERO, ErrorCodes.UNSUPPORTED_OPERATION, ErrorCodes.MISSING_OPERAND,
+                 ErrorCodes.INVALID_OPERAND, ErrorCodes.INEXACT_RESULT -> true;
+            default -> false;
+        };
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public long getHits() { return hits.sum(); }
+
+    public long getMisses() { return misses.sum(); }
+
+    public long getEvictions() { return evictions.sum(); }
+
+    public long getExpirations() { return expirations.sum(); }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(CalculationKey key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+
+    // Either result (with decimalResult for decimal calculations) or errorCode is set; expiresAt is 0 when there is no TTL
+    private record Entry(Double result, String decimalResult, int errorCode, long expiresAt) {}
+
+    // Access-ordered map: get moves an entry to the tail, the head is evicted first
+    private final class Segment extends LinkedHashMap<CalculationKey, Entry> {
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CalculationKey, Entry> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
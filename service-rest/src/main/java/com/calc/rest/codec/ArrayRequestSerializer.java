@@ -0,0 +1,14 @@
+package com.calc.rest.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.calc.rest.dto.ArrayCalculationRequest;
+
+// Kafka adapter for the binary array request layout
+public class ArrayRequestSerializer implements Serializer<ArrayCalculationRequest> {
+
+    @Override
+    public byte[] serialize(String topic, ArrayCalculationRequest data) {
+        return data == null ? null : ArrayCodec.encode(data);
+    }
+}
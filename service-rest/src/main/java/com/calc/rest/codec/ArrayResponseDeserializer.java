@@ -0,0 +1,14 @@
+package com.calc.rest.codec;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.calc.rest.dto.ArrayCalculationResponse;
+
+// Kafka adapter for the binary array response layout
+public class ArrayResponseDeserializer implements Deserializer<ArrayCalculationResponse> {
+
+    @Override
+    public ArrayCalculationResponse deserialize(String topic, byte[] data) {
+        return data == null ? null : ArrayCodec.decodeResponse(data);
+    }
+}
@@ -0,0 +1,206 @@
+package com.calc.rest.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import com.calc.rest.dto.CalculationRequest;
+import com.calc.rest.dto.CalculationResponse;
+
+/**
+ * Fixed-layout binary encoding of the calculation DTOs.
+ * Must match the calculator service's CalculationCodec byte for byte; each service encodes its own DTOs.
+ *
+ * Request:  magic(1) flags(1) [op1(8)] [op2(8)] [requestId] [operation] [decimalOp1 decimalOp2]
+ * Response: magic(1) flags(1) [result(8)] [requestId] [errorMessage] [errorCode(1)] [decimalResult]
+ *
+ * Doubles are raw IEEE 754 bits. A request id in canonical UUID form is packed
+ * into 16 bytes, anything else is written as a length-prefixed UTF-8 string.
+ * The operation travels as its opcode byte; the name is only written for
+ * operations the sender has no opcode for (opcode 0). Decimal operands and results are
+ * length-prefixed UTF-8 text, appended after the fields older readers know.
+ * Absent (null) fields are flagged and take no space.
+ */
+public final class CalculationCodec {
+
+    // First byte of every binary payload; JSON payloads start with '{'
+    static final byte REQUEST_MAGIC = (byte) 0xC1;
+    static final byte RESPONSE_MAGIC = (byte) 0xC2;
+
+    private static final int HAS_OPERAND1 = 1;
+    private static final int HAS_OPERAND2 = 1 << 1;
+    private static final int HAS_RESULT = 1;
+    private static final int SUCCESS = 1 << 1;
+    private static final int HAS_REQUEST_ID = 1 << 2;
+    private static final int UUID_REQUEST_ID = 1 << 3;
+    private static final int HAS_OPERATION = 1 << 4;
+    private static final int HAS_DECIMAL_OPERANDS = 1 << 5;
+    private static final int HAS_ERROR_MESSAGE = 1 << 4;
+    private static final int HAS_ERROR_CODE = 1 << 5;
+    private static final int HAS_DECIMAL_RESULT = 1 << 6;
+
+    private CalculationCodec() {}
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && (data[0] == REQUEST_MAGIC || data[0] == RESPONSE_MAGIC);
+    }
+
+    public static byte[] encode(CalculationRequest request) {
+        byte[] requestId = idBytes(request.getRequestId());
+        int opcode = request.getOpcode();
+        byte[] operationName = opcode == 0 ? utf8(request.getOperation()) : null;
+
+        int flags = idFlags(request.getRequestId(), requestId);
+        int size = 2 + idSize(request.getRequestId(), requestId);
+        if (request.getOperand1() != null) { flags |= HAS_OPERAND1; size += 8; }
+        if (request.getOperand2() != null) { flags |= HAS_OPERAND2; size += 8; }
+        boolean hasOperation = opcode != 0 || operationName != null;
+        if (hasOperation) { flags |= HAS_OPERATION; size += 1 + (operationName != null ? 2 + operationName.length : 0); }
+        // Decimal operands travel as a pair
+        byte[] decimal1 = utf8(request.getDecimalOperand1());
+        byte[] decimal2 = utf8(request.getDecimalOperand2());
+        boolean hasDecimals = decimal1 != null && decimal2 != null;
+        if (hasDecimals) { flags |= HAS_DECIMAL_OPERANDS; size += 4 + decimal1.length + decimal2.length; }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(REQUEST_MAGIC).put((byte) flags);
+        if (request.getOperand1() != null) buffer.putDouble(request.getOperand1());
+        if (request.getOperand2() != null) buffer.putDouble(request.getOperand2());
+        putId(buffer, request.getRequestId(), requestId);
+        if (hasOperation) {
+            buffer.put((byte) opcode);
+            if (operationName != null) putString(buffer, operationName);
+        }
+        if (hasDecimals) {
+            putString(buffer, decimal1);
+            putString(buffer, decimal2);
+        }
+        return buffer.array();
+    }
+
+    public static CalculationRequest decodeRequest(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        expectMagic(buffer, REQUEST_MAGIC);
+        int flags = buffer.get();
+        CalculationRequest request = new CalculationRequest();
+        if ((flags & HAS_OPERAND1) != 0) request.setOperand1(buffer.getDouble());
+        if ((flags & HAS_OPERAND2) != 0) request.setOperand2(buffer.getDouble());
+        request.setRequestId(getId(buffer, flags));
+        if ((flags & HAS_OPERATION) != 0) {
+            byte opcode = buffer.get();
+            request.setOpcode(opcode);
+            if (opcode == 0) request.setOperation(getString(buffer));
+        }
+        if ((flags & HAS_DECIMAL_OPERANDS) != 0) {
+            request.setDecimalOperand1(getString(buffer));
+            request.setDecimalOperand2(getString(buffer));
+        }
+        return request;
+    }
+
+    public static byte[] encode(CalculationResponse response) {
+        byte[] requestId = idBytes(response.getRequestId());
+        byte[] errorMessage = utf8(response.getErrorMessage());
+        byte[] decimalResult = utf8(response.getDecimalResult());
+
+        int flags = idFlags(response.getRequestId(), requestId);
+        int size = 2 + idSize(response.getRequestId(), requestId);
+        if (response.isSuccess()) flags |= SUCCESS;
+        if (response.getResult() != null) { flags |= HAS_RESULT; size += 8; }
+        if (errorMessage != null) { flags |= HAS_ERROR_MESSAGE; size += 2 + errorMessage.length; }
+        if (response.getErrorCode() != 0) { flags |= HAS_ERROR_CODE; size += 1; }
+        if (decimalResult != null) { flags |= HAS_DECIMAL_RESULT; size += 2 + decimalResult.length; }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(RESPONSE_MAGIC).put((byte) flags);
+        if (response.getResult() != null) buffer.putDouble(response.getResult());
+        putId(buffer, response.getRequestId(), requestId);
+        if (errorMessage != null) putString(buffer, errorMessage);
+        if (response.getErrorCode() != 0) buffer.put((byte) response.getErrorCode());
+        if (decimalResult != null) putString(buffer, decimalResult);
+        return buffer.array();
+    }
+
+    public static CalculationResponse decodeResponse(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        expectMagic(buffer, RESPONSE_MAGIC);
+        int flags = buffer.get();
+        CalculationResponse response = new CalculationResponse();
+        response.setSuccess((flags & SUCCESS) != 0);
+        if ((flags & HAS_RESULT) != 0) response.setResult(buffer.getDouble());
+        response.setRequestId(getId(buffer, flags));
+        if ((flags & HAS_ERROR_MESSAGE) != 0) response.setErrorMessage(getString(buffer));
+        if ((flags & HAS_ERROR_CODE) != 0) response.setErrorCode(Byte.toUnsignedInt(buffer.get()));
+        if ((flags & HAS_DECIMAL_RESULT) != 0) response.setDecimalResult(getString(buffer));
+        return response;
+    }
+
+    // Request ids: 16 raw bytes for canonical UUIDs, otherwise UTF-8
+    private static byte[] idBytes(String requestId) {
+        return requestId == null || asUuid(requestId) != null ? null : utf8(requestId);
+    }
+
+    private static int idFlags(String requestId, byte[] idBytes) {
+        if (requestId == null) return 0;
+        return idBytes == null ? HAS_REQUEST_ID | UUID_REQUEST_ID : HAS_REQUEST_ID;
+    }
+
+    private static int idSize(String requestId, byte[] idBytes) {
+        if (requestId == null) return 0;
+        return idBytes == null ? 16 : 2 + idBytes.length;
+    }
+
+    private static void putId(ByteBuffer buffer, String requestId, byte[] idBytes) {
+        if (requestId == null) return;
+        if (idBytes == null) {
+            UUID uuid = asUuid(requestId);
+            buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        } else {
+            putString(buffer, idBytes);
+        }
+    }
+
+    private static String getId(ByteBuffer buffer, int flags) {
+        if ((flags & HAS_REQUEST_ID) == 0) return null;
+        if ((flags & UUID_REQUEST_ID) != 0) {
+            return new UUID(buffer.getLong(), buffer.getLong()).toString();
+        }
+        return getString(buffer);
+    }
+
+    private static UUID asUuid(String value) {
+        if (value.length() != 36) return null;
+        try {
+            UUID uuid = UUID.fromString(value);
+            // Only canonical lower-case text survives the round trip unchanged
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String field exceeds 65535 bytes");
+        }
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void expectMagic(ByteBuffer buffer, byte magic) {
+        byte actual = buffer.get();
+        if (actual != magic) {
+            throw new IllegalArgumentException(String.format("Unexpected payload type 0x%02X", actual));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.calc.rest.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.calc.rest.dto.CalculationRequest;
+
+// Kafka adapter for the binary request layout (calculator.kafka.codec=binary)
+public class CalculationRequestSerializer implements Serializer<CalculationRequest> {
+
+    @Override
+    public byte[] serialize(String topic, CalculationRequest data) {
+        return data == null ? null : CalculationCodec.encode(data);
+    }
+}
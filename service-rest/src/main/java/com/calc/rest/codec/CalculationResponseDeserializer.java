@@ -0,0 +1,26 @@
+package com.calc.rest.codec;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.calc.rest.dto.CalculationResponse;
+
+// Kafka adapter for the binary response layout; JSON payloads are still accepted
+// so instances can be switched between codecs one at a time
+public class CalculationResponseDeserializer implements Deserializer<CalculationResponse> {
+
+    private final JsonDeserializer<CalculationResponse> json = new JsonDeserializer<>(CalculationResponse.class, false);
+
+    @Override
+    public CalculationResponse deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return CalculationCodec.isBinary(data) ? CalculationCodec.decodeResponse(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
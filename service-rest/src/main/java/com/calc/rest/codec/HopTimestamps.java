@@ -0,0 +1,60 @@
+package com.calc.rest.codec;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import com.calc.rest.dto.LatencyBreakdown;
+
+/**
+ * Per-hop timestamps of a traced request, carried in the {@value #HEADER} Kafka header.
+ *
+ * Request, written here:             sendWallMicros(8) sendNanos(8)
+ * Reply, appended by the calculator: the request stamps, receiveWallMicros(8)
+ *                                    computeNanos(8) residenceNanos(8)
+ *
+ * Nanosecond values come from the monotonic clock of the host that wrote them and are
+ * only compared on that host: sendNanos against the reply's arrival here, the
+ * calculator's durations against its own receive. The wall-clock stamps are compared
+ * across hosts, only to split the measured transit time into request and reply legs.
+ */
+public final class HopTimestamps {
+
+    public static final String HEADER = "calc_hops";
+
+    static final int REQUEST_BYTES = 2 * Long.BYTES;
+    static final int REPLY_BYTES = 5 * Long.BYTES;
+
+    private HopTimestamps() {}
+
+    public static byte[] request(long sentAtNanos) {
+        return ByteBuffer.allocate(REQUEST_BYTES)
+            .putLong(wallClockMicros())
+            .putLong(sentAtNanos)
+            .array();
+    }
+
+    // Returns null for headers of an unexpected size, e.g. the untouched request stamps from an older calculator
+    public static LatencyBreakdown breakdown(byte[] reply, long receivedAtNanos) {
+        if (reply == null || reply.length != REPLY_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(reply);
+        long sendWallMicros = buffer.getLong();
+        long sentAtNanos = buffer.getLong();
+        long calculatorReceiveWallMicros = buffer.getLong();
+        long computeNanos = buffer.getLong();
+        long calculatorNanos = buffer.getLong();
+
+        long totalNanos = receivedAtNanos - sentAtNanos;
+        long transitNanos = Math.max(0, totalNanos - calculatorNanos);
+        // Clock skew can push the wall-clock leg below zero or past the whole transit; keep it within
+        long requestTransitNanos = Math.clamp((calculatorReceiveWallMicros - sendWallMicros) * 1_000, 0, transitNanos);
+        return new LatencyBreakdown(totalNanos, requestTransitNanos, calculatorNanos, computeNanos,
+            transitNanos - requestTransitNanos);
+    }
+
+    static long wallClockMicros() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000 + now.getNano() / 1_000;
+    }
+}
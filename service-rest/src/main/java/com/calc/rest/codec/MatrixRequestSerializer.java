@@ -0,0 +1,14 @@
+package com.calc.rest.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.calc.rest.dto.MatrixCalculationRequest;
+
+// Kafka adapter for the binary matrix request layout
+public class MatrixRequestSerializer implements Serializer<MatrixCalculationRequest> {
+
+    @Override
+    public byte[] serialize(String topic, MatrixCalculationRequest data) {
+        return data == null ? null : MatrixCodec.encode(data);
+    }
+}
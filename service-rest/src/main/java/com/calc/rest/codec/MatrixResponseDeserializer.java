@@ -0,0 +1,14 @@
+package com.calc.rest.codec;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.calc.rest.dto.MatrixCalculationResponse;
+
+// Kafka adapter for the binary matrix response layout
+public class MatrixResponseDeserializer implements Deserializer<MatrixCalculationResponse> {
+
+    @Override
+    public MatrixCalculationResponse deserialize(String topic, byte[] data) {
+        return data == null ? null : MatrixCodec.decodeResponse(data);
+    }
+}
@@ -0,0 +1,27 @@
+package com.calc.rest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.calc.rest.admission.ConcurrencyLimiter;
+
+@Configuration
+public class AdmissionConfig {
+
+    // adaptive, fixed or off; off also lifts the bulk limit
+    @Value("${calculator.admission.mode:adaptive}")
+    private String mode;
+
+    // Batch, array and matrix requests in flight at once
+    @Value("${calculator.admission.bulk-limit:64}")
+    private int bulkLimit;
+
+    // Bulk round trips last milliseconds to seconds against about one millisecond for /add, so a
+    // shared adaptive estimate would read them as queueing and shed single operations. They get
+    // a fixed limit of their own instead.
+    @Bean
+    public ConcurrencyLimiter bulkConcurrencyLimiter() {
+        return new ConcurrencyLimiter("off".equals(mode) ? "off" : "fixed", bulkLimit, bulkLimit, bulkLimit, 1.0);
+    }
+}
@@ -11,6 +11,8 @@ import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
@@ -20,8 +22,25 @@ import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import com.calc.calculator.threads.Threads;
+import com.calc.rest.codec.ArrayCodec;
+import com.calc.rest.codec.ArrayRequestSerializer;
+import com.calc.rest.codec.ArrayResponseDeserializer;
+import com.calc.rest.codec.BatchRecords;
+import com.calc.rest.codec.MatrixCodec;
+import com.calc.rest.codec.MatrixRequestSerializer;
+import com.calc.rest.codec.MatrixResponseDeserializer;
+import com.calc.rest.codec.CalculationRequestSerializer;
+import com.calc.rest.codec.CalculationResponseDeserializer;
+import com.calc.rest.dto.ArrayCalculationRequest;
+import com.calc.rest.dto.ArrayCalculationResponse;
+import com.calc.rest.dto.MatrixCalculationRequest;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.BatchCalculationRequest;
+import com.calc.rest.dto.BatchCalculationResponse;
 import com.calc.rest.dto.CalculationRequest;
 import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.ExpressionRequest;
 
 @Configuration
 public class KafkaConfig {
@@ -29,17 +48,34 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Wire format of the calculation records this service sends: json (default) or binary
+    @Value("${calculator.kafka.codec:json}")
+    private String codec;
+
+    // Consumer threads for this instance's reply topic; 0 means one per available core
+    @Value("${calculator.kafka.reply-concurrency:1}")
+    private int listenerConcurrency;
+
+    // Longest operand array accepted by POST /array; sizes the array records on both sides
+    @Value("${calculator.array.max-length:1048576}")
+    private int arrayMaxLength;
+
+    // Most elements of a matrix operand or result accepted by POST /matrix; sizes the matrix records on both sides
+    @Value("${calculator.matrix.max-elements:4194304}")
+    private int matrixMaxElements;
+
+    // Most items accepted by POST /batch; sizes the batch records on both sides
+    @Value("${calculator.batch.max-items:10000}")
+    private int batchMaxItems;
+
     // Producer Configuration
     @Bean
     public ProducerFactory<String, CalculationRequest> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(producerConfigs(
+                isBinaryCodec() ? CalculationRequestSerializer.class : JsonSerializer.class));
     }
 
     @Bean
@@ -47,9 +83,144 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    // Batch Producer Configuration (a full batch may exceed the 1 MB default)
+    @Bean
+    public ProducerFactory<String, BatchCalculationRequest> batchProducerFactory() {
+        Map<String, Object> configProps = producerConfigs(JsonSerializer.class);
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, BatchRecords.maxRecordSize(batchMaxItems));
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, BatchCalculationRequest> batchKafkaTemplate() {
+        return new KafkaTemplate<>(batchProducerFactory());
+    }
+
+    // Expression Producer Configuration
+    @Bean
+    public ProducerFactory<String, ExpressionRequest> expressionProducerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerConfigs(JsonSerializer.class));
+    }
+
+    @Bean
+    public KafkaTemplate<String, ExpressionRequest> expressionKafkaTemplate() {
+        return new KafkaTemplate<>(expressionProducerFactory());
+    }
+
+    // Array Producer Configuration (binary only; two million-element operands are about 16 MB)
+    @Bean
+    public ProducerFactory<String, ArrayCalculationRequest> arrayProducerFactory() {
+        Map<String, Object> configProps = producerConfigs(ArrayRequestSerializer.class);
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, ArrayCodec.maxRecordSize(arrayMaxLength));
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, Math.max(32L << 20, 4L * ArrayCodec.maxRecordSize(arrayMaxLength)));
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, ArrayCalculationRequest> arrayKafkaTemplate() {
+        return new KafkaTemplate<>(arrayProducerFactory());
+    }
+
+    // Matrix Producer Configuration (binary only; two 2048 x 2048 operands are 64 MB, so fewer are buffered than for arrays)
+    @Bean
+    public ProducerFactory<String, MatrixCalculationRequest> matrixProducerFactory() {
+        Map<String, Object> configProps = producerConfigs(MatrixRequestSerializer.class);
+        configProps.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, MatrixCodec.maxRecordSize(matrixMaxElements));
+        configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, Math.max(32L << 20, 2L * MatrixCodec.maxRecordSize(matrixMaxElements)));
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+
+    @Bean
+    public KafkaTemplate<String, MatrixCalculationRequest> matrixKafkaTemplate() {
+        return new KafkaTemplate<>(matrixProducerFactory());
+    }
+
     // Consumer Configuration
     @Bean
     public ConsumerFactory<String, CalculationResponse> consumerFactory() {
+        // Reads both binary and JSON payloads, whatever codec the sender is configured with
+        return new DefaultKafkaConsumerFactory<>(consumerConfigs(), new StringDeserializer(),
+                new CalculationResponseDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, CalculationResponse> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, CalculationResponse> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency > 0 ? listenerConcurrency : Runtime.getRuntime().availableProcessors());
+        // Platform or virtual listener threads, depending on spring.threads.virtual.enabled
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    // Batch Consumer Configuration: one fetch holds at least one full-size reply
+    @Bean
+    public ConsumerFactory<String, BatchCalculationResponse> batchConsumerFactory() {
+        Map<String, Object> props = consumerConfigs();
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, BatchRecords.maxRecordSize(batchMaxItems));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(BatchCalculationResponse.class));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, BatchCalculationResponse> batchReplyListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, BatchCalculationResponse> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    // Array Consumer Configuration: one fetch holds at most one full-size reply
+    @Bean
+    public ConsumerFactory<String, ArrayCalculationResponse> arrayConsumerFactory() {
+        Map<String, Object> props = consumerConfigs();
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, ArrayCodec.maxRecordSize(arrayMaxLength));
+        props.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, ArrayCodec.maxRecordSize(arrayMaxLength));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ArrayResponseDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, ArrayCalculationResponse> arrayReplyListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, ArrayCalculationResponse> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(arrayConsumerFactory());
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    // Matrix Consumer Configuration: one fetch holds at most one full-size reply
+    @Bean
+    public ConsumerFactory<String, MatrixCalculationResponse> matrixConsumerFactory() {
+        Map<String, Object> props = consumerConfigs();
+        props.put(ConsumerConfig.MAX_PARTITION_FETCH_BYTES_CONFIG, MatrixCodec.maxRecordSize(matrixMaxElements));
+        props.put(ConsumerConfig.FETCH_MAX_BYTES_CONFIG, MatrixCodec.maxRecordSize(matrixMaxElements));
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new MatrixResponseDeserializer());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, MatrixCalculationResponse> matrixReplyListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, MatrixCalculationResponse> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(matrixConsumerFactory());
+        factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor());
+        return factory;
+    }
+
+    private boolean isBinaryCodec() {
+        return "binary".equalsIgnoreCase(codec);
+    }
+
+    // A Serializer class; Class<?> since JsonSerializer.class is a raw type
+    private Map<String, Object> producerConfigs(Class<?> valueSerializer) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        return configProps;
+    }
+
+    private Map<String, Object> consumerConfigs() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "rest-service-group");
@@ -57,14 +228,10 @@ public class KafkaConfig {
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
-                new JsonDeserializer<>(CalculationResponse.class));
+        return props;
     }
 
-    @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, CalculationResponse> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, CalculationResponse> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
-        return factory;
+    private AsyncTaskExecutor listenerTaskExecutor() {
+        return new SimpleAsyncTaskExecutor(Threads.factory("rest-kafka-listener-", virtualThreads));
     }
 }
\ No newline at end of file
@@ -1,26 +1,118 @@
 package com.calc.rest.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
+import com.calc.rest.codec.ArrayCodec;
+import com.calc.rest.codec.BatchRecords;
+import com.calc.rest.codec.MatrixCodec;
+import com.calc.rest.service.ReplyDestination;
+
 @Configuration
 public class KafkaTopicConfig {
 
+    // Must match the calculator service so both sides agree on the topic layout
+    @Value("${calculator.kafka.request-partitions:12}")
+    private int requestPartitions;
+
+    @Value("${calculator.kafka.reply-partitions:1}")
+    private int replyPartitions;
+
+    @Value("${calculator.array.max-length:1048576}")
+    private int arrayMaxLength;
+
+    @Value("${calculator.matrix.max-elements:4194304}")
+    private int matrixMaxElements;
+
+    @Value("${calculator.batch.max-items:10000}")
+    private int batchMaxItems;
+
     @Bean
     public NewTopic calculationRequestsTopic() {
         return TopicBuilder.name("calculation-requests")
-                .partitions(1)
+                .partitions(requestPartitions)
+                .replicas(1)
+                .build();
+    }
+
+    // Reply topic owned by this instance
+    @Bean
+    public NewTopic calculationResponsesTopic(ReplyDestination replyDestination) {
+        return TopicBuilder.name(replyDestination.getTopic())
+                .partitions(replyPartitions)
+                .replicas(1)
+                .build();
+    }
+
+    // A full batch is larger than the broker's 1 MB default
+    @Bean
+    public NewTopic calculationBatchRequestsTopic() {
+        return TopicBuilder.name("calculation-batch-requests")
+                .partitions(requestPartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(BatchRecords.maxRecordSize(batchMaxItems)))
+                .build();
+    }
+
+    // Batch reply topic owned by this instance
+    @Bean
+    public NewTopic calculationBatchResponsesTopic(ReplyDestination replyDestination) {
+        return TopicBuilder.name(replyDestination.getBatchTopic())
+                .partitions(replyPartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(BatchRecords.maxRecordSize(batchMaxItems)))
+                .build();
+    }
+
+    // Expression replies share this instance's single-calculation reply topic
+    @Bean
+    public NewTopic calculationExpressionRequestsTopic() {
+        return TopicBuilder.name("calculation-expression-requests")
+                .partitions(requestPartitions)
+                .replicas(1)
+                .build();
+    }
+
+    // Array records are far larger than the broker's 1 MB default
+    @Bean
+    public NewTopic calculationArrayRequestsTopic() {
+        return TopicBuilder.name("calculation-array-requests")
+                .partitions(requestPartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(ArrayCodec.maxRecordSize(arrayMaxLength)))
+                .build();
+    }
+
+    // Array reply topic owned by this instance
+    @Bean
+    public NewTopic calculationArrayResponsesTopic(ReplyDestination replyDestination) {
+        return TopicBuilder.name(replyDestination.getArrayTopic())
+                .partitions(replyPartitions)
+                .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(ArrayCodec.maxRecordSize(arrayMaxLength)))
+                .build();
+    }
+
+    @Bean
+    public NewTopic calculationMatrixRequestsTopic() {
+        return TopicBuilder.name("calculation-matrix-requests")
+                .partitions(requestPartitions)
                 .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(MatrixCodec.maxRecordSize(matrixMaxElements)))
                 .build();
     }
 
+    // Matrix reply topic owned by this instance
     @Bean
-    public NewTopic calculationResponsesTopic() {
-        return TopicBuilder.name("calculation-responses")
-                .partitions(1)
+    public NewTopic calculationMatrixResponsesTopic(ReplyDestination replyDestination) {
+        return TopicBuilder.name(replyDestination.getMatrixTopic())
+                .partitions(replyPartitions)
                 .replicas(1)
+                .config(TopicConfig.MAX_MESSAGE_BYTES_CONFIG, String.valueOf(MatrixCodec.maxRecordSize(matrixMaxElements)))
                 .build();
     }
 }
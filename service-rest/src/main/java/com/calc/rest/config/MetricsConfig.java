@@ -0,0 +1,95 @@
+package com.calc.rest.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.calc.rest.admission.ConcurrencyLimiter;
+import com.calc.rest.cache.ResultCache;
+import com.calc.rest.pending.PendingRequestTable;
+import com.calc.rest.service.CalculatorKafkaService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Publishes the counters the request path already keeps; nothing is counted twice
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder pendingRequestMetrics(CalculatorKafkaService kafkaService) {
+        return registry -> {
+            bindPending(registry, kafkaService.getPendingRequests(), "single");
+            bindPending(registry, kafkaService.getPendingBatches(), "batch");
+            bindPending(registry, kafkaService.getPendingArrays(), "array");
+            bindPending(registry, kafkaService.getPendingMatrices(), "matrix");
+        };
+    }
+
+    @Bean
+    public MeterBinder admissionMetrics(ConcurrencyLimiter limiter,
+            @Qualifier("bulkConcurrencyLimiter") ConcurrencyLimiter bulkLimiter) {
+        return registry -> {
+            bindAdmission(registry, limiter, "single");
+            bindAdmission(registry, bulkLimiter, "bulk");
+        };
+    }
+
+    @Bean
+    public MeterBinder resultCacheMetrics(ResultCache cache) {
+        return registry -> {
+            Gauge.builder("calculator.cache.size", cache, ResultCache::size)
+                .register(registry);
+            FunctionCounter.builder("calculator.cache.requests", cache, ResultCache::getHits)
+                .tag("result", "hit")
+                .register(registry);
+            FunctionCounter.builder("calculator.cache.requests", cache, ResultCache::getMisses)
+                .tag("result", "miss")
+                .register(registry);
+            FunctionCounter.builder("calculator.cache.evictions", cache, ResultCache::getEvictions)
+                .register(registry);
+            FunctionCounter.builder("calculator.cache.expirations", cache, ResultCache::getExpirations)
+                .register(registry);
+        };
+    }
+
+    private static void bindAdmission(MeterRegistry registry, ConcurrencyLimiter limiter, String type) {
+        Gauge.builder("calculator.admission.limit", limiter, ConcurrencyLimiter::getLimit)
+            .description("Current limit of requests in flight to the calculator")
+            .tag("type", type)
+            .register(registry);
+        Gauge.builder("calculator.admission.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+            .description("Admitted requests waiting for the calculator")
+            .tag("type", type)
+            .register(registry);
+        FunctionCounter.builder("calculator.admission.shed", limiter, ConcurrencyLimiter::getShed)
+            .description("Requests rejected because the limit was reached")
+            .tag("type", type)
+            .register(registry);
+        FunctionCounter.builder("calculator.admission.dropped", limiter, ConcurrencyLimiter::getDropped)
+            .description("Admitted requests that timed out or failed in transport")
+            .tag("type", type)
+            .register(registry);
+    }
+
+    private static void bindPending(MeterRegistry registry, PendingRequestTable<?> table, String type) {
+        Gauge.builder("calculator.pending.size", table, PendingRequestTable::size)
+            .description("Requests waiting for their Kafka reply")
+            .tag("type", type)
+            .register(registry);
+        FunctionCounter.builder("calculator.pending.timeouts", table, PendingRequestTable::getExpirations)
+            .description("Requests failed because no reply arrived in time")
+            .tag("type", type)
+            .register(registry);
+        FunctionCounter.builder("calculator.pending.orphaned.replies", table, PendingRequestTable::getLateReplies)
+            .description("Replies that matched no waiting request, e.g. after a timeout")
+            .tag("type", type)
+            .register(registry);
+        FunctionCounter.builder("calculator.pending.rejections", table, PendingRequestTable::getRejections)
+            .description("Requests rejected because the table was full")
+            .tag("type", type)
+            .register(registry);
+    }
+}
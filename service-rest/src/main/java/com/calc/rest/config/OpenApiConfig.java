@@ -15,7 +15,7 @@ public class OpenApiConfig {
             .info(new Info()
                 .title("RESTful Calculator API")
                 .description("A microservices-based calculator API that supports basic arithmetic operations " +
-                        "(addition, subtraction, multiplication, division) with arbitrary precision for two operands.")
+                        "(addition, subtraction, multiplication, division) with exact decimal arithmetic on two operands.")
                 .version("1.0.0"));    
     }
 }
\ No newline at end of file
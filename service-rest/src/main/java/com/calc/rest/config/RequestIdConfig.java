@@ -0,0 +1,27 @@
+package com.calc.rest.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.calc.rest.id.RandomRequestIdGenerator;
+import com.calc.rest.id.RequestIdGenerator;
+import com.calc.rest.id.TimeOrderedRequestIdGenerator;
+
+@Configuration
+public class RequestIdConfig {
+
+    // time-ordered (instance token + counter) or random (UUID v4)
+    @Value("${calculator.request-id.generator:time-ordered}")
+    private String generator;
+
+    @Bean
+    public RequestIdGenerator requestIdGenerator() {
+        return switch (generator) {
+            case "time-ordered" -> new TimeOrderedRequestIdGenerator();
+            case "random" -> new RandomRequestIdGenerator();
+            default -> throw new IllegalStateException(
+                "calculator.request-id.generator must be 'time-ordered' or 'random', was: " + generator);
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.calc.rest.dto;
+
+// Element-wise operation over two equally long arrays: body of POST /array, sent to the calculator in the binary array layout
+public class ArrayCalculationRequest {
+    // add, sub, mul or div
+    private String op;
+    private double[] op1;
+    private double[] op2;
+
+    // Default constructor
+    public ArrayCalculationRequest() {}
+
+    // Constructor
+    public ArrayCalculationRequest(String op, double[] op1, double[] op2) {
+        this.op = op;
+        this.op1 = op1;
+        this.op2 = op2;
+    }
+
+    // Getters and Setters
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public double[] getOp1() { return op1; }
+    public void setOp1(double[] op1) { this.op1 = op1; }
+
+    public double[] getOp2() { return op2; }
+    public void setOp2(double[] op2) { this.op2 = op2; }
+}
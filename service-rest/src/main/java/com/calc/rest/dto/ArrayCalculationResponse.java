@@ -0,0 +1,54 @@
+package com.calc.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class ArrayCalculationResponse implements CalculationReply {
+    private String requestId;
+    // One result per element, in operand order
+    private double[] results;
+    // Ascending indices of the elements divided by zero; their results are NaN
+    private int[] divisionByZero;
+    private boolean success;
+    // One of ErrorCodes or RestErrorCodes when the call as a whole failed
+    private int errorCode;
+    // Filled in by this service for traced requests; never sent over Kafka
+    @JsonIgnore
+    private LatencyBreakdown latencyBreakdown;
+
+    // Default constructor
+    public ArrayCalculationResponse() {}
+
+    // Success constructor
+    public ArrayCalculationResponse(String requestId, double[] results, int[] divisionByZero) {
+        this.requestId = requestId;
+        this.results = results;
+        this.divisionByZero = divisionByZero;
+        this.success = true;
+    }
+
+    // Error constructor (the call as a whole failed, e.g. mismatched lengths or timeout)
+    public ArrayCalculationResponse(String requestId, int errorCode) {
+        this.requestId = requestId;
+        this.errorCode = errorCode;
+        this.success = false;
+    }
+
+    // Getters and Setters
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public double[] getResults() { return results; }
+    public void setResults(double[] results) { this.results = results; }
+
+    public int[] getDivisionByZero() { return divisionByZero; }
+    public void setDivisionByZero(int[] divisionByZero) { this.divisionByZero = divisionByZero; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public int getErrorCode() { return errorCode; }
+    public void setErrorCode(int errorCode) { this.errorCode = errorCode; }
+
+    public LatencyBreakdown getLatencyBreakdown() { return latencyBreakdown; }
+    public void setLatencyBreakdown(LatencyBreakdown latencyBreakdown) { this.latencyBreakdown = latencyBreakdown; }
+}
@@ -0,0 +1,24 @@
+package com.calc.rest.dto;
+
+import java.util.List;
+
+public class BatchCalculationRequest {
+    private String requestId;
+    private List<BatchItem> items;
+
+    // Default constructor
+    public BatchCalculationRequest() {}
+
+    // Constructor
+    public BatchCalculationRequest(String requestId, List<BatchItem> items) {
+        this.requestId = requestId;
+        this.items = items;
+    }
+
+    // Getters and Setters
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public List<BatchItem> getItems() { return items; }
+    public void setItems(List<BatchItem> items) { this.items = items; }
+}
@@ -0,0 +1,27 @@
+package com.calc.rest.dto;
+
+public class BatchItem {
+    private String op;
+    private Double op1;
+    private Double op2;
+
+    // Default constructor
+    public BatchItem() {}
+
+    // Constructor
+    public BatchItem(String op, Double op1, Double op2) {
+        this.op = op;
+        this.op1 = op1;
+        this.op2 = op2;
+    }
+
+    // Getters and Setters
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public Double getOp1() { return op1; }
+    public void setOp1(Double op1) { this.op1 = op1; }
+
+    public Double getOp2() { return op2; }
+    public void setOp2(Double op2) { this.op2 = op2; }
+}
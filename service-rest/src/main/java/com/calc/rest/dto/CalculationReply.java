@@ -0,0 +1,14 @@
+package com.calc.rest.dto;
+
+// What the Kafka reply path needs from single and batch replies alike
+public interface CalculationReply {
+
+    void setRequestId(String requestId);
+
+    int getErrorCode();
+
+    // Only set on replies to traced requests
+    LatencyBreakdown getLatencyBreakdown();
+
+    void setLatencyBreakdown(LatencyBreakdown latencyBreakdown);
+}
@@ -1,10 +1,19 @@
 package com.calc.rest.dto;
 
+import java.math.BigDecimal;
+
+import com.calc.calculator.operation.BuiltinOperation;
+
 public class CalculationRequest {
     private String requestId;
     private Double operand1;
     private Double operand2;
     private String operation;
+    // Compact identifier of the operation; 0 when only the name is known
+    private byte opcode;
+    // Exact decimal text of the operands; set together with the doubles, which stay for older calculators
+    private String decimalOperand1;
+    private String decimalOperand2;
 
     // Default constructor
     public CalculationRequest() {}
@@ -15,6 +24,15 @@ public class CalculationRequest {
         this.operand1 = operand1;
         this.operand2 = operand2;
         this.operation = operation;
+        this.opcode = BuiltinOperation.opcodeOf(operation);
+    }
+
+    // Decimal request: exact text for calculators that support it, nearest doubles for those that don't
+    public static CalculationRequest ofDecimals(String requestId, BigDecimal operand1, BigDecimal operand2, String operation) {
+        CalculationRequest request = new CalculationRequest(requestId, operand1.doubleValue(), operand2.doubleValue(), operation);
+        request.setDecimalOperand1(operand1.toString());
+        request.setDecimalOperand2(operand2.toString());
+        return request;
     }
 
     // Getters and Setters
@@ -29,4 +47,13 @@ public class CalculationRequest {
 
     public String getOperation() { return operation; }
     public void setOperation(String operation) { this.operation = operation; }
+
+    public byte getOpcode() { return opcode; }
+    public void setOpcode(byte opcode) { this.opcode = opcode; }
+
+    public String getDecimalOperand1() { return decimalOperand1; }
+    public void setDecimalOperand1(String decimalOperand1) { this.decimalOperand1 = decimalOperand1; }
+
+    public String getDecimalOperand2() { return decimalOperand2; }
+    public void setDecimalOperand2(String decimalOperand2) { this.decimalOperand2 = decimalOperand2; }
 }
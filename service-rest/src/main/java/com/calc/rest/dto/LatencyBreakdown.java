@@ -0,0 +1,28 @@
+package com.calc.rest.dto;
+
+import java.util.Locale;
+
+/**
+ * Where the time of one traced Kafka round trip went, in nanoseconds.
+ *
+ * total, calculator and compute come from monotonic clocks and are exact. The split of
+ * the remaining transit time into its request and reply legs compares wall clocks of
+ * different hosts and is only as good as their synchronization; the two legs always add
+ * up to total minus calculator.
+ */
+public record LatencyBreakdown(long totalNanos, long requestTransitNanos, long calculatorNanos,
+                               long computeNanos, long replyTransitNanos) {
+
+    // Server-Timing header value, durations in milliseconds
+    public String toServerTiming() {
+        return "request;dur=" + millis(requestTransitNanos)
+            + ", calculator;dur=" + millis(calculatorNanos)
+            + ", compute;dur=" + millis(computeNanos)
+            + ", reply;dur=" + millis(replyTransitNanos)
+            + ", total;dur=" + millis(totalNanos);
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,29 @@
+package com.calc.rest.dto;
+
+// Operation on two matrices: body of POST /matrix (JSON or binary), sent to the calculator in the binary matrix layout
+public class MatrixCalculationRequest {
+    // add, mul or tmul
+    private String op;
+    private MatrixData op1;
+    private MatrixData op2;
+
+    // Default constructor
+    public MatrixCalculationRequest() {}
+
+    // Constructor
+    public MatrixCalculationRequest(String op, MatrixData op1, MatrixData op2) {
+        this.op = op;
+        this.op1 = op1;
+        this.op2 = op2;
+    }
+
+    // Getters and Setters
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public MatrixData getOp1() { return op1; }
+    public void setOp1(MatrixData op1) { this.op1 = op1; }
+
+    public MatrixData getOp2() { return op2; }
+    public void setOp2(MatrixData op2) { this.op2 = op2; }
+}
@@ -0,0 +1,47 @@
+package com.calc.rest.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class MatrixCalculationResponse implements CalculationReply {
+    private String requestId;
+    private MatrixData result;
+    private boolean success;
+    // One of ErrorCodes or RestErrorCodes when the operation failed
+    private int errorCode;
+    // Filled in by this service for traced requests; never sent over Kafka
+    @JsonIgnore
+    private LatencyBreakdown latencyBreakdown;
+
+    // Default constructor
+    public MatrixCalculationResponse() {}
+
+    // Success constructor
+    public MatrixCalculationResponse(String requestId, MatrixData result) {
+        this.requestId = requestId;
+        this.result = result;
+        this.success = true;
+    }
+
+    // Error constructor (e.g. mismatched shapes or timeout)
+    public MatrixCalculationResponse(String requestId, int errorCode) {
+        this.requestId = requestId;
+        this.errorCode = errorCode;
+        this.success = false;
+    }
+
+    // Getters and Setters
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public MatrixData getResult() { return result; }
+    public void setResult(MatrixData result) { this.result = result; }
+
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+
+    public int getErrorCode() { return errorCode; }
+    public void setErrorCode(int errorCode) { this.errorCode = errorCode; }
+
+    public LatencyBreakdown getLatencyBreakdown() { return latencyBreakdown; }
+    public void setLatencyBreakdown(LatencyBreakdown latencyBreakdown) { this.latencyBreakdown = latencyBreakdown; }
+}
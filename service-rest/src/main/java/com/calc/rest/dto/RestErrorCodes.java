@@ -0,0 +1,12 @@
+package com.calc.rest.dto;
+
+// Error codes raised inside service-rest, never sent over Kafka; they extend the engine's
+// com.calc.calculator.ErrorCodes, which leaves 100 and up to this service
+public final class RestErrorCodes {
+
+    public static final int TIMEOUT = 100;
+    public static final int TRANSPORT_ERROR = 101;
+    public static final int OVERLOADED = 102;
+
+    private RestErrorCodes() {}
+}
@@ -0,0 +1,13 @@
+package com.calc.rest.id;
+
+import java.util.UUID;
+
+// Random (version 4) UUIDs, as before; draws from the shared SecureRandom on every call
+public class RandomRequestIdGenerator implements RequestIdGenerator {
+
+    @Override
+    public RequestId next() {
+        UUID uuid = UUID.randomUUID();
+        return new RequestId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,31 @@
+package com.calc.rest.id;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * 128-bit request id. It travels in Kafka headers as 16 raw bytes and is only rendered
+ * as text, in UUID layout, for the request-ID response header.
+ */
+public record RequestId(long high, long low) {
+
+    public static final int BYTES = 16;
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(BYTES).putLong(high).putLong(low).array();
+    }
+
+    // Returns null for anything that is not a 16-byte id
+    public static RequestId fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new RequestId(buffer.getLong(), buffer.getLong());
+    }
+
+    @Override
+    public String toString() {
+        return new UUID(high, low).toString();
+    }
+}
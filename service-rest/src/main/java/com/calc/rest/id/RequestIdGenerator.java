@@ -0,0 +1,10 @@
+package com.calc.rest.id;
+
+/**
+ * Source of request ids. Ids must be unique across every REST instance and restart,
+ * because replies are matched to requests by id alone.
+ */
+public interface RequestIdGenerator {
+
+    RequestId next();
+}
@@ -0,0 +1,134 @@
+package com.calc.rest.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.LatencyBreakdown;
+import com.calc.rest.dto.RestErrorCodes;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers of the Kafka round trip, tagged by operation.
+ *
+ * All meters are registered up front and looked up by operation name, so recording
+ * allocates nothing. Operations other than the REST endpoints share the tag "other".
+ * HTTP handling is timed by Spring's own http.server.requests.
+ */
+@Component
+public class CalculationMetrics {
+
+    public static final String BATCH = "batch";
+    public static final String EVAL = "eval";
+    public static final String ARRAY = "array";
+    public static final String MATRIX = "matrix";
+    private static final String OTHER = "other";
+    private static final String[] OPERATIONS = { "add", "sub", "mul", "div", BATCH, EVAL, ARRAY, MATRIX, OTHER };
+    // Indexed by outcomeOf
+    private static final String[] OUTCOMES = { "success", "error", "timeout", "transport_error" };
+    // Legs of a traced round trip, in LatencyBreakdown order
+    private static final String[] HOPS = { "request_transit", "calculator", "compute", "reply_transit" };
+
+    private final Map<String, Stage> stages = new HashMap<>();
+    private final Timer singleReplyLatency;
+    private final Timer batchReplyLatency;
+    private final Timer[] singleHops;
+    private final Timer[] batchHops;
+
+    public CalculationMetrics(MeterRegistry registry) {
+        for (String operation : OPERATIONS) {
+            stages.put(operation, new Stage(registry, operation));
+        }
+        singleReplyLatency = replyLatency(registry, "single");
+        batchReplyLatency = replyLatency(registry, BATCH);
+        singleHops = hops(registry, "single");
+        batchHops = hops(registry, BATCH);
+    }
+
+    // From handing the record to the producer until the broker acknowledged it
+    public void recordSend(String operation, long nanos) {
+        stageOf(operation).send.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Time spent in the pending table, from sending until the reply, timeout or failure
+    public void recordRoundTrip(String operation, int errorCode, long nanos) {
+        stageOf(operation).roundTrip[outcomeOf(errorCode)].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // From the calculator producing the reply until it was consumed here; relies on synchronized clocks
+    public void recordReplyLatency(boolean batch, long replyTimestampMs) {
+        if (replyTimestampMs <= 0) {
+            return;
+        }
+        long latencyMs = System.currentTimeMillis() - replyTimestampMs;
+        if (latencyMs >= 0) {
+            (batch ? batchReplyLatency : singleReplyLatency).record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Sampled requests only
+    public void recordLatencyBreakdown(boolean batch, LatencyBreakdown breakdown) {
+        Timer[] timers = batch ? batchHops : singleHops;
+        timers[0].record(breakdown.requestTransitNanos(), TimeUnit.NANOSECONDS);
+        timers[1].record(breakdown.calculatorNanos(), TimeUnit.NANOSECONDS);
+        timers[2].record(breakdown.computeNanos(), TimeUnit.NANOSECONDS);
+        timers[3].record(breakdown.replyTransitNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private Stage stageOf(String operation) {
+        Stage stage = operation != null ? stages.get(operation) : null;
+        return stage != null ? stage : stages.get(OTHER);
+    }
+
+    private static int outcomeOf(int errorCode) {
+        return switch (errorCode) {
+            case ErrorCodes.NONE -> 0;
+            case RestErrorCodes.TIMEOUT -> 2;
+            case RestErrorCodes.TRANSPORT_ERROR -> 3;
+            default -> 1;
+        };
+    }
+
+    private static Timer replyLatency(MeterRegistry registry, String type) {
+        return Timer.builder("calculator.reply.latency")
+            .description("Time from the calculator producing a reply until it is consumed")
+            .tag("type", type)
+            .register(registry);
+    }
+
+    private static Timer[] hops(MeterRegistry registry, String type) {
+        Timer[] timers = new Timer[HOPS.length];
+        for (int i = 0; i < HOPS.length; i++) {
+            timers[i] = Timer.builder("calculator.hop")
+                .description("Time spent in one leg of a traced round trip")
+                .tag("hop", HOPS[i])
+                .tag("type", type)
+                .register(registry);
+        }
+        return timers;
+    }
+
+    private static final class Stage {
+        final Timer send;
+        final Timer[] roundTrip = new Timer[OUTCOMES.length];
+
+        Stage(MeterRegistry registry, String operation) {
+            send = Timer.builder("calculator.kafka.send")
+                .description("Time until the broker acknowledged a calculation request")
+                .tag("operation", operation)
+                .register(registry);
+            for (int i = 0; i < OUTCOMES.length; i++) {
+                roundTrip[i] = Timer.builder("calculator.round.trip")
+                    .description("Time a request waited for its reply, timeout or failure")
+                    .tag("operation", operation)
+                    .tag("outcome", OUTCOMES[i])
+                    .register(registry);
+            }
+        }
+    }
+}
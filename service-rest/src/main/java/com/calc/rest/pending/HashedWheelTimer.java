@@ -0,0 +1,171 @@
+package com.calc.rest.pending;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hashed timer wheel for request timeouts.
+ *
+ * One worker thread advances the wheel every tick and expires the tasks in the current
+ * bucket, so the cost of a timeout is independent of the number of threads. Scheduling and
+ * cancelling only enqueue the task; the worker owns the buckets, which are intrusive
+ * doubly-linked lists so a cancelled task is unlinked in O(1) instead of waiting for its
+ * deadline. Expiry precision is one tick.
+ */
+public final class HashedWheelTimer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    /** A timed entry; subclasses carry their own payload to avoid a wrapper per schedule. */
+    public abstract static class Task {
+        private long deadlineNanos;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        // Bucket links, touched only by the worker thread
+        private Task prev;
+        private Task next;
+        private Bucket bucket;
+
+        // Runs on the timer thread; must be short and must not block
+        protected abstract void expire();
+    }
+
+    private static final class Bucket {
+        private Task head;
+        private Task tail;
+
+        void add(Task task) {
+            task.bucket = this;
+            if (tail == null) {
+                head = tail = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+                tail = task;
+            }
+        }
+
+        void remove(Task task) {
+            if (task.prev != null) task.prev.next = task.next; else head = task.next;
+            if (task.next != null) task.next.prev = task.prev; else tail = task.prev;
+            task.prev = task.next = null;
+            task.bucket = null;
+        }
+    }
+
+    private final String threadName;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos = System.nanoTime();
+
+    private final ConcurrentLinkedQueue<Task> scheduled = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Task> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean stopped;
+    private volatile Thread worker;
+
+    public HashedWheelTimer(String threadName, long tickMs, int wheelSize) {
+        if (tickMs <= 0 || wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize a power of two");
+        }
+        this.threadName = threadName;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.wheel = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheelSize - 1;
+    }
+
+    public void schedule(Task task, long delayMs) {
+        task.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        scheduled.add(task);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            Thread thread = Thread.ofPlatform().name(threadName).daemon(true).unstarted(this::run);
+            worker = thread;
+            thread.start();
+        }
+    }
+
+    // Safe to call from any thread, any number of times
+    public void cancel(Task task) {
+        if (!task.cancelled) {
+            task.cancelled = true;
+            cancelled.add(task);
+        }
+    }
+
+    @Override
+    public void close() {
+        stopped = true;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void run() {
+        long tick = (System.nanoTime() - startNanos) / tickNanos;
+        while (!stopped) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = deadline - System.nanoTime()) > 0 && !stopped) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            processCancelled();
+            transferScheduled(tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void processCancelled() {
+        Task task;
+        while ((task = cancelled.poll()) != null) {
+            // Still in the scheduled queue when bucket is null; transferScheduled skips it
+            if (task.bucket != null) {
+                task.bucket.remove(task);
+            }
+        }
+    }
+
+    private void transferScheduled(long currentTick) {
+        Task task;
+        while ((task = scheduled.poll()) != null) {
+            if (task.cancelled) {
+                continue;
+            }
+            long expiryTick = Math.max((task.deadlineNanos - startNanos + tickNanos - 1) / tickNanos, currentTick);
+            task.remainingRounds = (expiryTick - currentTick) / wheel.length;
+            wheel[(int) (expiryTick & mask)].add(task);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Task task = bucket.head;
+        while (task != null) {
+            Task next = task.next;
+            if (task.remainingRounds <= 0) {
+                bucket.remove(task);
+                if (!task.cancelled) {
+                    try {
+                        task.expire();
+                    } catch (RuntimeException e) {
+                        // Keep the wheel turning; the other expirations of this tick still run
+                        log.warn("Timer task failed", e);
+                    }
+                }
+            } else {
+                task.remainingRounds--;
+            }
+            task = next;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.calc.rest.pending;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Correlation table of requests waiting for their Kafka reply, keyed by a 128-bit id.
+ *
+ * The table is split into stripes, each an open-addressing hash table over primitive
+ * long pairs guarded by its own lock, so lookups allocate nothing and contention grows
+ * with the number of stripes, not threads. Timeouts are driven by a shared
+ * {@link HashedWheelTimer}. Whoever removes an entry first, reply or timer, completes it.
+ *
+ * Memory stays bounded: at most {@code maxInFlight} entries are registered, and replies
+ * that match no entry (late or duplicate) are counted and dropped without allocating.
+ */
+public final class PendingRequestTable<R> {
+
+    private static final int STRIPES = 64;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+
+    private final HashedWheelTimer timer;
+    private final Stripe<R>[] stripes;
+    private volatile int maxPerStripe;
+
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder lateReplies = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public PendingRequestTable(HashedWheelTimer timer, int maxInFlight) {
+        this.timer = timer;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        setMaxInFlight(maxInFlight);
+    }
+
+    // Split evenly over the stripes, so the check needs no shared counter
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxPerStripe = Math.max(1, (maxInFlight + STRIPES - 1) / STRIPES);
+    }
+
+    /**
+     * Registers a request. Returns false, without registering, when the table is full.
+     * If no reply arrives within {@code timeoutMs} the future is completed with
+     * {@code timeoutResponse} on the timer thread.
+     */
+    public boolean register(long idHigh, long idLow, CompletableFuture<R> future, long timeoutMs, Supplier<R> timeoutResponse) {
+        Entry<R> entry = new Entry<>(this, idHigh, idLow, future, timeoutResponse);
+        if (!stripeFor(idHigh, idLow).put(entry, maxPerStripe)) {
+            rejections.increment();
+            return false;
+        }
+        timer.schedule(entry, timeoutMs);
+        return true;
+    }
+
+    // Claims the entry for a reply; null (and counted) when it already expired or never existed
+    public CompletableFuture<R> remove(long idHigh, long idLow) {
+        Entry<R> entry = stripeFor(idHigh, idLow).remove(idHigh, idLow);
+        if (entry == null) {
+            lateReplies.increment();
+            return null;
+        }
+        timer.cancel(entry);
+        return entry.future;
+    }
+
+    // Drops a request that could not be sent; true when the caller still owned it
+    public boolean cancel(long idHigh, long idLow) {
+        Entry<R> entry = stripeFor(idHigh, idLow).remove(idHigh, idLow);
+        if (entry == null) {
+            return false;
+        }
+        timer.cancel(entry);
+        return true;
+    }
+
+    // Counts a reply whose id is not one of ours at all
+    public void recordUnmatchedReply() {
+        lateReplies.increment();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<R> stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    public long getExpirations() { return expirations.sum(); }
+
+    public long getLateReplies() { return lateReplies.sum(); }
+
+    public long getRejections() { return rejections.sum(); }
+
+    private void expire(Entry<R> entry) {
+        if (stripeFor(entry.idHigh, entry.idLow).remove(entry)) {
+            expirations.increment();
+            entry.future.complete(entry.timeoutResponse.get());
+        }
+    }
+
+    private Stripe<R> stripeFor(long idHigh, long idLow) {
+        return stripes[(int) (hash(idHigh, idLow) >>> 58)];
+    }
+
+    // 64-bit finalizer from MurmurHash3: ids that differ only in a counter still spread well
+    static long hash(long idHigh, long idLow) {
+        long h = idHigh * 0x9E3779B97F4A7C15L ^ idLow;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Entry<R> extends HashedWheelTimer.Task {
+        final PendingRequestTable<R> table;
+        final long idHigh;
+        final long idLow;
+        final CompletableFuture<R> future;
+        final Supplier<R> timeoutResponse;
+
+        Entry(PendingRequestTable<R> table, long idHigh, long idLow, CompletableFuture<R> future, Supplier<R> timeoutResponse) {
+            this.table = table;
+            this.idHigh = idHigh;
+            this.idLow = idLow;
+            this.future = future;
+            this.timeoutResponse = timeoutResponse;
+        }
+
+        @Override
+        protected void expire() {
+            table.expire(this);
+        }
+    }
+
+    // Linear probing with backward-shift deletion, so there are no tombstones to clean up
+    private static final class Stripe<R> {
+        private long[] highs = new long[INITIAL_STRIPE_CAPACITY];
+        private long[] lows = new long[INITIAL_STRIPE_CAPACITY];
+        private Entry<R>[] entries = newEntries(INITIAL_STRIPE_CAPACITY);
+        private int size;
+
+        synchronized boolean put(Entry<R> entry, int maxSize) {
+            if (size >= maxSize) {
+                return false;
+            }
+            if ((size + 1) * 2 > entries.length) {
+                resize(entries.length * 2);
+            }
+            int mask = entries.length - 1;
+            int slot = (int) hash(entry.idHigh, entry.idLow) & mask;
+            while (entries[slot] != null) {
+                if (highs[slot] == entry.idHigh && lows[slot] == entry.idLow) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            insert(slot, entry);
+            size++;
+            return true;
+        }
+
+        synchronized Entry<R> remove(long idHigh, long idLow) {
+            int slot = find(idHigh, idLow);
+            if (slot < 0) {
+                return null;
+            }
+            Entry<R> entry = entries[slot];
+            delete(slot);
+            return entry;
+        }
+
+        // Removes exactly this entry, not a later one that reused the id
+        synchronized boolean remove(Entry<R> entry) {
+            int slot = find(entry.idHigh, entry.idLow);
+            if (slot < 0 || entries[slot] != entry) {
+                return false;
+            }
+            delete(slot);
+            return true;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private int find(long idHigh, long idLow) {
+            int mask = entries.length - 1;
+            int slot = (int) hash(idHigh, idLow) & mask;
+            while (entries[slot] != null) {
+                if (highs[slot] == idHigh && lows[slot] == idLow) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void delete(int slot) {
+            int mask = entries.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            // Shift back every following entry whose home slot is at or before the hole
+            while (entries[next] != null) {
+                int home = (int) hash(highs[next], lows[next]) & mask;
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    highs[hole] = highs[next];
+                    lows[hole] = lows[next];
+                    entries[hole] = entries[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            entries[hole] = null;
+            size--;
+        }
+
+        private void insert(int slot, Entry<R> entry) {
+            highs[slot] = entry.idHigh;
+            lows[slot] = entry.idLow;
+            entries[slot] = entry;
+        }
+
+        private void resize(int capacity) {
+            Entry<R>[] old = entries;
+            highs = new long[capacity];
+            lows = new long[capacity];
+            entries = newEntries(capacity);
+            int mask = capacity - 1;
+            for (Entry<R> entry : old) {
+                if (entry != null) {
+                    int slot = (int) hash(entry.idHigh, entry.idLow) & mask;
+                    while (entries[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    insert(slot, entry);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <R> Entry<R>[] newEntries(int capacity) {
+            return (Entry<R>[]) new Entry[capacity];
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.calc.rest.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.calc.rest.dto.ArrayCalculationResponse;
+import com.calc.rest.dto.BatchCalculationResponse;
+import com.calc.rest.dto.BatchItem;
+import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.MatrixData;
+
+import jakarta.annotation.PostConstruct;
+
+// Chooses, per endpoint, between the in-process engine and the calculator service behind Kafka
+@Service
+public class CalculationRouter {
+
+    static final String LOCAL = "local";
+    static final String KAFKA = "kafka";
+    static final String BATCH_ENDPOINT = "batch";
+    static final String EVAL_ENDPOINT = "eval";
+    static final String ARRAY_ENDPOINT = "array";
+    static final String MATRIX_ENDPOINT = "matrix";
+    static final String DECIMAL = "decimal";
+    static final String DOUBLE = "double";
+
+    @Autowired
+    private CalculatorKafkaService kafkaService;
+
+    @Autowired
+    private LocalCalculationService localService;
+
+    // Route for endpoints not listed below: "kafka" or "local"
+    @Value("${calculator.routing.default:kafka}")
+    private String defaultRoute = KAFKA;
+
+    // Endpoints (add, sub, mul, div, batch, eval, array, matrix) that override the default route
+    @Value("${calculator.routing.local:}")
+    private Set<String> localEndpoints = Set.of();
+
+    @Value("${calculator.routing.kafka:}")
+    private Set<String> kafkaEndpoints = Set.of();
+
+    // Arithmetic of the single-operation endpoints: "decimal" (exact operands and results) or "double"
+    @Value("${calculator.arithmetic:decimal}")
+    private String arithmetic = DECIMAL;
+
+    @PostConstruct
+    void validateRoutes() {
+        if (!DECIMAL.equals(arithmetic) && !DOUBLE.equals(arithmetic)) {
+            throw new IllegalStateException("calculator.arithmetic must be 'decimal' or 'double', was: " + arithmetic);
+        }
+        if (!LOCAL.equals(defaultRoute) && !KAFKA.equals(defaultRoute)) {
+            throw new IllegalStateException("calculator.routing.default must be 'local' or 'kafka', was: " + defaultRoute);
+        }
+        for (String endpoint : localEndpoints) {
+            if (kafkaEndpoints.contains(endpoint)) {
+                throw new IllegalStateException("Endpoint routed both locally and through Kafka: " + endpoint);
+            }
+        }
+    }
+
+    // With double arithmetic the single-operation endpoints also accept NaN and Infinity
+    public boolean isDoubleArithmetic() {
+        return DOUBLE.equals(arithmetic);
+    }
+
+    public CompletableFuture<CalculationResponse> performCalculationAsync(Double operand1, Double operand2, String operation) {
+        if (isLocal(operation)) {
+            return CompletableFuture.completedFuture(localService.calculate(operand1, operand2, operation));
+        }
+        return kafkaService.performCalculationAsync(operand1, operand2, operation);
+    }
+
+    public CompletableFuture<CalculationResponse> performCalculationAsync(BigDecimal operand1, BigDecimal operand2, String operation) {
+        if (DOUBLE.equals(arithmetic)) {
+            return performCalculationAsync(operand1.doubleValue(), operand2.doubleValue(), operation);
+        }
+        if (isLocal(operation)) {
+            return CompletableFuture.completedFuture(localService.calculate(operand1, operand2, operation));
+        }
+        return kafkaService.performCalculationAsync(operand1, operand2, operation);
+    }
+
+    public CompletableFuture<BatchCalculationResponse> performBatchAsync(List<BatchItem> items) {
+        if (isLocal(BATCH_ENDPOINT)) {
+            return CompletableFuture.completedFuture(localService.calculateBatch(items));
+        }
+        return kafkaService.performBatchAsync(items);
+    }
+
+    public CompletableFuture<CalculationResponse> performEvaluationAsync(String expression, Map<String, Double> variables) {
+        if (isLocal(EVAL_ENDPOINT)) {
+            return CompletableFuture.completedFuture(localService.evaluate(expression, variables));
+        }
+        return kafkaService.performEvaluationAsync(expression, variables);
+    }
+
+    public CompletableFuture<ArrayCalculationResponse> performArrayAsync(String operation, double[] operand1, double[] operand2) {
+        if (isLocal(ARRAY_ENDPOINT)) {
+            return CompletableFuture.completedFuture(localService.calculateArray(operation, operand1, operand2));
+        }
+        return kafkaService.performArrayAsync(operation, operand1, operand2);
+    }
+
+    // Local products run on the common fork-join pool of this JVM
+    public CompletableFuture<MatrixCalculationResponse> performMatrixAsync(String operation, MatrixData operand1, MatrixData operand2) {
+        if (isLocal(MATRIX_ENDPOINT)) {
+            return CompletableFuture.completedFuture(localService.calculateMatrix(operation, operand1, operand2));
+        }
+        return kafkaService.performMatrixAsync(operation, operand1, operand2);
+    }
+
+    boolean isLocal(String endpoint) {
+        if (localEndpoints.contains(endpoint)) {
+            return true;
+        }
+        if (kafkaEndpoints.contains(endpoint)) {
+            return false;
+        }
+        return LOCAL.equals(defaultRoute);
+    }
+}
@@ -1,64 +1,447 @@
 package com.calc.rest.service;
 
 
-import java.util.UUID;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntFunction;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.calculator.operation.Operation;
+import com.calc.rest.admission.ConcurrencyLimiter;
+import com.calc.rest.cache.CalculationKey;
+import com.calc.rest.cache.ResultCache;
+import com.calc.rest.codec.HopTimestamps;
+import com.calc.rest.dto.ArrayCalculationRequest;
+import com.calc.rest.dto.ArrayCalculationResponse;
+import com.calc.rest.dto.BatchCalculationRequest;
+import com.calc.rest.dto.BatchCalculationResponse;
+import com.calc.rest.dto.BatchItem;
+import com.calc.rest.dto.CalculationReply;
 import com.calc.rest.dto.CalculationRequest;
 import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.ExpressionRequest;
+import com.calc.rest.dto.LatencyBreakdown;
+import com.calc.rest.dto.MatrixCalculationRequest;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.MatrixData;
+import com.calc.rest.dto.RestErrorCodes;
+import com.calc.rest.id.RequestId;
+import com.calc.rest.id.RequestIdGenerator;
+import com.calc.rest.metrics.CalculationMetrics;
+import com.calc.rest.pending.HashedWheelTimer;
+import com.calc.rest.pending.PendingRequestTable;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class CalculatorKafkaService {
 
+    private static final Logger log = LoggerFactory.getLogger(CalculatorKafkaService.class);
+
     @Autowired
     private KafkaTemplate<String, CalculationRequest> kafkaTemplate;
 
-    // Store pending requests waiting for responses
-    private final ConcurrentHashMap<String, CompletableFuture<CalculationResponse>> pendingRequests = new ConcurrentHashMap<>();
+    @Autowired
+    private KafkaTemplate<String, BatchCalculationRequest> batchKafkaTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, ExpressionRequest> expressionKafkaTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, ArrayCalculationRequest> arrayKafkaTemplate;
+
+    @Autowired
+    private KafkaTemplate<String, MatrixCalculationRequest> matrixKafkaTemplate;
+
+    @Autowired
+    private ReplyDestination replyDestination;
+
+    @Autowired
+    private ResultCache resultCache;
+
+    @Autowired
+    private RequestIdGenerator requestIdGenerator;
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    // Batch, array and matrix requests: fixed limit, kept out of the adaptive round-trip estimate
+    @Autowired
+    @Qualifier("bulkConcurrencyLimiter")
+    private ConcurrencyLimiter bulkConcurrencyLimiter;
+
+    @Autowired
+    private CalculationMetrics metrics;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Runs reply-completion work: inline on the listener thread, or on a fresh virtual thread
+    private Executor replyCompletionExecutor = Runnable::run;
+
+    // Share one Kafka round trip among identical concurrent requests
+    @Value("${calculator.coalescing.enabled:true}")
+    private boolean coalesceRequests = true;
+
+    // Leader futures of calculations currently in flight, by calculation identity
+    private final ConcurrentHashMap<CalculationKey, CompletableFuture<CalculationResponse>> inFlightCalculations = new ConcurrentHashMap<>();
+
+    // Upper bound of requests waiting for a reply; further requests fail fast with OVERLOADED
+    @Value("${calculator.pending.max-in-flight:100000}")
+    private int maxInFlight = 100000;
+
+    // One timer thread expires all pending requests: 10 ms ticks, 512 buckets per round
+    private final HashedWheelTimer timeoutTimer = new HashedWheelTimer("rest-request-timeout", 10, 512);
+
+    // Store pending requests waiting for responses, keyed by the two halves of their 128-bit id
+    private final PendingRequestTable<CalculationResponse> pendingRequests = new PendingRequestTable<>(timeoutTimer, maxInFlight);
+    private final PendingRequestTable<BatchCalculationResponse> pendingBatches = new PendingRequestTable<>(timeoutTimer, maxInFlight);
+    private final PendingRequestTable<ArrayCalculationResponse> pendingArrays = new PendingRequestTable<>(timeoutTimer, maxInFlight);
+    private final PendingRequestTable<MatrixCalculationResponse> pendingMatrices = new PendingRequestTable<>(timeoutTimer, maxInFlight);
 
     private static final String REQUEST_TOPIC = "calculation-requests";
-    private static final String RESPONSE_TOPIC = "calculation-responses";
+    private static final String BATCH_REQUEST_TOPIC = "calculation-batch-requests";
+    private static final String EXPRESSION_REQUEST_TOPIC = "calculation-expression-requests";
+    private static final String ARRAY_REQUEST_TOPIC = "calculation-array-requests";
+    private static final String MATRIX_REQUEST_TOPIC = "calculation-matrix-requests";
+
+    // How long a request may wait for its reply before it is failed
+    @Value("${calculator.request.timeout-ms:5000}")
+    private long requestTimeoutMs = 5000;
 
+    // Matrix products of a few thousand per side take seconds, so they get a timeout of their own
+    @Value("${calculator.matrix.timeout-ms:30000}")
+    private long matrixTimeoutMs = 30000;
+
+    // Fraction of requests that carry hop timestamps; 0 adds no header and no clock reads
+    @Value("${calculator.tracing.sample-rate:0.0}")
+    private double traceSampleRate = 0.0;
+
+    @PostConstruct
+    void initReplyCompletionExecutor() {
+        if (virtualThreads) {
+            replyCompletionExecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("rest-reply-", 0).factory());
+        }
+        pendingRequests.setMaxInFlight(maxInFlight);
+        pendingBatches.setMaxInFlight(maxInFlight);
+        pendingArrays.setMaxInFlight(maxInFlight);
+        pendingMatrices.setMaxInFlight(maxInFlight);
+    }
+
+    @PreDestroy
+    void stopTimeoutTimer() {
+        timeoutTimer.close();
+    }
+
+    // Blocking variant, kept for callers that want a plain result
     public CalculationResponse performCalculation(Double operand1, Double operand2, String operation) {
+        return performCalculationAsync(operand1, operand2, operation).join();
+    }
+
+    // Non-blocking variant: the returned future is completed by the reply listener,
+    // or by the timeout timer once the timeout elapses.
+    // No caller thread is parked while the request is in flight.
+    public CompletableFuture<CalculationResponse> performCalculationAsync(Double operand1, Double operand2, String operation) {
+        // Unique ID; travels as raw bytes in a Kafka header and becomes text only in the HTTP response
+        RequestId id = requestIdGenerator.next();
+
+        // Operations without an opcode are only known by name: no caching or coalescing
+        byte opcode = BuiltinOperation.opcodeOf(operation);
+        CalculationRequest request = new CalculationRequest(null, operand1, operand2, operation);
+        if (opcode == Operation.UNKNOWN_OPCODE || operand1 == null || operand2 == null) {
+            return send(id, operation, request);
+        }
+        return calculate(id, operation, CalculationKey.of(opcode, operand1, operand2), request);
+    }
+
+    // Decimal variant: the calculator computes on the exact operands and replies with the exact result
+    public CompletableFuture<CalculationResponse> performCalculationAsync(BigDecimal operand1, BigDecimal operand2, String operation) {
+        RequestId id = requestIdGenerator.next();
+
+        byte opcode = BuiltinOperation.opcodeOf(operation);
+        CalculationRequest request = CalculationRequest.ofDecimals(null, operand1, operand2, operation);
+        CalculationKey key = opcode != Operation.UNKNOWN_OPCODE ? CalculationKey.ofDecimals(opcode, operand1, operand2) : null;
+        if (key == null) {
+            return send(id, operation, request);
+        }
+        return calculate(id, operation, key, request);
+    }
+
+    private CompletableFuture<CalculationResponse> calculate(RequestId id, String operation, CalculationKey key, CalculationRequest request) {
+        // Identical inputs always give the same outcome: answer from the cache when possible
+        CalculationResponse cached = resultCache.get(key);
+        if (cached != null) {
+            cached.setRequestId(id.toString());
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        if (!coalesceRequests) {
+            return send(id, operation, request).thenApply(response -> {
+                resultCache.put(key, response);
+                return response;
+            });
+        }
+
+        // Single flight: the first caller sends, concurrent identical callers wait for its reply
+        CompletableFuture<CalculationResponse> leader = new CompletableFuture<>();
+        CompletableFuture<CalculationResponse> inFlight = inFlightCalculations.putIfAbsent(key, leader);
+        if (inFlight != null) {
+            return inFlight.thenApply(response -> withRequestId(response, id.toString()));
+        }
+        send(id, operation, request).whenComplete((response, e) -> {
+            // Cache first, so a caller arriving after the removal finds the cached result
+            if (response != null) {
+                resultCache.put(key, response);
+            }
+            inFlightCalculations.remove(key, leader);
+            if (e != null) {
+                leader.completeExceptionally(e);
+            } else {
+                leader.complete(response);
+            }
+        });
+        return leader;
+    }
+
+    private CompletableFuture<CalculationResponse> send(RequestId id, String operation, CalculationRequest request) {
+        return dispatch(kafkaTemplate, REQUEST_TOPIC, replyDestination.getTopic(), id, operation, request, pendingRequests,
+            concurrencyLimiter, requestTimeoutMs,
+            errorCode -> new CalculationResponse(id.toString(), errorCode));
+    }
+
+    // A follower's copy of the leader's reply, carrying the follower's own request id
+    private static CalculationResponse withRequestId(CalculationResponse response, String requestId) {
+        CalculationResponse copy = new CalculationResponse();
+        copy.setRequestId(requestId);
+        copy.setResult(response.getResult());
+        copy.setSuccess(response.isSuccess());
+        copy.setErrorMessage(response.getErrorMessage());
+        copy.setErrorCode(response.getErrorCode());
+        copy.setDecimalResult(response.getDecimalResult());
+        return copy;
+    }
+
+    // Sends all items as a single record; the reply carries one result per item, in order
+    public CompletableFuture<BatchCalculationResponse> performBatchAsync(List<BatchItem> items) {
         // Unique ID
-        String requestId = UUID.randomUUID().toString();
-        
+        RequestId id = requestIdGenerator.next();
+
         // Create the request
-        CalculationRequest request = new CalculationRequest(requestId, operand1, operand2, operation);
-        
-        // Create a future to wait for the response
-        CompletableFuture<CalculationResponse> future = new CompletableFuture<>();
-        pendingRequests.put(requestId, future);
-        
+        BatchCalculationRequest request = new BatchCalculationRequest(null, items);
+
+        return dispatch(batchKafkaTemplate, BATCH_REQUEST_TOPIC, replyDestination.getBatchTopic(), id, CalculationMetrics.BATCH,
+            request, pendingBatches, bulkConcurrencyLimiter, requestTimeoutMs,
+            errorCode -> new BatchCalculationResponse(id.toString(), errorCode));
+    }
+
+    // A whole formula in one round trip; the calculator parses it once and caches the compiled form.
+    // The reply is an ordinary calculation response on this instance's reply topic.
+    public CompletableFuture<CalculationResponse> performEvaluationAsync(String expression, Map<String, Double> variables) {
+        RequestId id = requestIdGenerator.next();
+        ExpressionRequest request = new ExpressionRequest(null, expression, variables);
+        return dispatch(expressionKafkaTemplate, EXPRESSION_REQUEST_TOPIC, replyDestination.getTopic(), id, CalculationMetrics.EVAL,
+            request, pendingRequests, concurrencyLimiter, requestTimeoutMs,
+            errorCode -> new CalculationResponse(id.toString(), errorCode));
+    }
+
+    // Element-wise operation over two arrays in one binary record each way
+    public CompletableFuture<ArrayCalculationResponse> performArrayAsync(String operation, double[] operand1, double[] operand2) {
+        RequestId id = requestIdGenerator.next();
+        ArrayCalculationRequest request = new ArrayCalculationRequest(operation, operand1, operand2);
+        return dispatch(arrayKafkaTemplate, ARRAY_REQUEST_TOPIC, replyDestination.getArrayTopic(), id, CalculationMetrics.ARRAY,
+            request, pendingArrays, bulkConcurrencyLimiter, requestTimeoutMs,
+            errorCode -> new ArrayCalculationResponse(id.toString(), errorCode));
+    }
+
+    // Operation on two matrices in one binary record each way; waits up to the matrix timeout
+    public CompletableFuture<MatrixCalculationResponse> performMatrixAsync(String operation, MatrixData operand1, MatrixData operand2) {
+        RequestId id = requestIdGenerator.next();
+        MatrixCalculationRequest request = new MatrixCalculationRequest(operation, operand1, operand2);
+        return dispatch(matrixKafkaTemplate, MATRIX_REQUEST_TOPIC, replyDestination.getMatrixTopic(), id, CalculationMetrics.MATRIX,
+            request, pendingMatrices, bulkConcurrencyLimiter, matrixTimeoutMs,
+            errorCode -> new MatrixCalculationResponse(id.toString(), errorCode));
+    }
+
+    // Replies addressed to this instance only; the calculator echoes the correlation header
+    @KafkaListener(topics = "#{@replyDestination.topic}", groupId = "#{@replyDestination.groupId}")
+    public void handleCalculationResponse(CalculationResponse response,
+            @Header(name = KafkaHeaders.CORRELATION_ID, required = false) byte[] correlationId,
+            @Header(name = KafkaHeaders.RECEIVED_TIMESTAMP, required = false) Long replyTimestamp,
+            @Header(name = HopTimestamps.HEADER, required = false) byte[] hops) {
+        if (replyTimestamp != null) {
+            metrics.recordReplyLatency(false, replyTimestamp);
+        }
+        complete(pendingRequests, correlationId, response, hops, false);
+    }
+
+    @KafkaListener(topics = "#{@replyDestination.batchTopic}", groupId = "#{@replyDestination.groupId}",
+            containerFactory = "batchReplyListenerContainerFactory")
+    public void handleBatchCalculationResponse(BatchCalculationResponse response,
+            @Header(name = KafkaHeaders.CORRELATION_ID, required = false) byte[] correlationId,
+            @Header(name = KafkaHeaders.RECEIVED_TIMESTAMP, required = false) Long replyTimestamp,
+            @Header(name = HopTimestamps.HEADER, required = false) byte[] hops) {
+        if (replyTimestamp != null) {
+            metrics.recordReplyLatency(true, replyTimestamp);
+        }
+        complete(pendingBatches, correlationId, response, hops, true);
+    }
+
+    // Array replies are bulk transfers like batches and share their reply latency timers
+    @KafkaListener(topics = "#{@replyDestination.arrayTopic}", groupId = "#{@replyDestination.groupId}",
+            containerFactory = "arrayReplyListenerContainerFactory")
+    public void handleArrayCalculationResponse(ArrayCalculationResponse response,
+            @Header(name = KafkaHeaders.CORRELATION_ID, required = false) byte[] correlationId,
+            @Header(name = KafkaHeaders.RECEIVED_TIMESTAMP, required = false) Long replyTimestamp,
+            @Header(name = HopTimestamps.HEADER, required = false) byte[] hops) {
+        if (replyTimestamp != null) {
+            metrics.recordReplyLatency(true, replyTimestamp);
+        }
+        complete(pendingArrays, correlationId, response, hops, true);
+    }
+
+    // Matrix replies are bulk transfers too
+    @KafkaListener(topics = "#{@replyDestination.matrixTopic}", groupId = "#{@replyDestination.groupId}",
+            containerFactory = "matrixReplyListenerContainerFactory")
+    public void handleMatrixCalculationResponse(MatrixCalculationResponse response,
+            @Header(name = KafkaHeaders.CORRELATION_ID, required = false) byte[] correlationId,
+            @Header(name = KafkaHeaders.RECEIVED_TIMESTAMP, required = false) Long replyTimestamp,
+            @Header(name = HopTimestamps.HEADER, required = false) byte[] hops) {
+        if (replyTimestamp != null) {
+            metrics.recordReplyLatency(true, replyTimestamp);
+        }
+        complete(pendingMatrices, correlationId, response, hops, true);
+    }
+
+    private <Q, R extends CalculationReply> CompletableFuture<R> dispatch(KafkaTemplate<String, Q> template, String topic, String replyTopic,
+            RequestId id, String operation, Q request, PendingRequestTable<R> pending, ConcurrencyLimiter limiter, long timeoutMs,
+            IntFunction<R> errorResponse) {
+        // Shed load up front rather than queue requests that would only time out
+        if (!limiter.tryAcquire()) {
+            return CompletableFuture.completedFuture(errorResponse.apply(RestErrorCodes.OVERLOADED));
+        }
+        long idHigh = id.high();
+        long idLow = id.low();
+        long sentAt = System.nanoTime();
+
+        // Create a future to wait for the response; the timer fails it if no reply arrives in time
+        CompletableFuture<R> future = new CompletableFuture<>();
+        if (!pending.register(idHigh, idLow, future, timeoutMs, () -> errorResponse.apply(RestErrorCodes.TIMEOUT))) {
+            limiter.onIgnore();
+            return CompletableFuture.completedFuture(errorResponse.apply(RestErrorCodes.OVERLOADED));
+        }
+        // Each request completes exactly once: by its reply, the timer or a failed send
+        future.whenComplete((response, e) -> {
+            long elapsed = System.nanoTime() - sentAt;
+            int errorCode = response != null ? response.getErrorCode() : RestErrorCodes.TRANSPORT_ERROR;
+            metrics.recordRoundTrip(operation, errorCode, elapsed);
+            if (errorCode == RestErrorCodes.TIMEOUT || errorCode == RestErrorCodes.TRANSPORT_ERROR) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess(elapsed);
+            }
+        });
+
         try {
-            // Send message and log the result
-            kafkaTemplate.send(REQUEST_TOPIC, requestId, request);
-            
-            // Wait for response (with timeout)
-            return future.get(5, TimeUnit.SECONDS);
-            
+            // No key: the producer's uniform sticky partitioner spreads requests over all
+            // partitions while still filling batches; correlation travels in a header
+            ProducerRecord<String, Q> record = new ProducerRecord<>(topic, null, request);
+            // Tell the calculator where to send the reply, and what to correlate it with
+            record.headers().add(KafkaHeaders.REPLY_TOPIC, replyTopic.getBytes(StandardCharsets.UTF_8));
+            record.headers().add(KafkaHeaders.CORRELATION_ID, id.toBytes());
+            if (traceSampleRate > 0 && ThreadLocalRandom.current().nextDouble() < traceSampleRate) {
+                record.headers().add(HopTimestamps.HEADER, HopTimestamps.request(sentAt));
+            }
+
+            // Send message, failing the request straight away if the broker rejects it
+            template.send(record)
+                .whenComplete((result, ex) -> {
+                    if (ex == null) {
+                        metrics.recordSend(operation, System.nanoTime() - sentAt);
+                    } else if (pending.cancel(idHigh, idLow)) {
+                        log.warn("Failed to send request {}: {}", id, ex.getMessage());
+                        future.complete(errorResponse.apply(RestErrorCodes.TRANSPORT_ERROR));
+                    }
+                });
         } catch (Exception e) {
             // Clean up and return error response
-            pendingRequests.remove(requestId);
-            return new CalculationResponse(requestId, "Request timeout or error: " + e.getMessage());
+            if (pending.cancel(idHigh, idLow)) {
+                log.warn("Failed to send request {}: {}", id, e.getMessage());
+                future.complete(errorResponse.apply(RestErrorCodes.TRANSPORT_ERROR));
+            }
         }
-    }
 
-    @KafkaListener(topics = RESPONSE_TOPIC, groupId = "rest-service-group")
-    public void handleCalculationResponse(CalculationResponse response) {
+        return future;
+    }
 
-        CompletableFuture<CalculationResponse> future = pendingRequests.remove(response.getRequestId());
+    private <R extends CalculationReply> void complete(PendingRequestTable<R> pending, byte[] correlationId, R response,
+            byte[] hops, boolean batch) {
+        long receivedAt = hops != null ? System.nanoTime() : 0;
+        if (correlationId == null || correlationId.length != RequestId.BYTES) {
+            pending.recordUnmatchedReply();
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(correlationId);
+        long idHigh = buffer.getLong();
+        long idLow = buffer.getLong();
+        // Late and duplicate replies are only counted by the table
+        CompletableFuture<R> future = pending.remove(idHigh, idLow);
         if (future != null) {
-            future.complete(response);
-        } else {
-            System.out.println(" >>> No pending request found for: " + response.getRequestId());
+            // The only place a Kafka-routed id is turned into text
+            response.setRequestId(new RequestId(idHigh, idLow).toString());
+            if (hops != null) {
+                LatencyBreakdown breakdown = HopTimestamps.breakdown(hops, receivedAt);
+                if (breakdown != null) {
+                    response.setLatencyBreakdown(breakdown);
+                    metrics.recordLatencyBreakdown(batch, breakdown);
+                }
+            }
+            replyCompletionExecutor.execute(() -> future.complete(response));
         }
     }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public ConcurrencyLimiter getBulkConcurrencyLimiter() {
+        return bulkConcurrencyLimiter;
+    }
+
+    public PendingRequestTable<CalculationResponse> getPendingRequests() {
+        return pendingRequests;
+    }
+
+    public PendingRequestTable<BatchCalculationResponse> getPendingBatches() {
+        return pendingBatches;
+    }
+
+    public PendingRequestTable<ArrayCalculationResponse> getPendingArrays() {
+        return pendingArrays;
+    }
+
+    public PendingRequestTable<MatrixCalculationResponse> getPendingMatrices() {
+        return pendingMatrices;
+    }
 }
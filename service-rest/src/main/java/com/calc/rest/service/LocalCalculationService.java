@@ -0,0 +1,149 @@
+package com.calc.rest.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.calc.calculator.CalculationResult;
+import com.calc.calculator.Calculator;
+import com.calc.calculator.DecimalCalculator;
+import com.calc.calculator.DecimalResult;
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.array.ArrayCalculator;
+import com.calc.calculator.array.ArrayResult;
+import com.calc.calculator.expression.ExpressionCache;
+import com.calc.calculator.expression.ExpressionException;
+import com.calc.calculator.matrix.Matrix;
+import com.calc.calculator.matrix.MatrixCalculator;
+import com.calc.calculator.matrix.MatrixResult;
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.calculator.operation.Operation;
+import com.calc.rest.dto.ArrayCalculationResponse;
+import com.calc.rest.dto.BatchCalculationResponse;
+import com.calc.rest.dto.BatchItem;
+import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.MatrixData;
+import com.calc.rest.id.RequestIdGenerator;
+
+// Runs calculations in-process with the embedded engine, skipping the Kafka round trip
+@Service
+public class LocalCalculationService {
+
+    private final Calculator calculator = new Calculator();
+
+    private final DecimalCalculator decimalCalculator;
+
+    private final ExpressionCache expressions;
+
+    private final ArrayCalculator arrayCalculator;
+
+    private final MatrixCalculator matrixCalculator;
+
+    private final RequestIdGenerator requestIdGenerator;
+
+    public LocalCalculationService(RequestIdGenerator requestIdGenerator) {
+        this(requestIdGenerator, MathContext.DECIMAL128.getPrecision(), RoundingMode.HALF_EVEN, 1000, 100, true);
+    }
+
+    @Autowired
+    public LocalCalculationService(RequestIdGenerator requestIdGenerator,
+                                   @Value("${calculator.decimal.precision:34}") int decimalPrecision,
+                                   @Value("${calculator.decimal.rounding:HALF_EVEN}") RoundingMode decimalRounding,
+                                   @Value("${calculator.expression.cache-size:1000}") int expressionCacheSize,
+                                   @Value("${calculator.expression.compile-threshold:100}") int expressionCompileThreshold,
+                                   @Value("${calculator.array.vectorized:true}") boolean arrayVectorized) {
+        this.requestIdGenerator = requestIdGenerator;
+        this.decimalCalculator = new DecimalCalculator(calculator, new MathContext(decimalPrecision, decimalRounding));
+        this.expressions = new ExpressionCache(calculator, expressionCacheSize, expressionCompileThreshold);
+        this.arrayCalculator = new ArrayCalculator(calculator, arrayVectorized);
+        // Result sizes are checked by the controller before either route is taken
+        this.matrixCalculator = new MatrixCalculator(arrayCalculator, ForkJoinPool.commonPool(), MatrixCalculator.MAX_ELEMENTS);
+    }
+
+    public CalculationResponse calculate(Double operand1, Double operand2, String operation) {
+        // Unique ID, same as a request sent through Kafka
+        String requestId = requestIdGenerator.next().toString();
+        return calculate(requestId, operand1, operand2, operation);
+    }
+
+    public CalculationResponse calculate(BigDecimal operand1, BigDecimal operand2, String operation) {
+        String requestId = requestIdGenerator.next().toString();
+        // Same text the calculator service would receive
+        DecimalResult result = decimalCalculator.evaluate(operation, operand1.toString(), operand2.toString());
+        if (!result.isSuccess()) {
+            return new CalculationResponse(requestId, result.errorCode());
+        }
+        CalculationResponse response = new CalculationResponse(requestId, result.value());
+        response.setDecimalResult(result.decimal());
+        return response;
+    }
+
+    public CalculationResponse evaluate(String expression, Map<String, Double> variables) {
+        String requestId = requestIdGenerator.next().toString();
+        CalculationResult result;
+        try {
+            result = expressions.compile(expression).evaluate(variables);
+        } catch (ExpressionException e) {
+            result = CalculationResult.error(e.getErrorCode());
+        }
+        return result.isSuccess()
+            ? new CalculationResponse(requestId, result.value())
+            : new CalculationResponse(requestId, result.errorCode());
+    }
+
+    public ArrayCalculationResponse calculateArray(String operation, double[] operand1, double[] operand2) {
+        String requestId = requestIdGenerator.next().toString();
+        ArrayResult result = arrayCalculator.evaluate(operation, operand1, operand2);
+        return result.isSuccess()
+            ? new ArrayCalculationResponse(requestId, result.values(), result.divisionByZero().stream().toArray())
+            : new ArrayCalculationResponse(requestId, result.errorCode());
+    }
+
+    public MatrixCalculationResponse calculateMatrix(String operation, MatrixData operand1, MatrixData operand2) {
+        String requestId = requestIdGenerator.next().toString();
+        MatrixResult result = matrixCalculator.evaluate(operation, toMatrix(operand1), toMatrix(operand2));
+        if (!result.isSuccess()) {
+            return new MatrixCalculationResponse(requestId, result.errorCode());
+        }
+        Matrix value = result.value();
+        return new MatrixCalculationResponse(requestId, new MatrixData(value.rows(), value.cols(), value.data()));
+    }
+
+    public BatchCalculationResponse calculateBatch(List<BatchItem> items) {
+        // Unique ID
+        String requestId = requestIdGenerator.next().toString();
+
+        List<CalculationResponse> results = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            results.add(calculate(null, item.getOp1(), item.getOp2(), item.getOp()));
+        }
+        return new BatchCalculationResponse(requestId, results);
+    }
+
+    // The controller only passes operands whose shape matches their data
+    private static Matrix toMatrix(MatrixData data) {
+        return data != null ? new Matrix(data.getRows(), data.getCols(), data.getData()) : null;
+    }
+
+    private CalculationResponse calculate(String requestId, Double operand1, Double operand2, String operation) {
+        if (operand1 == null || operand2 == null) {
+            return new CalculationResponse(requestId, ErrorCodes.MISSING_OPERAND);
+        }
+        byte opcode = BuiltinOperation.opcodeOf(operation);
+        CalculationResult result = opcode != Operation.UNKNOWN_OPCODE
+            ? calculator.evaluate(opcode, operand1, operand2)
+            : calculator.evaluate(operation, operand1, operand2);
+        return result.isSuccess()
+            ? new CalculationResponse(requestId, result.value())
+            : new CalculationResponse(requestId, result.errorCode());
+    }
+}
@@ -0,0 +1,47 @@
+package com.calc.rest.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The reply topic owned by this REST instance.
+ *
+ * Every instance consumes replies from its own topic and advertises it on each
+ * request in the kafka_replyTopic header, so a reply always reaches the
+ * instance that holds the pending request, however many replicas are running.
+ *
+ * The topics and the consumer group are named after the instance id and are never
+ * deleted, so the id must survive restarts: an id that changed with every start
+ * (a container hostname, a random UUID) would leave a new set of topics behind each time.
+ */
+@Component
+public class ReplyDestination {
+
+    private static final String TOPIC_PREFIX = "calculation-responses-";
+    private static final String BATCH_TOPIC_PREFIX = "calculation-batch-responses-";
+    private static final String ARRAY_TOPIC_PREFIX = "calculation-array-responses-";
+    private static final String MATRIX_TOPIC_PREFIX = "calculation-matrix-responses-";
+    private static final String GROUP_PREFIX = "rest-service-";
+
+    private final String instanceId;
+
+    public ReplyDestination(@Value("${calculator.instance-id:}") String instanceId) {
+        if (instanceId == null || instanceId.isBlank()) {
+            throw new IllegalStateException("calculator.instance-id (CALCULATOR_INSTANCE_ID) must be set to a name that is "
+                + "unique among the REST instances and stays the same across restarts");
+        }
+        this.instanceId = instanceId.replaceAll("[^a-zA-Z0-9._-]", "-");
+    }
+
+    public String getInstanceId() { return instanceId; }
+
+    public String getTopic() { return TOPIC_PREFIX + instanceId; }
+
+    public String getBatchTopic() { return BATCH_TOPIC_PREFIX + instanceId; }
+
+    public String getArrayTopic() { return ARRAY_TOPIC_PREFIX + instanceId; }
+
+    public String getMatrixTopic() { return MATRIX_TOPIC_PREFIX + instanceId; }
+
+    public String getGroupId() { return GROUP_PREFIX + instanceId; }
+}
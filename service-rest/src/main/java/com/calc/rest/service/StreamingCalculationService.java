@@ -0,0 +1,257 @@
+package com.calc.rest.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.BatchItem;
+import com.calc.rest.dto.CalculationResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Calculates a newline-delimited stream of batch items, one JSON object per line, and writes one
+ * reply line per item while the stream is still being read.
+ *
+ * A reader thread parses lines and sends each item as soon as it is read; the calling thread writes
+ * the replies. At most maxInFlight items are sent but not yet written: the reader stops taking lines
+ * when the window is full, which stops reading from the socket and pushes back on the client. Memory
+ * is therefore bounded by the window and the longest line, however long the stream runs.
+ *
+ * Replies are written in request order, or in completion order when the client has asked for it;
+ * unordered replies are handed to the encoder with the zero-based index of their line so the client
+ * can match them up.
+ */
+@Service
+public class StreamingCalculationService {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingCalculationService.class);
+
+    // Longest line accepted; a line of {op, op1, op2} is well under 200 bytes
+    static final int MAX_LINE_LENGTH = 4096;
+
+    // Marks the end of the replies; never completed
+    private static final Pending END = new Pending(-1, new CompletableFuture<>());
+
+    @Autowired
+    private CalculationRouter calculatorService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Items of one stream sent but not yet written back
+    @Value("${calculator.stream.max-in-flight:16}")
+    private int maxInFlight = 16;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadFactory readerThreads = Thread.ofPlatform().name("rest-stream-", 0).daemon().factory();
+
+    @PostConstruct
+    void initReaderThreads() {
+        if (virtualThreads) {
+            readerThreads = Thread.ofVirtual().name("rest-stream-", 0).factory();
+        }
+    }
+
+    /**
+     * Reads items from in until it ends and writes their replies to out, encoded by the caller.
+     * Returns once every reply is written; malformed lines get an error reply of their own.
+     * Whether it returns or throws, the reader thread has stopped and in is no longer used.
+     */
+    public void stream(InputStream in, OutputStream out, boolean ordered,
+            BiFunction<Long, CalculationResponse, byte[]> encoder) throws IOException {
+        Semaphore window = new Semaphore(maxInFlight);
+        BlockingQueue<Pending> replies = new LinkedBlockingQueue<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        ObjectReader itemReader = objectMapper.readerFor(BatchItem.class);
+        Thread reader = readerThreads.newThread(() -> read(in, itemReader, ordered, window, replies, closed));
+        reader.start();
+        try {
+            write(out, replies, window, ordered, encoder);
+        } catch (IOException | RuntimeException e) {
+            // Client gone: the servlet recycles in once this request ends, so the reader must be
+            // stopped first. A blocked socket read ignores interrupts but fails with the connection;
+            // the released window keeps the reader from waiting on replies nobody will write.
+            closed.set(true);
+            window.release(maxInFlight);
+            reader.interrupt();
+            awaitReader(reader);
+            throw e;
+        }
+        awaitReader(reader);
+    }
+
+    private static void awaitReader(Thread reader) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                reader.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void read(InputStream in, ObjectReader itemReader, boolean ordered, Semaphore window, BlockingQueue<Pending> replies,
+            AtomicBoolean closed) {
+        try {
+            LineReader lines = new LineReader(in);
+            long index = 0;
+            int length;
+            while (!closed.get() && (length = lines.next()) >= 0) {
+                if (length == 0) continue;
+                window.acquire();
+                if (closed.get()) return;
+                Pending pending = new Pending(index++, submit(itemReader, lines, length));
+                if (ordered) {
+                    replies.add(pending);
+                } else {
+                    pending.reply().whenComplete((response, e) -> replies.add(pending));
+                }
+            }
+        } catch (IOException e) {
+            if (closed.get()) return;
+            log.debug("Calculation stream ended early: {}", e.getMessage());
+            replies.add(new Pending(-1, CompletableFuture.completedFuture(
+                new CalculationResponse(null, "Request stream could not be read to the end"))));
+        } catch (RuntimeException e) {
+            // The writer must still see the end of the replies, or the request would never finish
+            log.warn("Calculation stream failed", e);
+            replies.add(new Pending(-1, CompletableFuture.completedFuture(
+                new CalculationResponse(null, ErrorCodes.OPERATION_FAILED))));
+        } catch (InterruptedException e) {
+            return;
+        }
+        // Unordered replies arrive at any time: wait until all are written before ending
+        try {
+            window.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            return;
+        }
+        if (!closed.get()) {
+            replies.add(END);
+        }
+    }
+
+    private CompletableFuture<CalculationResponse> submit(ObjectReader itemReader, LineReader lines, int length) {
+        if (length > MAX_LINE_LENGTH) {
+            return CompletableFuture.completedFuture(new CalculationResponse(null,
+                String.format("Line must not be longer than %d bytes.", MAX_LINE_LENGTH)));
+        }
+        BatchItem item;
+        try {
+            item = itemReader.readValue(lines.buffer(), 0, length);
+        } catch (IOException e) {
+            item = null;
+        }
+        if (item == null || item.getOp() == null || item.getOp1() == null || item.getOp2() == null) {
+            return CompletableFuture.completedFuture(new CalculationResponse(null, "Line must be an object with 'op', 'op1' and 'op2'."));
+        }
+        return calculatorService.performCalculationAsync(item.getOp1(), item.getOp2(), item.getOp())
+            .exceptionally(e -> new CalculationResponse(null, ErrorCodes.OPERATION_FAILED));
+    }
+
+    // Flushes only before it would wait, so replies that are ready together go out together
+    private void write(OutputStream out, BlockingQueue<Pending> replies, Semaphore window, boolean ordered,
+            BiFunction<Long, CalculationResponse, byte[]> encoder) throws IOException {
+        try {
+            while (true) {
+                Pending next = replies.poll();
+                if (next == null) {
+                    out.flush();
+                    next = replies.take();
+                }
+                if (next == END) break;
+                if (!next.reply().isDone()) {
+                    out.flush();
+                }
+                out.write(encoder.apply(ordered || next.index() < 0 ? null : next.index(), next.reply().join()));
+                out.write('\n');
+                if (next.index() >= 0) {
+                    window.release();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while streaming replies", e);
+        }
+        out.flush();
+    }
+
+    // A line in the stream and its reply; index -1 for replies that belong to no line
+    private record Pending(long index, CompletableFuture<CalculationResponse> reply) {}
+
+    // Splits the body at '\n' into one reused buffer; a trailing '\r' is dropped
+    private static final class LineReader {
+
+        private final InputStream in;
+        private final byte[] chunk = new byte[8192];
+        private final byte[] line = new byte[MAX_LINE_LENGTH];
+        private int position;
+        private int limit;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        byte[] buffer() {
+            return line;
+        }
+
+        // Length of the next line, more than MAX_LINE_LENGTH if it did not fit, or -1 at the end of the stream
+        int next() throws IOException {
+            int length = 0;
+            boolean any = false;
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(chunk);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return any ? trim(length) : -1;
+                    }
+                }
+                any = true;
+                byte b = chunk[position++];
+                if (b == '\n') {
+                    return trim(length);
+                }
+                if (length < MAX_LINE_LENGTH) {
+                    line[length] = b;
+                }
+                if (length <= MAX_LINE_LENGTH) {
+                    length++;
+                }
+            }
+        }
+
+        private int trim(int length) {
+            if (length > 0 && length <= MAX_LINE_LENGTH && line[length - 1] == '\r') {
+                return length - 1;
+            }
+            return length;
+        }
+    }
+}
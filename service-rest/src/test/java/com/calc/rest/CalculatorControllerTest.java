@@ -0,0 +1,200 @@
+package com.calc.rest;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.calc.rest.admission.ConcurrencyLimiter;
+import com.calc.rest.cache.ResultCache;
+import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.RestErrorCodes;
+import com.calc.rest.id.TimeOrderedRequestIdGenerator;
+import com.calc.rest.service.CalculationRouter;
+import com.calc.rest.service.CalculatorKafkaService;
+import com.calc.rest.service.ReplyDestination;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CalculatorController Tests")
+class CalculatorControllerTest {
+
+    @Mock
+    private CalculationRouter router;
+
+    private CalculatorController controller;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        controller = new CalculatorController();
+        set("calculatorService", router);
+        set("requestIdGenerator", new TimeOrderedRequestIdGenerator());
+        set("objectMapper", new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    @DisplayName("Decimal arithmetic should pass the operands on as exact decimals")
+    void testDecimalOperands() throws Exception {
+        CalculationResponse response = new CalculationResponse("id", 0.30000000000000004);
+        response.setDecimalResult("0.3");
+        when(router.performCalculationAsync(new BigDecimal("0.1"), new BigDecimal("0.2"), "add"))
+            .thenReturn(CompletableFuture.completedFuture(response));
+
+        call(get("/add").param("op1", "0.1").param("op2", "0.2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("request-ID", "id"))
+            .andExpect(jsonPath("$.result").value(0.3));
+    }
+
+    @Test
+    @DisplayName("Decimal arithmetic should reject NaN and Infinity with a 400")
+    void testDecimalRejectsNonFinite() throws Exception {
+        call(get("/add").param("op1", "NaN").param("op2", "1"))
+            .andExpect(status().isBadRequest())
+            .andExpect(header().exists("request-ID"))
+            .andExpect(jsonPath("$.message").value("Invalid value 'NaN' for parameter 'op1'. Expected a valid number."));
+        call(get("/div").param("op1", "1").param("op2", "-Infinity"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("Invalid value '-Infinity' for parameter 'op2'. Expected a valid number."));
+
+        verify(router, never()).performCalculationAsync(any(BigDecimal.class), any(BigDecimal.class), anyString());
+    }
+
+    @Test
+    @DisplayName("Double arithmetic should still accept NaN and Infinity")
+    void testDoubleAcceptsNonFinite() throws Exception {
+        when(router.isDoubleArithmetic()).thenReturn(true);
+        when(router.performCalculationAsync(Double.NaN, 1.0, "add"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse("nan", Double.NaN)));
+        when(router.performCalculationAsync(Double.POSITIVE_INFINITY, 2.0, "mul"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse("inf", Double.POSITIVE_INFINITY)));
+
+        call(get("/add").param("op1", "NaN").param("op2", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.result").value("NaN"));
+        call(get("/mul").param("op1", "Infinity").param("op2", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.result").value("Infinity"));
+        call(get("/sub").param("op1", "1").param("op2", "one"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Calculator failures should map to gateway statuses")
+    void testUpstreamFailureStatus() throws Exception {
+        when(router.performCalculationAsync(new BigDecimal("1"), new BigDecimal("2"), "add"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse("timeout", RestErrorCodes.TIMEOUT)));
+        when(router.performCalculationAsync(new BigDecimal("1"), new BigDecimal("2"), "sub"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse("unreachable", RestErrorCodes.TRANSPORT_ERROR)));
+
+        call(get("/add").param("op1", "1").param("op2", "2"))
+            .andExpect(status().isGatewayTimeout())
+            .andExpect(header().string("request-ID", "timeout"))
+            .andExpect(header().doesNotExist("Retry-After"))
+            .andExpect(jsonPath("$.code").value(RestErrorCodes.TIMEOUT));
+        call(get("/sub").param("op1", "1").param("op2", "2"))
+            .andExpect(status().isBadGateway())
+            .andExpect(jsonPath("$.code").value(RestErrorCodes.TRANSPORT_ERROR));
+    }
+
+    @Nested
+    @DisplayName("Admission Control Tests")
+    class AdmissionTests {
+
+        private CalculatorKafkaService kafkaService;
+
+        @BeforeEach
+        void setUpOverloaded() throws Exception {
+            // Both limits allow one request in flight, and that slot is taken
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("fixed", 1, 1, 1, 1.0);
+            ConcurrencyLimiter bulkLimiter = new ConcurrencyLimiter("fixed", 1, 1, 1, 1.0);
+            assertTrue(limiter.tryAcquire());
+            assertTrue(bulkLimiter.tryAcquire());
+
+            kafkaService = new CalculatorKafkaService();
+            inject(kafkaService, "replyDestination", new ReplyDestination("test-instance"));
+            inject(kafkaService, "resultCache", new ResultCache(0, 0));
+            inject(kafkaService, "requestIdGenerator", new TimeOrderedRequestIdGenerator());
+            inject(kafkaService, "concurrencyLimiter", limiter);
+            inject(kafkaService, "bulkConcurrencyLimiter", bulkLimiter);
+            CalculationRouter kafkaRouter = new CalculationRouter();
+            inject(kafkaRouter, "kafkaService", kafkaService);
+            set("calculatorService", kafkaRouter);
+            set("retryAfterSeconds", 3L);
+            set("maxBatchItems", 10000);
+        }
+
+        @AfterEach
+        void stopTimer() throws Exception {
+            Method stop = CalculatorKafkaService.class.getDeclaredMethod("stopTimeoutTimer");
+            stop.setAccessible(true);
+            stop.invoke(kafkaService);
+        }
+
+        @Test
+        @DisplayName("A shed calculation should be a 503 with Retry-After")
+        void testOverloadedCalculation() throws Exception {
+            call(get("/add").param("op1", "1").param("op2", "2"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(header().exists("request-ID"))
+                .andExpect(jsonPath("$.code").value(RestErrorCodes.OVERLOADED));
+        }
+
+        @Test
+        @DisplayName("A shed batch should be a 503 with Retry-After")
+        void testOverloadedBatch() throws Exception {
+            call(post("/batch").contentType(MediaType.APPLICATION_JSON).content("[{\"op\": \"add\", \"op1\": 1, \"op2\": 2}]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.code").value(RestErrorCodes.OVERLOADED));
+        }
+    }
+
+    // Every calculation endpoint answers asynchronously
+    private ResultActions call(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private void set(String name, Object value) throws Exception {
+        inject(controller, name, value);
+    }
+
+    private static void inject(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,137 @@
+package com.calc.rest.admission;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ConcurrencyLimiter Tests")
+class ConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // Keeps the limiter saturated while replies arrive after rttNanos
+    private static void runSaturated(ConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int admitted = 0;
+            while (limiter.tryAcquire()) {
+                admitted++;
+            }
+            for (int i = 0; i < admitted; i++) {
+                limiter.onSuccess(rttNanos);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Fixed limit")
+    class FixedLimit {
+
+        @Test
+        @DisplayName("Requests over the limit should be shed and counted")
+        void testShedOverLimit() {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("fixed", 2, 1, 10, 2.0);
+
+            assertTrue(limiter.tryAcquire());
+            assertTrue(limiter.tryAcquire());
+            assertFalse(limiter.tryAcquire());
+
+            assertEquals(2, limiter.getInFlight());
+            assertEquals(1, limiter.getShed());
+        }
+
+        @Test
+        @DisplayName("Every outcome should free its slot without moving the limit")
+        void testOutcomesReleaseSlot() {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("fixed", 3, 1, 10, 2.0);
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+            limiter.tryAcquire();
+
+            limiter.onSuccess(SLOW);
+            limiter.onDropped();
+            limiter.onIgnore();
+
+            assertEquals(0, limiter.getInFlight());
+            assertEquals(3, limiter.getLimit());
+            assertEquals(1, limiter.getDropped());
+        }
+    }
+
+    @Nested
+    @DisplayName("Adaptive limit")
+    class AdaptiveLimit {
+
+        @Test
+        @DisplayName("Limit should grow while round trips stay fast")
+        void testGrowsWhenHealthy() {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("adaptive", 20, 10, 1000, 2.0);
+
+            runSaturated(limiter, FAST, 20);
+
+            assertTrue(limiter.getLimit() > 20, "Limit was " + limiter.getLimit());
+        }
+
+        @Test
+        @DisplayName("Limit should shrink once round trips grow beyond the tolerance")
+        void testShrinksWhenQueueing() {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("adaptive", 200, 10, 1000, 2.0);
+            runSaturated(limiter, FAST, 1);
+
+            runSaturated(limiter, SLOW, 20);
+
+            assertTrue(limiter.getLimit() < 200, "Limit was " + limiter.getLimit());
+            assertTrue(limiter.getLimit() >= 10);
+        }
+
+        @Test
+        @DisplayName("Dropped requests should cut the limit down to the minimum at most")
+        void testBacksOffOnDrops() {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("adaptive", 100, 50, 1000, 2.0);
+
+            for (int i = 0; i < 100; i++) {
+                limiter.tryAcquire();
+                limiter.onDropped();
+            }
+
+            assertEquals(50, limiter.getLimit());
+            assertEquals(100, limiter.getDropped());
+        }
+
+        @Test
+        @DisplayName("Limit should not grow while it is far from being used")
+        void testNoGrowthWhenIdle() {
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter("adaptive", 100, 10, 1000, 2.0);
+
+            for (int i = 0; i < 1000; i++) {
+                limiter.tryAcquire();
+                limiter.onSuccess(FAST);
+            }
+
+            assertEquals(100, limiter.getLimit());
+        }
+    }
+
+    @Test
+    @DisplayName("Disabled limiter should admit everything")
+    void testOffAdmitsAll() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("off", 1, 1, 1, 2.0);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertEquals(0, limiter.getShed());
+    }
+
+    @Test
+    @DisplayName("Unknown mode should be rejected at startup")
+    void testUnknownMode() {
+        assertThrows(IllegalStateException.class, () -> new ConcurrencyLimiter("aimd", 1, 1, 1, 2.0));
+    }
+}
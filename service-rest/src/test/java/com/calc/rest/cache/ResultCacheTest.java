@@ -0,0 +1,132 @@
+package com.calc.rest.cache;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.RestErrorCodes;
+
+@DisplayName("ResultCache Tests")
+class ResultCacheTest {
+
+    private static final byte ADD = BuiltinOperation.ADD.opcode();
+    private static final byte SUB = BuiltinOperation.SUB.opcode();
+    private static final byte MUL = BuiltinOperation.MUL.opcode();
+    private static final byte DIV = BuiltinOperation.DIV.opcode();
+
+    @Test
+    @DisplayName("Cached result should be returned as a fresh response")
+    void testHitAndMiss() {
+        ResultCache cache = new ResultCache(100, 0);
+
+        assertNull(cache.get(CalculationKey.of(ADD, 1.0, 2.0)));
+        cache.put(CalculationKey.of(ADD, 1.0, 2.0), new CalculationResponse("r1", 3.0));
+        CalculationResponse hit = cache.get(CalculationKey.of(ADD, 1.0, 2.0));
+
+        assertNotNull(hit);
+        assertNull(hit.getRequestId(), "Request id is set by the caller");
+        assertEquals(3.0, hit.getResult());
+        assertNull(cache.get(CalculationKey.of(SUB, 1.0, 2.0)), "Opcode is part of the key");
+        assertNull(cache.get(CalculationKey.of(ADD, 2.0, 1.0)), "Operand order is part of the key");
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    @DisplayName("Keys should compare the raw bits of the operands")
+    void testOperandBits() {
+        double otherNaN = Double.longBitsToDouble(0x7ff8000000000001L);
+
+        assertEquals(CalculationKey.of(ADD, 1.0, Double.NaN), CalculationKey.of(ADD, 1.0, Double.NaN));
+        assertNotEquals(CalculationKey.of(ADD, 1.0, Double.NaN), CalculationKey.of(ADD, 1.0, otherNaN),
+            "NaN payloads should not be canonicalized");
+        assertNotEquals(CalculationKey.of(DIV, 1.0, 0.0), CalculationKey.of(DIV, 1.0, -0.0));
+    }
+
+    @Test
+    @DisplayName("Decimal results should be cached apart from double results")
+    void testDecimalEntries() {
+        ResultCache cache = new ResultCache(100, 0);
+        CalculationKey key = CalculationKey.ofDecimals(ADD, new BigDecimal("0.1"), new BigDecimal("0.2"));
+        CalculationResponse response = new CalculationResponse("r1", 0.3);
+        response.setDecimalResult("0.3");
+
+        cache.put(key, response);
+
+        assertEquals("0.3", cache.get(key).getDecimalResult());
+        assertEquals(key, CalculationKey.ofDecimals(ADD, new BigDecimal("0.10"), new BigDecimal("0.2")),
+            "Trailing zeros should not split the key");
+        assertNotEquals(key, CalculationKey.of(ADD, 0.1, 0.2));
+        assertNull(CalculationKey.ofDecimals(ADD, new BigDecimal("0.1000000000000000001"), BigDecimal.ONE),
+            "Operands with more digits than a double holds should not be keyed");
+        assertNull(CalculationKey.ofDecimals(ADD, new BigDecimal("1E+400"), BigDecimal.ONE));
+    }
+
+    @Test
+    @DisplayName("Calculation errors should be cached, transport errors should not")
+    void testErrorCaching() {
+        ResultCache cache = new ResultCache(100, 0);
+
+        cache.put(CalculationKey.of(DIV, 1.0, 0.0), new CalculationResponse("r1", ErrorCodes.DIVISION_BY_ZERO));
+        cache.put(CalculationKey.of(ADD, 1.0, 2.0), new CalculationResponse("r2", RestErrorCodes.TIMEOUT));
+        cache.put(CalculationKey.of(SUB, 1.0, 2.0), new CalculationResponse("r3", RestErrorCodes.TRANSPORT_ERROR));
+
+        CalculationResponse cached = cache.get(CalculationKey.of(DIV, 1.0, 0.0));
+        assertFalse(cached.isSuccess());
+        assertEquals(ErrorCodes.DIVISION_BY_ZERO, cached.getErrorCode());
+        assertNull(cache.get(CalculationKey.of(ADD, 1.0, 2.0)));
+        assertNull(cache.get(CalculationKey.of(SUB, 1.0, 2.0)));
+    }
+
+    @Test
+    @DisplayName("Least recently used entry should be evicted first")
+    void testLruEviction() {
+        ResultCache cache = new ResultCache(2, 0);
+
+        cache.put(CalculationKey.of(ADD, 1.0, 1.0), new CalculationResponse("a", 2.0));
+        cache.put(CalculationKey.of(ADD, 2.0, 2.0), new CalculationResponse("b", 4.0));
+        cache.get(CalculationKey.of(ADD, 1.0, 1.0));
+        cache.put(CalculationKey.of(ADD, 3.0, 3.0), new CalculationResponse("c", 6.0));
+
+        assertNotNull(cache.get(CalculationKey.of(ADD, 1.0, 1.0)));
+        assertNull(cache.get(CalculationKey.of(ADD, 2.0, 2.0)));
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("Expired entry should be treated as a miss")
+    void testTtl() throws InterruptedException {
+        ResultCache cache = new ResultCache(100, 20);
+
+        cache.put(CalculationKey.of(MUL, 2.0, 3.0), new CalculationResponse("r1", 6.0));
+        assertNotNull(cache.get(CalculationKey.of(MUL, 2.0, 3.0)));
+        Thread.sleep(50);
+
+        assertNull(cache.get(CalculationKey.of(MUL, 2.0, 3.0)));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Zero max size should disable the cache")
+    void testDisabled() {
+        ResultCache cache = new ResultCache(0, 0);
+
+        cache.put(CalculationKey.of(ADD, 1.0, 2.0), new CalculationResponse("r1", 3.0));
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.get(CalculationKey.of(ADD, 1.0, 2.0)));
+        assertEquals(0, cache.getMisses());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.calc.rest.codec;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.ArrayCalculationRequest;
+import com.calc.rest.dto.ArrayCalculationResponse;
+
+@DisplayName("Binary ArrayCodec Tests")
+class ArrayCodecTest {
+
+    @Test
+    @DisplayName("Request should keep every bit of its operands")
+    void testRequestRoundTrip() {
+        double[] op1 = {1.5, -0.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE};
+        double[] op2 = {2.0, 0.0, Double.NEGATIVE_INFINITY, 1e-300, -7.25};
+
+        byte[] encoded = ArrayCodec.encode(new ArrayCalculationRequest("mul", op1, op2));
+        ArrayCalculationRequest decoded = ArrayCodec.decodeRequest(encoded);
+
+        assertEquals(10 + 16 * op1.length, encoded.length, "Only a fixed header besides the raw doubles");
+        assertEquals("mul", decoded.getOp());
+        assertArrayEquals(op1, decoded.getOp1());
+        assertArrayEquals(op2, decoded.getOp2());
+    }
+
+    @Test
+    @DisplayName("Missing and empty operands should stay distinguishable")
+    void testMissingOperand() {
+        ArrayCalculationRequest decoded = ArrayCodec.decodeRequest(ArrayCodec.encode(new ArrayCalculationRequest("add", null, new double[0])));
+
+        assertNull(decoded.getOp1());
+        assertEquals(0, decoded.getOp2().length);
+    }
+
+    @Test
+    @DisplayName("Response should carry results and division-by-zero indices")
+    void testResponseRoundTrip() {
+        int[] divisionByZero = {1, 64, 130};
+        double[] results = new double[131];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = i / 4.0;
+        }
+
+        ArrayCalculationResponse decoded = ArrayCodec.decodeResponse(
+            ArrayCodec.encode(new ArrayCalculationResponse("ignored", results, divisionByZero)));
+
+        assertTrue(decoded.isSuccess());
+        assertNull(decoded.getRequestId(), "The id travels in the correlation header");
+        assertArrayEquals(results, decoded.getResults());
+        assertArrayEquals(divisionByZero, decoded.getDivisionByZero());
+    }
+
+    @Test
+    @DisplayName("Error response should be two bytes")
+    void testErrorResponse() {
+        byte[] encoded = ArrayCodec.encode(new ArrayCalculationResponse(null, ErrorCodes.DIMENSION_MISMATCH));
+        ArrayCalculationResponse decoded = ArrayCodec.decodeResponse(encoded);
+
+        assertEquals(2, encoded.length);
+        assertFalse(decoded.isSuccess());
+        assertEquals(ErrorCodes.DIMENSION_MISMATCH, decoded.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Truncated or foreign payloads should be rejected")
+    void testMalformedPayload() {
+        byte[] encoded = ArrayCodec.encode(new ArrayCalculationRequest("add", new double[] {1, 2}, new double[] {3, 4}));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 8);
+
+        assertThrows(IllegalArgumentException.class, () -> ArrayCodec.decodeRequest(truncated));
+        assertThrows(IllegalArgumentException.class, () -> ArrayCodec.decodeResponse(encoded));
+        assertThrows(IllegalArgumentException.class, () -> ArrayCodec.decodeRequest("{\"op\":\"add\"}".getBytes()));
+    }
+}
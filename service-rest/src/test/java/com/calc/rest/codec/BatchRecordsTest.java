@@ -0,0 +1,82 @@
+package com.calc.rest.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.BatchCalculationRequest;
+import com.calc.rest.dto.BatchCalculationResponse;
+import com.calc.rest.dto.BatchItem;
+import com.calc.rest.dto.CalculationResponse;
+
+@DisplayName("Batch Record Size Tests")
+class BatchRecordsTest {
+
+    private static final int MAX_ITEMS = 10000;
+    private static final String BATCH_ID = "0192f3c4-5d6e-8f70-8123-456789abcdef";
+
+    @Test
+    @DisplayName("A full batch of the widest requests should fit in one record")
+    void testMaxSizeRequestRoundTrip() {
+        String op = "x".repeat(BatchRecords.MAX_OP_LENGTH);
+        List<BatchItem> items = new ArrayList<>(MAX_ITEMS);
+        for (int i = 0; i < MAX_ITEMS; i++) {
+            items.add(new BatchItem(op, -Double.MIN_NORMAL, -Double.MAX_VALUE));
+        }
+
+        byte[] encoded = serialize(new BatchCalculationRequest(BATCH_ID, items));
+        BatchCalculationRequest decoded = deserialize(encoded, BatchCalculationRequest.class);
+
+        assertTrue(encoded.length > 1 << 20, "Larger than the Kafka defaults, or the test proves nothing");
+        assertTrue(encoded.length < BatchRecords.maxRecordSize(MAX_ITEMS),
+            () -> encoded.length + " bytes do not fit in " + BatchRecords.maxRecordSize(MAX_ITEMS));
+        assertEquals(MAX_ITEMS, decoded.getItems().size());
+        assertEquals(op, decoded.getItems().get(MAX_ITEMS - 1).getOp());
+        assertEquals(-Double.MAX_VALUE, decoded.getItems().get(MAX_ITEMS - 1).getOp2());
+    }
+
+    @Test
+    @DisplayName("A full batch of the widest replies should fit in one record")
+    void testMaxSizeResponseRoundTrip() {
+        List<CalculationResponse> results = new ArrayList<>(MAX_ITEMS);
+        for (int i = 0; i < MAX_ITEMS; i++) {
+            CalculationResponse result = new CalculationResponse(null, ErrorCodes.DIVISION_BY_ZERO);
+            result.setResult(-Double.MIN_NORMAL);
+            results.add(result);
+        }
+
+        byte[] encoded = serialize(new BatchCalculationResponse(BATCH_ID, results));
+        BatchCalculationResponse decoded = deserialize(encoded, BatchCalculationResponse.class);
+
+        assertTrue(encoded.length > 1 << 20, "Larger than the Kafka defaults, or the test proves nothing");
+        assertTrue(encoded.length < BatchRecords.maxRecordSize(MAX_ITEMS),
+            () -> encoded.length + " bytes do not fit in " + BatchRecords.maxRecordSize(MAX_ITEMS));
+        assertEquals(BATCH_ID, decoded.getRequestId());
+        assertEquals(MAX_ITEMS, decoded.getResults().size());
+        assertFalse(decoded.getResults().get(MAX_ITEMS - 1).isSuccess());
+        assertEquals(ErrorCodes.DIVISION_BY_ZERO, decoded.getResults().get(MAX_ITEMS - 1).getErrorCode());
+    }
+
+    // Serialized the way KafkaConfig sends batches: JSON without type headers
+    private static byte[] serialize(Object value) {
+        try (JsonSerializer<Object> serializer = new JsonSerializer<>()) {
+            serializer.setAddTypeInfo(false);
+            return serializer.serialize("calculation-batch-requests", value);
+        }
+    }
+
+    private static <T> T deserialize(byte[] data, Class<T> type) {
+        try (JsonDeserializer<T> deserializer = new JsonDeserializer<>(type)) {
+            deserializer.setUseTypeHeaders(false);
+            return deserializer.deserialize("calculation-batch-responses", data);
+        }
+    }
+}
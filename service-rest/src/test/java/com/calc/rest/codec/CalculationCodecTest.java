@@ -0,0 +1,201 @@
+package com.calc.rest.codec;
+
+import java.math.BigDecimal;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.calculator.operation.BuiltinOperation;
+import com.calc.calculator.operation.Operation;
+import com.calc.rest.dto.CalculationRequest;
+import com.calc.rest.dto.CalculationResponse;
+
+@DisplayName("Binary CalculationCodec Tests")
+class CalculationCodecTest {
+
+    private static final String UUID_ID = "123e4567-e89b-12d3-a456-426614174000";
+
+    @Nested
+    @DisplayName("Round Trip Tests")
+    class RoundTripTests {
+
+        @ParameterizedTest
+        @ValueSource(strings = {"add", "sub", "mul", "div"})
+        @DisplayName("Built-in operations should travel as opcode only")
+        void testRequestRoundTrip(String operation) {
+            CalculationRequest request = new CalculationRequest(UUID_ID, 1.5, -2.25, operation);
+
+            CalculationRequest decoded = CalculationCodec.decodeRequest(CalculationCodec.encode(request));
+
+            assertEquals(UUID_ID, decoded.getRequestId());
+            assertEquals(1.5, decoded.getOperand1());
+            assertEquals(-2.25, decoded.getOperand2());
+            assertEquals(BuiltinOperation.opcodeOf(operation), decoded.getOpcode());
+            assertNull(decoded.getOperation(), "Name should not be on the wire when the opcode is known");
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {"mod", ""})
+        @DisplayName("Operations without an opcode should travel by name")
+        void testUnknownOperationRoundTrip(String operation) {
+            CalculationRequest request = new CalculationRequest(UUID_ID, 1.5, -2.25, operation);
+
+            CalculationRequest decoded = CalculationCodec.decodeRequest(CalculationCodec.encode(request));
+
+            assertEquals(Operation.UNKNOWN_OPCODE, decoded.getOpcode());
+            assertEquals(operation, decoded.getOperation());
+        }
+
+        @Test
+        @DisplayName("Request with nulls and non-UUID id should survive encode/decode")
+        void testRequestWithNulls() {
+            CalculationRequest request = new CalculationRequest("request-1", null, Double.NaN, null);
+
+            CalculationRequest decoded = CalculationCodec.decodeRequest(CalculationCodec.encode(request));
+
+            assertEquals("request-1", decoded.getRequestId());
+            assertNull(decoded.getOperand1());
+            assertTrue(Double.isNaN(decoded.getOperand2()));
+            assertNull(decoded.getOperation());
+        }
+
+        @Test
+        @DisplayName("Decimal operands and result should survive encode/decode")
+        void testDecimalRoundTrip() {
+            CalculationRequest request = CalculationRequest.ofDecimals(UUID_ID,
+                new BigDecimal("0.1"), new BigDecimal("12345678901234567890.123456789"), "add");
+            CalculationResponse response = new CalculationResponse(UUID_ID, 1.2345678901234567E19);
+            response.setDecimalResult("12345678901234567890.223456789");
+
+            CalculationRequest decodedRequest = CalculationCodec.decodeRequest(CalculationCodec.encode(request));
+            CalculationResponse decodedResponse = CalculationCodec.decodeResponse(CalculationCodec.encode(response));
+
+            assertEquals(0.1, decodedRequest.getOperand1(), "Doubles should stay for calculators without decimals");
+            assertEquals("0.1", decodedRequest.getDecimalOperand1());
+            assertEquals("12345678901234567890.123456789", decodedRequest.getDecimalOperand2());
+            assertEquals(BuiltinOperation.ADD.opcode(), decodedRequest.getOpcode());
+            assertEquals("12345678901234567890.223456789", decodedResponse.getDecimalResult());
+            assertEquals(1.2345678901234567E19, decodedResponse.getResult());
+            assertNull(CalculationCodec.decodeRequest(CalculationCodec.encode(new CalculationRequest(UUID_ID, 1.0, 2.0, "add")))
+                .getDecimalOperand1());
+        }
+
+        @Test
+        @DisplayName("Success response should survive encode/decode")
+        void testSuccessResponseRoundTrip() {
+            CalculationResponse response = new CalculationResponse(UUID_ID, Double.NEGATIVE_INFINITY);
+
+            CalculationResponse decoded = CalculationCodec.decodeResponse(CalculationCodec.encode(response));
+
+            assertTrue(decoded.isSuccess());
+            assertEquals(UUID_ID, decoded.getRequestId());
+            assertEquals(Double.NEGATIVE_INFINITY, decoded.getResult());
+            assertNull(decoded.getErrorMessage());
+        }
+
+        @Test
+        @DisplayName("Error response should survive encode/decode")
+        void testErrorResponseRoundTrip() {
+            CalculationResponse response = new CalculationResponse(UUID_ID, "Division by zero is not allowed");
+
+            CalculationResponse decoded = CalculationCodec.decodeResponse(CalculationCodec.encode(response));
+
+            assertFalse(decoded.isSuccess());
+            assertNull(decoded.getResult());
+            assertEquals("Division by zero is not allowed", decoded.getErrorMessage());
+        }
+
+        @Test
+        @DisplayName("Error code should survive encode/decode")
+        void testErrorCodeRoundTrip() {
+            CalculationResponse response = new CalculationResponse(UUID_ID, ErrorCodes.DIVISION_BY_ZERO);
+
+            CalculationResponse decoded = CalculationCodec.decodeResponse(CalculationCodec.encode(response));
+
+            assertFalse(decoded.isSuccess());
+            assertEquals(ErrorCodes.DIVISION_BY_ZERO, decoded.getErrorCode());
+            assertNull(decoded.getErrorMessage());
+        }
+
+        @Test
+        @DisplayName("Deserializer should still accept JSON payloads")
+        void testJsonFallback() {
+            try (JsonSerializer<CalculationResponse> json = new JsonSerializer<>();
+                 CalculationResponseDeserializer deserializer = new CalculationResponseDeserializer()) {
+                json.setAddTypeInfo(false);
+                byte[] payload = json.serialize("t", new CalculationResponse(UUID_ID, 8.0));
+
+                CalculationResponse decoded = deserializer.deserialize("t", payload);
+
+                assertEquals(UUID_ID, decoded.getRequestId());
+                assertEquals(8.0, decoded.getResult());
+            }
+        }
+    }
+
+    // The calculator service decodes with its own copy of the codec, so the bytes themselves are pinned here
+    @Nested
+    @DisplayName("Layout Tests")
+    class LayoutTests {
+
+        @Test
+        @DisplayName("Request layout should stay byte for byte the same")
+        void testRequestLayout() {
+            byte[] expected = HexFormat.of().parseHex(
+                "c1" + "1f" + "3ff8000000000000" + "c000000000000000" + "123e4567e89b12d3a456426614174000" + "04");
+
+            assertArrayEquals(expected, CalculationCodec.encode(new CalculationRequest(UUID_ID, 1.5, -2.0, "div")));
+        }
+
+        @Test
+        @DisplayName("Response layout should stay byte for byte the same")
+        void testResponseLayout() {
+            byte[] expected = HexFormat.of().parseHex("c2" + "0f" + "3fe8000000000000" + "123e4567e89b12d3a456426614174000");
+
+            assertArrayEquals(expected, CalculationCodec.encode(new CalculationResponse(UUID_ID, 0.75)));
+        }
+    }
+
+    // Encode and decode cost in ns/op is measured by the JMH CodecBenchmark in the benchmarks project
+    @Nested
+    @DisplayName("Size Tests")
+    class SizeTests {
+
+        @Test
+        @DisplayName("Binary request should be less than half the size of JSON")
+        void testRequestSize() {
+            CalculationRequest request = new CalculationRequest(UUID_ID, 1234.5678, 0.001, "div");
+            try (JsonSerializer<CalculationRequest> json = new JsonSerializer<>()) {
+                json.setAddTypeInfo(false);
+                int jsonBytes = json.serialize("t", request).length;
+                int binaryBytes = CalculationCodec.encode(request).length;
+
+                assertTrue(binaryBytes * 2 < jsonBytes, "Binary request should be less than half the JSON size");
+            }
+        }
+
+        @Test
+        @DisplayName("Binary response should be less than half the size of JSON")
+        void testResponseSize() {
+            CalculationResponse response = new CalculationResponse(UUID_ID, 1234567.891);
+            try (JsonSerializer<CalculationResponse> json = new JsonSerializer<>()) {
+                json.setAddTypeInfo(false);
+                int jsonBytes = json.serialize("t", response).length;
+                int binaryBytes = CalculationCodec.encode(response).length;
+
+                assertTrue(binaryBytes * 2 < jsonBytes, "Binary response should be less than half the JSON size");
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.calc.rest.codec;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.ArrayCalculationRequest;
+import com.calc.rest.dto.MatrixCalculationRequest;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.MatrixData;
+
+@DisplayName("Binary MatrixCodec Tests")
+class MatrixCodecTest {
+
+    @Test
+    @DisplayName("Request should keep shapes and every bit of the elements")
+    void testRequestRoundTrip() {
+        MatrixData op1 = new MatrixData(2, 3, new double[] {1.5, -0.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE, 4.0});
+        MatrixData op2 = new MatrixData(3, 2, new double[] {2.0, 0.0, Double.NEGATIVE_INFINITY, 1e-300, -7.25, 8.0});
+
+        byte[] encoded = MatrixCodec.encode(new MatrixCalculationRequest("tmul", op1, op2));
+        MatrixCalculationRequest decoded = MatrixCodec.decodeRequest(encoded);
+
+        assertEquals(18 + 8 * 12, encoded.length, "Only a fixed header besides the raw doubles");
+        assertEquals("tmul", decoded.getOp());
+        assertEquals(2, decoded.getOp1().getRows());
+        assertEquals(3, decoded.getOp1().getCols());
+        assertArrayEquals(op1.getData(), decoded.getOp1().getData());
+        assertEquals(3, decoded.getOp2().getRows());
+        assertEquals(2, decoded.getOp2().getCols());
+        assertArrayEquals(op2.getData(), decoded.getOp2().getData());
+    }
+
+    @Test
+    @DisplayName("Missing and empty operands should stay distinguishable")
+    void testMissingOperand() {
+        MatrixCalculationRequest decoded = MatrixCodec.decodeRequest(
+            MatrixCodec.encode(new MatrixCalculationRequest("add", null, new MatrixData(0, 4, new double[0]))));
+
+        assertNull(decoded.getOp1());
+        assertEquals(0, decoded.getOp2().getRows());
+        assertEquals(4, decoded.getOp2().getCols());
+    }
+
+    @Test
+    @DisplayName("Response should carry the result shape")
+    void testResponseRoundTrip() {
+        double[] data = new double[3 * 43];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i / 4.0;
+        }
+
+        MatrixCalculationResponse decoded = MatrixCodec.decodeResponse(
+            MatrixCodec.encode(new MatrixCalculationResponse("ignored", new MatrixData(3, 43, data))));
+
+        assertTrue(decoded.isSuccess());
+        assertNull(decoded.getRequestId(), "The id travels in the correlation header");
+        assertEquals(3, decoded.getResult().getRows());
+        assertEquals(43, decoded.getResult().getCols());
+        assertArrayEquals(data, decoded.getResult().getData());
+    }
+
+    @Test
+    @DisplayName("Error response should be two bytes")
+    void testErrorResponse() {
+        byte[] encoded = MatrixCodec.encode(new MatrixCalculationResponse(null, ErrorCodes.RESULT_TOO_LARGE));
+        MatrixCalculationResponse decoded = MatrixCodec.decodeResponse(encoded);
+
+        assertEquals(2, encoded.length);
+        assertFalse(decoded.isSuccess());
+        assertEquals(ErrorCodes.RESULT_TOO_LARGE, decoded.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Data that does not fill its shape should not be encoded")
+    void testShapeMismatch() {
+        MatrixCalculationRequest request = new MatrixCalculationRequest("mul", new MatrixData(2, 2, new double[3]), null);
+
+        assertThrows(IllegalArgumentException.class, () -> MatrixCodec.encode(request));
+    }
+
+    @Test
+    @DisplayName("Truncated or foreign payloads should be rejected")
+    void testMalformedPayload() {
+        byte[] encoded = MatrixCodec.encode(new MatrixCalculationRequest("add",
+            new MatrixData(1, 2, new double[] {1, 2}), new MatrixData(1, 2, new double[] {3, 4})));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length - 8);
+        byte[] arrayRecord = ArrayCodec.encode(new ArrayCalculationRequest("add", new double[] {1}, new double[] {2}));
+
+        assertThrows(IllegalArgumentException.class, () -> MatrixCodec.decodeRequest(truncated));
+        assertThrows(IllegalArgumentException.class, () -> MatrixCodec.decodeResponse(encoded));
+        assertThrows(IllegalArgumentException.class, () -> MatrixCodec.decodeRequest(arrayRecord));
+    }
+}
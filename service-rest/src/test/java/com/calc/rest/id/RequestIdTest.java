@@ -0,0 +1,81 @@
+package com.calc.rest.id;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("RequestId Tests")
+class RequestIdTest {
+
+    @Test
+    @DisplayName("Id should survive the raw header bytes")
+    void testBytesRoundTrip() {
+        RequestId id = new RequestId(0x0123456789abcdefL, -2L);
+
+        byte[] bytes = id.toBytes();
+
+        assertEquals(RequestId.BYTES, bytes.length);
+        assertEquals(id, RequestId.fromBytes(bytes));
+        assertNull(RequestId.fromBytes(new byte[8]));
+        assertNull(RequestId.fromBytes(null));
+    }
+
+    @Test
+    @DisplayName("Text form should keep the UUID layout of the request-ID header")
+    void testTextForm() {
+        RequestId id = new RequestId(0x0123456789abcdefL, 0x0fedcba987654321L);
+
+        assertEquals("01234567-89ab-cdef-0fed-cba987654321", id.toString());
+        assertEquals(id.toString(), UUID.fromString(id.toString()).toString());
+    }
+
+    @Test
+    @DisplayName("Time-ordered ids of one instance should be unique and increasing")
+    void testTimeOrderedWithinInstance() {
+        TimeOrderedRequestIdGenerator generator = new TimeOrderedRequestIdGenerator(42L, 1_700_000_000_000L);
+
+        RequestId previous = generator.next();
+        for (int i = 0; i < 10_000; i++) {
+            RequestId next = generator.next();
+            assertEquals(0x802aL, next.high());
+            assertTrue(next.low() > previous.low());
+            previous = next;
+        }
+    }
+
+    @Test
+    @DisplayName("Time-ordered ids should be RFC 9562 version 8 UUIDs and survive the header bytes")
+    void testTimeOrderedUuidBits() {
+        TimeOrderedRequestIdGenerator generator = new TimeOrderedRequestIdGenerator(-1L, System.currentTimeMillis());
+
+        for (int i = 0; i < 1_000; i++) {
+            RequestId id = generator.next();
+            UUID uuid = UUID.fromString(id.toString());
+            assertEquals(8, uuid.version());
+            assertEquals(2, uuid.variant());
+            assertEquals(id, RequestId.fromBytes(id.toBytes()));
+        }
+    }
+
+    @Test
+    @DisplayName("Instances and restarts should not share ids")
+    void testUniqueAcrossInstances() {
+        // Each generator stands for one process; both may start in the same millisecond
+        RequestIdGenerator first = new TimeOrderedRequestIdGenerator();
+        RequestIdGenerator second = new TimeOrderedRequestIdGenerator();
+
+        Set<RequestId> ids = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(ids.add(first.next()));
+            assertTrue(ids.add(second.next()));
+        }
+        assertNotEquals(first.next().high(), second.next().high());
+    }
+}
@@ -0,0 +1,109 @@
+package com.calc.rest.pending;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("PendingRequestTable Tests")
+class PendingRequestTableTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timeout", 5, 64);
+
+    @AfterEach
+    void tearDown() {
+        timer.close();
+    }
+
+    @Test
+    @DisplayName("Registered request should be claimed exactly once")
+    void testRegisterAndRemove() {
+        PendingRequestTable<String> table = new PendingRequestTable<>(timer, 1000);
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        assertTrue(table.register(1L, 2L, future, 5000, () -> "timeout"));
+        assertEquals(1, table.size());
+
+        assertSame(future, table.remove(1L, 2L));
+        assertNull(table.remove(1L, 2L), "Second reply is a duplicate");
+        assertEquals(0, table.size());
+        assertEquals(1, table.getLateReplies());
+    }
+
+    @Test
+    @DisplayName("Unclaimed request should be completed by the timer")
+    void testExpiry() throws Exception {
+        PendingRequestTable<String> table = new PendingRequestTable<>(timer, 1000);
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        table.register(1L, 2L, future, 20, () -> "timeout");
+
+        assertEquals("timeout", future.get(1, TimeUnit.SECONDS));
+        assertEquals(1, table.getExpirations());
+        assertEquals(0, table.size());
+        assertNull(table.remove(1L, 2L), "Reply after expiry is late");
+        assertEquals(1, table.getLateReplies());
+    }
+
+    @Test
+    @DisplayName("Claimed request should not be expired afterwards")
+    void testNoExpiryAfterRemoval() throws Exception {
+        PendingRequestTable<String> table = new PendingRequestTable<>(timer, 1000);
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        table.register(1L, 2L, future, 20, () -> "timeout");
+        table.remove(1L, 2L).complete("reply");
+        Thread.sleep(60);
+
+        assertEquals("reply", future.getNow(null));
+        assertEquals(0, table.getExpirations());
+    }
+
+    @Test
+    @DisplayName("Table should reject requests beyond its bound")
+    void testBounded() {
+        PendingRequestTable<String> table = new PendingRequestTable<>(timer, 64);
+
+        int accepted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (table.register(0L, i, new CompletableFuture<>(), 5000, () -> "timeout")) {
+                accepted++;
+            }
+        }
+
+        assertTrue(accepted <= 64, "Accepted " + accepted);
+        assertEquals(1000 - accepted, table.getRejections());
+        assertFalse(table.register(0L, 0L, new CompletableFuture<>(), 5000, () -> "timeout"));
+    }
+
+    @Test
+    @DisplayName("Many entries should survive growth and removals in any order")
+    void testManyEntries() {
+        PendingRequestTable<Integer> table = new PendingRequestTable<>(timer, 100_000);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            futures.add(future);
+            assertTrue(table.register(42L, i, future, 60_000, () -> -1));
+        }
+
+        // Remove every other entry first, then the rest, to exercise backward-shift deletion
+        for (int i = 0; i < 10_000; i += 2) {
+            assertSame(futures.get(i), table.remove(42L, i));
+        }
+        for (int i = 1; i < 10_000; i += 2) {
+            assertSame(futures.get(i), table.remove(42L, i));
+        }
+        assertEquals(0, table.size());
+        assertEquals(0, table.getLateReplies());
+    }
+}
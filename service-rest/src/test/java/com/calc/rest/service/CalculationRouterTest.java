@@ -0,0 +1,204 @@
+package com.calc.rest.service;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.ArrayCalculationResponse;
+import com.calc.rest.dto.BatchCalculationResponse;
+import com.calc.rest.dto.BatchItem;
+import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.MatrixData;
+import com.calc.rest.id.TimeOrderedRequestIdGenerator;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CalculationRouter Tests")
+class CalculationRouterTest {
+
+    @Mock
+    private CalculatorKafkaService kafkaService;
+
+    private CalculationRouter router;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        router = new CalculationRouter();
+        set("kafkaService", kafkaService);
+        set("localService", new LocalCalculationService(new TimeOrderedRequestIdGenerator()));
+    }
+
+    @Test
+    @DisplayName("Requests should go through Kafka by default")
+    void testDefaultRouteIsKafka() {
+        CompletableFuture<CalculationResponse> pending = new CompletableFuture<>();
+        when(kafkaService.performCalculationAsync(1.0, 2.0, "add")).thenReturn(pending);
+
+        assertSame(pending, router.performCalculationAsync(1.0, 2.0, "add"));
+    }
+
+    @Test
+    @DisplayName("Endpoints listed as local should be calculated in-process")
+    void testLocalEndpoint() throws Exception {
+        set("localEndpoints", Set.of("add"));
+
+        CalculationResponse response = router.performCalculationAsync(1.0, 2.0, "add").join();
+
+        assertTrue(response.isSuccess());
+        assertEquals(3.0, response.getResult());
+        assertNotNull(response.getRequestId());
+        verifyNoInteractions(kafkaService);
+    }
+
+    @Test
+    @DisplayName("Local errors should carry the same codes as Kafka replies")
+    void testLocalErrorCode() throws Exception {
+        set("defaultRoute", "local");
+
+        CalculationResponse response = router.performCalculationAsync(1.0, 0.0, "div").join();
+
+        assertFalse(response.isSuccess());
+        assertEquals(ErrorCodes.DIVISION_BY_ZERO, response.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Decimal requests should be exact on the local route")
+    void testLocalDecimal() throws Exception {
+        set("defaultRoute", "local");
+
+        CalculationResponse response = router.performCalculationAsync(new BigDecimal("0.1"), new BigDecimal("0.2"), "add").join();
+
+        assertTrue(response.isSuccess());
+        assertEquals("0.3", response.getDecimalResult());
+        assertEquals(ErrorCodes.INEXACT_RESULT, new LocalCalculationService(new TimeOrderedRequestIdGenerator(), 0, RoundingMode.HALF_EVEN, 0, -1, true)
+            .calculate(BigDecimal.ONE, new BigDecimal("3"), "div").getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Double arithmetic should send doubles through Kafka")
+    void testDoubleArithmetic() throws Exception {
+        set("arithmetic", "double");
+        CompletableFuture<CalculationResponse> pending = new CompletableFuture<>();
+        when(kafkaService.performCalculationAsync(0.1, 0.2, "add")).thenReturn(pending);
+
+        assertSame(pending, router.performCalculationAsync(new BigDecimal("0.1"), new BigDecimal("0.2"), "add"));
+    }
+
+    @Test
+    @DisplayName("Expressions should be evaluated in-process when eval is local")
+    void testLocalEvaluation() throws Exception {
+        set("localEndpoints", Set.of("eval"));
+
+        CalculationResponse response = router.performEvaluationAsync("(a + b) * c / d", Map.of("a", 1.0, "b", 2.0, "c", 3.0, "d", 4.0)).join();
+
+        assertTrue(response.isSuccess());
+        assertEquals(2.25, response.getResult());
+        assertEquals(ErrorCodes.INVALID_EXPRESSION, router.performEvaluationAsync("(a +", Map.of()).join().getErrorCode());
+        assertEquals(ErrorCodes.UNBOUND_VARIABLE, router.performEvaluationAsync("a / b", Map.of("a", 1.0)).join().getErrorCode());
+        verifyNoInteractions(kafkaService);
+    }
+
+    @Test
+    @DisplayName("Arrays should be calculated in-process when array is local")
+    void testLocalArray() throws Exception {
+        set("localEndpoints", Set.of("array"));
+
+        ArrayCalculationResponse response = router.performArrayAsync("div", new double[] {3.0, 1.0, -8.0}, new double[] {2.0, 0.0, 4.0}).join();
+
+        assertTrue(response.isSuccess());
+        assertArrayEquals(new double[] {1.5, Double.NaN, -2.0}, response.getResults());
+        assertArrayEquals(new int[] {1}, response.getDivisionByZero());
+        assertNotNull(response.getRequestId());
+        assertEquals(ErrorCodes.DIMENSION_MISMATCH,
+            router.performArrayAsync("add", new double[2], new double[3]).join().getErrorCode());
+        verifyNoInteractions(kafkaService);
+    }
+
+    @Test
+    @DisplayName("Matrices should be calculated in-process when matrix is local")
+    void testLocalMatrix() throws Exception {
+        set("localEndpoints", Set.of("matrix"));
+
+        MatrixCalculationResponse response = router.performMatrixAsync("mul",
+            new MatrixData(2, 2, new double[] {1.0, 2.0, 3.0, 4.0}), new MatrixData(2, 1, new double[] {5.0, 6.0})).join();
+
+        assertTrue(response.isSuccess());
+        assertEquals(2, response.getResult().getRows());
+        assertEquals(1, response.getResult().getCols());
+        assertArrayEquals(new double[] {17.0, 39.0}, response.getResult().getData());
+        assertNotNull(response.getRequestId());
+        assertEquals(ErrorCodes.DIMENSION_MISMATCH, router.performMatrixAsync("mul",
+            new MatrixData(1, 2, new double[2]), new MatrixData(3, 1, new double[3])).join().getErrorCode());
+        verifyNoInteractions(kafkaService);
+    }
+
+    @Test
+    @DisplayName("Kafka overrides should win over a local default")
+    void testKafkaOverride() throws Exception {
+        set("defaultRoute", "local");
+        set("kafkaEndpoints", Set.of("batch"));
+        List<BatchItem> items = List.of(new BatchItem("add", 1.0, 2.0));
+        when(kafkaService.performBatchAsync(items)).thenReturn(new CompletableFuture<>());
+
+        router.performBatchAsync(items);
+
+        verify(kafkaService).performBatchAsync(items);
+    }
+
+    @Test
+    @DisplayName("Local batch should return one result per item, in order")
+    void testLocalBatch() throws Exception {
+        set("defaultRoute", "local");
+
+        BatchCalculationResponse response = router.performBatchAsync(List.of(
+            new BatchItem("mul", 2.0, 3.0), new BatchItem("mod", 1.0, 2.0))).join();
+
+        assertTrue(response.isSuccess());
+        assertEquals(6.0, response.getResults().get(0).getResult());
+        assertEquals(ErrorCodes.UNSUPPORTED_OPERATION, response.getResults().get(1).getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Invalid routing configuration should be rejected")
+    void testInvalidConfiguration() throws Exception {
+        set("defaultRoute", "remote");
+        assertThrows(IllegalStateException.class, router::validateRoutes);
+
+        set("defaultRoute", "kafka");
+        set("localEndpoints", Set.of("add"));
+        set("kafkaEndpoints", Set.of("add"));
+        assertThrows(IllegalStateException.class, router::validateRoutes);
+
+        set("kafkaEndpoints", Set.of());
+        set("arithmetic", "float");
+        assertThrows(IllegalStateException.class, router::validateRoutes);
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = CalculationRouter.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(router, value);
+    }
+}
@@ -1,29 +1,62 @@
 package com.calc.rest.service;
 
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
 
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.admission.ConcurrencyLimiter;
+import com.calc.rest.cache.ResultCache;
+import com.calc.rest.codec.HopTimestamps;
+import com.calc.rest.dto.ArrayCalculationRequest;
+import com.calc.rest.dto.ArrayCalculationResponse;
+import com.calc.rest.dto.BatchCalculationRequest;
+import com.calc.rest.dto.BatchCalculationResponse;
+import com.calc.rest.dto.BatchItem;
 import com.calc.rest.dto.CalculationRequest;
 import com.calc.rest.dto.CalculationResponse;
+import com.calc.rest.dto.ExpressionRequest;
+import com.calc.rest.dto.LatencyBreakdown;
+import com.calc.rest.dto.MatrixCalculationRequest;
+import com.calc.rest.dto.MatrixCalculationResponse;
+import com.calc.rest.dto.MatrixData;
+import com.calc.rest.dto.RestErrorCodes;
+import com.calc.rest.id.RequestId;
+import com.calc.rest.id.TimeOrderedRequestIdGenerator;
+import com.calc.rest.metrics.CalculationMetrics;
+import com.calc.rest.pending.PendingRequestTable;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("CalculatorKafkaService Tests")
@@ -32,8 +65,22 @@ class CalculatorKafkaServiceTest {
     @Mock
     private KafkaTemplate<String, CalculationRequest> kafkaTemplate;
     
+    @Mock
+    private KafkaTemplate<String, BatchCalculationRequest> batchKafkaTemplate;
+    
+    @Mock
+    private KafkaTemplate<String, ExpressionRequest> expressionKafkaTemplate;
+    
+    @Mock
+    private KafkaTemplate<String, ArrayCalculationRequest> arrayKafkaTemplate;
+    
+    @Mock
+    private KafkaTemplate<String, MatrixCalculationRequest> matrixKafkaTemplate;
+    
     private CalculatorKafkaService calculatorKafkaService;
     
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
     @BeforeEach
     void setUp() {
         calculatorKafkaService = new CalculatorKafkaService();
@@ -43,50 +90,129 @@ class CalculatorKafkaServiceTest {
             Field kafkaField = CalculatorKafkaService.class.getDeclaredField("kafkaTemplate");
             kafkaField.setAccessible(true);
             kafkaField.set(calculatorKafkaService, kafkaTemplate);
+            
+            Field batchKafkaField = CalculatorKafkaService.class.getDeclaredField("batchKafkaTemplate");
+            batchKafkaField.setAccessible(true);
+            batchKafkaField.set(calculatorKafkaService, batchKafkaTemplate);
+            
+            Field expressionKafkaField = CalculatorKafkaService.class.getDeclaredField("expressionKafkaTemplate");
+            expressionKafkaField.setAccessible(true);
+            expressionKafkaField.set(calculatorKafkaService, expressionKafkaTemplate);
+            
+            Field arrayKafkaField = CalculatorKafkaService.class.getDeclaredField("arrayKafkaTemplate");
+            arrayKafkaField.setAccessible(true);
+            arrayKafkaField.set(calculatorKafkaService, arrayKafkaTemplate);
+            
+            Field matrixKafkaField = CalculatorKafkaService.class.getDeclaredField("matrixKafkaTemplate");
+            matrixKafkaField.setAccessible(true);
+            matrixKafkaField.set(calculatorKafkaService, matrixKafkaTemplate);
+            
+            Field replyField = CalculatorKafkaService.class.getDeclaredField("replyDestination");
+            replyField.setAccessible(true);
+            replyField.set(calculatorKafkaService, new ReplyDestination("test-instance"));
+            
+            Field idField = CalculatorKafkaService.class.getDeclaredField("requestIdGenerator");
+            idField.setAccessible(true);
+            idField.set(calculatorKafkaService, new TimeOrderedRequestIdGenerator());
+            
+            // Cache disabled unless a test turns it on
+            injectCache(new ResultCache(0, 0));
+            injectLimiter(new ConcurrencyLimiter("adaptive", 200, 20, 10000, 2.0));
+            injectBulkLimiter(new ConcurrencyLimiter("fixed", 64, 64, 64, 1.0));
+            
+            Field metricsField = CalculatorKafkaService.class.getDeclaredField("metrics");
+            metricsField.setAccessible(true);
+            metricsField.set(calculatorKafkaService, new CalculationMetrics(meterRegistry));
         } catch (NoSuchFieldException | IllegalAccessException e) {
-            fail("Failed to inject mock KafkaTemplate: " + e.getMessage());
+            fail("Failed to inject test dependencies: " + e.getMessage());
         }
     }
     
+    private void injectCache(ResultCache cache) throws NoSuchFieldException, IllegalAccessException {
+        Field cacheField = CalculatorKafkaService.class.getDeclaredField("resultCache");
+        cacheField.setAccessible(true);
+        cacheField.set(calculatorKafkaService, cache);
+    }
+    
+    private void injectLimiter(ConcurrencyLimiter limiter) throws NoSuchFieldException, IllegalAccessException {
+        Field limiterField = CalculatorKafkaService.class.getDeclaredField("concurrencyLimiter");
+        limiterField.setAccessible(true);
+        limiterField.set(calculatorKafkaService, limiter);
+    }
+    
+    private void injectBulkLimiter(ConcurrencyLimiter limiter) throws NoSuchFieldException, IllegalAccessException {
+        Field limiterField = CalculatorKafkaService.class.getDeclaredField("bulkConcurrencyLimiter");
+        limiterField.setAccessible(true);
+        limiterField.set(calculatorKafkaService, limiter);
+    }
+    
+    // The raw correlation id the calculator would echo back
+    private static byte[] correlationIdOf(ProducerRecord<?, ?> record) {
+        return record.headers().lastHeader(KafkaHeaders.CORRELATION_ID).value();
+    }
+    
     @Test
     @DisplayName("Handle valid calculation response should complete future")
     void testHandleValidCalculationResponse() throws Exception {
         // Given
-        String requestId = "test-123";
+        RequestId id = new RequestId(1L, 2L);
         Double result = 8.0;
-        CalculationResponse response = new CalculationResponse(requestId, result);
-        
-        // Manually add to pending requests using reflection
-        Field pendingField = CalculatorKafkaService.class.getDeclaredField("pendingRequests");
-        pendingField.setAccessible(true);
-        @SuppressWarnings("unchecked")
-        ConcurrentHashMap<String, CompletableFuture<CalculationResponse>> pendingRequests = 
-            (ConcurrentHashMap<String, CompletableFuture<CalculationResponse>>) pendingField.get(calculatorKafkaService);
+        CalculationResponse response = new CalculationResponse(null, result);
         
+        // Manually register a pending request
+        PendingRequestTable<CalculationResponse> pendingRequests = calculatorKafkaService.getPendingRequests();
         CompletableFuture<CalculationResponse> testFuture = new CompletableFuture<>();
-        pendingRequests.put(requestId, testFuture);
+        pendingRequests.register(id.high(), id.low(), testFuture, 5000,
+            () -> new CalculationResponse(id.toString(), RestErrorCodes.TIMEOUT));
         
         // When
-        calculatorKafkaService.handleCalculationResponse(response);
+        calculatorKafkaService.handleCalculationResponse(response, id.toBytes(), null, null);
         
         // Then
         CalculationResponse completedResponse = testFuture.get(1, TimeUnit.SECONDS);
-        assertEquals(requestId, completedResponse.getRequestId());
+        assertEquals(id.toString(), completedResponse.getRequestId(), "Id should be rendered from the header");
         assertEquals(result, completedResponse.getResult());
         
         // Verify the request was removed from pending requests
-        assertFalse(pendingRequests.containsKey(requestId));
+        assertEquals(0, pendingRequests.size());
     }
     
     @Test
     @DisplayName("Handle response for non-existent request should not throw exception")
     void testHandleResponseForNonExistentRequest() {
         // Given
-        String requestId = "non-existent-123";
-        CalculationResponse response = new CalculationResponse(requestId, 42.0);
+        CalculationResponse response = new CalculationResponse(null, 42.0);
         
         // When & Then - should not throw exception
-        assertDoesNotThrow(() -> calculatorKafkaService.handleCalculationResponse(response));
+        assertDoesNotThrow(() -> calculatorKafkaService.handleCalculationResponse(response, new RequestId(7L, 7L).toBytes(), null, null));
+        assertDoesNotThrow(() -> calculatorKafkaService.handleCalculationResponse(response, null, null, null));
+        assertEquals(2, calculatorKafkaService.getPendingRequests().getLateReplies());
+    }
+    
+    @Test
+    @DisplayName("Reply arriving after the timeout should be counted as late")
+    void testLateReplyCounted() throws Exception {
+        // Given
+        Field timeoutField = CalculatorKafkaService.class.getDeclaredField("requestTimeoutMs");
+        timeoutField.setAccessible(true);
+        timeoutField.set(calculatorKafkaService, 20L);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        CalculationResponse timedOut = calculatorKafkaService.performCalculationAsync(2.0, 3.0, "add")
+            .get(1, TimeUnit.SECONDS);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        
+        // When
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 5.0), correlationIdOf(captor.getValue()), null, null);
+        
+        // Then
+        PendingRequestTable<CalculationResponse> pendingRequests = calculatorKafkaService.getPendingRequests();
+        assertEquals(RestErrorCodes.TIMEOUT, timedOut.getErrorCode());
+        assertEquals(1, pendingRequests.getExpirations());
+        assertEquals(1, pendingRequests.getLateReplies());
+        assertEquals(0, pendingRequests.size());
     }
     
     @Test
@@ -98,7 +224,7 @@ class CalculatorKafkaServiceTest {
         String operation = "add";
         
         // Mock Kafka send to throw exception
-        when(kafkaTemplate.send(anyString(), anyString(), any(CalculationRequest.class)))
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
             .thenThrow(new RuntimeException("Kafka connection failed"));
         
         // When
@@ -107,6 +233,440 @@ class CalculatorKafkaServiceTest {
         // Then
         assertNotNull(result);
         assertNotNull(result.getRequestId());
-        assertTrue(result.getErrorMessage().contains("Kafka connection failed"));
+        assertFalse(result.isSuccess());
+        assertEquals(RestErrorCodes.TRANSPORT_ERROR, result.getErrorCode());
+    }
+    
+    @Test
+    @DisplayName("Async calculation should return without waiting for the reply")
+    void testAsyncCalculationCompletedByListener() throws Exception {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        // When
+        CompletableFuture<CalculationResponse> future = calculatorKafkaService.performCalculationAsync(2.0, 3.0, "add");
+        assertFalse(future.isDone(), "Future should still be pending until the reply arrives");
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 5.0), correlationIdOf(captor.getValue()), null, null);
+        
+        // Then
+        CalculationResponse response = future.get(1, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertEquals(5.0, response.getResult());
+    }
+    
+    @Test
+    @DisplayName("Async calculation should time out without a blocked caller")
+    void testAsyncCalculationTimeout() throws Exception {
+        // Given
+        Field timeoutField = CalculatorKafkaService.class.getDeclaredField("requestTimeoutMs");
+        timeoutField.setAccessible(true);
+        timeoutField.set(calculatorKafkaService, 50L);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        // When
+        CalculationResponse response = calculatorKafkaService.performCalculationAsync(2.0, 3.0, "add")
+            .get(1, TimeUnit.SECONDS);
+        
+        // Then
+        assertFalse(response.isSuccess());
+        assertEquals(RestErrorCodes.TIMEOUT, response.getErrorCode());
+    }
+    
+    @Test
+    @DisplayName("Request should advertise this instance's reply topic")
+    void testRequestCarriesReplyTopic() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        // When
+        calculatorKafkaService.performCalculationAsync(1.0, 2.0, "add");
+        
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        Header header = captor.getValue().headers().lastHeader(KafkaHeaders.REPLY_TOPIC);
+        assertNotNull(header, "Reply topic header should be present");
+        assertEquals("calculation-responses-test-instance", new String(header.value(), StandardCharsets.UTF_8));
+        assertEquals(RequestId.BYTES, correlationIdOf(captor.getValue()).length, "Id should travel as raw bytes");
+        assertNull(captor.getValue().value().getRequestId(), "Id should not be rendered into the payload");
+    }
+    
+    @Test
+    @DisplayName("Batch reply should complete the pending batch with per-item results")
+    void testBatchCompletedByListener() throws Exception {
+        // Given
+        when(batchKafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        List<BatchItem> items = List.of(new BatchItem("add", 1.0, 2.0), new BatchItem("div", 1.0, 0.0));
+        
+        // When
+        CompletableFuture<BatchCalculationResponse> future = calculatorKafkaService.performBatchAsync(items);
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, BatchCalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(batchKafkaTemplate).send(captor.capture());
+        BatchCalculationRequest sent = captor.getValue().value();
+        assertEquals(2, sent.getItems().size());
+        
+        calculatorKafkaService.handleBatchCalculationResponse(new BatchCalculationResponse(null, List.of(
+            new CalculationResponse(null, 3.0),
+            new CalculationResponse(null, ErrorCodes.DIVISION_BY_ZERO))), correlationIdOf(captor.getValue()), null, null);
+        
+        // Then
+        BatchCalculationResponse response = future.get(1, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertEquals(RequestId.fromBytes(correlationIdOf(captor.getValue())).toString(), response.getRequestId());
+        assertEquals(3.0, response.getResults().get(0).getResult());
+        assertFalse(response.getResults().get(1).isSuccess());
+        assertEquals(ErrorCodes.DIVISION_BY_ZERO, response.getResults().get(1).getErrorCode());
+    }
+    
+    @Test
+    @DisplayName("Expression should be sent whole and completed by the calculation reply listener")
+    void testEvaluationCompletedByListener() throws Exception {
+        // Given
+        when(expressionKafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        // When
+        CompletableFuture<CalculationResponse> future =
+            calculatorKafkaService.performEvaluationAsync("(a + b) * c", Map.of("a", 1.0, "b", 2.0, "c", 3.0));
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, ExpressionRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(expressionKafkaTemplate).send(captor.capture());
+        assertEquals("calculation-expression-requests", captor.getValue().topic());
+        assertEquals("(a + b) * c", captor.getValue().value().getExpression());
+        assertEquals(3.0, captor.getValue().value().getVariables().get("c"));
+        assertEquals("calculation-responses-test-instance",
+            new String(captor.getValue().headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value(), StandardCharsets.UTF_8));
+        
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 9.0), correlationIdOf(captor.getValue()), null, null);
+        
+        // Then
+        CalculationResponse response = future.get(1, TimeUnit.SECONDS);
+        assertEquals(9.0, response.getResult());
+        assertEquals(RequestId.fromBytes(correlationIdOf(captor.getValue())).toString(), response.getRequestId());
+        assertEquals(1, meterRegistry.get("calculator.round.trip").tag("operation", "eval").tag("outcome", "success").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Array operation should travel on its own topics and be completed by the array reply listener")
+    void testArrayCompletedByListener() throws Exception {
+        // Given
+        when(arrayKafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        double[] dividends = {3.0, 1.0};
+        double[] divisors = {2.0, 0.0};
+        
+        // When
+        CompletableFuture<ArrayCalculationResponse> future = calculatorKafkaService.performArrayAsync("div", dividends, divisors);
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, ArrayCalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(arrayKafkaTemplate).send(captor.capture());
+        assertEquals("calculation-array-requests", captor.getValue().topic());
+        assertEquals("calculation-array-responses-test-instance",
+            new String(captor.getValue().headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value(), StandardCharsets.UTF_8));
+        assertEquals("div", captor.getValue().value().getOp());
+        
+        calculatorKafkaService.handleArrayCalculationResponse(new ArrayCalculationResponse(null, new double[] {1.5, Double.NaN}, new int[] {1}),
+            correlationIdOf(captor.getValue()), null, null);
+        
+        // Then
+        ArrayCalculationResponse response = future.get(1, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertEquals(RequestId.fromBytes(correlationIdOf(captor.getValue())).toString(), response.getRequestId());
+        assertArrayEquals(new double[] {1.5, Double.NaN}, response.getResults());
+        assertArrayEquals(new int[] {1}, response.getDivisionByZero());
+        assertEquals(0, calculatorKafkaService.getPendingArrays().size());
+        assertEquals(1, meterRegistry.get("calculator.round.trip").tag("operation", "array").tag("outcome", "success").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Matrix operation should travel on its own topics and be completed by the matrix reply listener")
+    void testMatrixCompletedByListener() throws Exception {
+        // Given
+        when(matrixKafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        MatrixData a = new MatrixData(1, 2, new double[] {1.0, 2.0});
+        MatrixData b = new MatrixData(2, 1, new double[] {3.0, 4.0});
+        
+        // When
+        CompletableFuture<MatrixCalculationResponse> future = calculatorKafkaService.performMatrixAsync("mul", a, b);
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, MatrixCalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(matrixKafkaTemplate).send(captor.capture());
+        assertEquals("calculation-matrix-requests", captor.getValue().topic());
+        assertEquals("calculation-matrix-responses-test-instance",
+            new String(captor.getValue().headers().lastHeader(KafkaHeaders.REPLY_TOPIC).value(), StandardCharsets.UTF_8));
+        assertEquals("mul", captor.getValue().value().getOp());
+        assertEquals(2, captor.getValue().value().getOp2().getRows());
+        
+        calculatorKafkaService.handleMatrixCalculationResponse(new MatrixCalculationResponse(null, new MatrixData(1, 1, new double[] {11.0})),
+            correlationIdOf(captor.getValue()), null, null);
+        
+        // Then
+        MatrixCalculationResponse response = future.get(1, TimeUnit.SECONDS);
+        assertTrue(response.isSuccess());
+        assertEquals(RequestId.fromBytes(correlationIdOf(captor.getValue())).toString(), response.getRequestId());
+        assertArrayEquals(new double[] {11.0}, response.getResult().getData());
+        assertEquals(0, calculatorKafkaService.getPendingMatrices().size());
+        assertEquals(1, meterRegistry.get("calculator.round.trip").tag("operation", "matrix").tag("outcome", "success").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Repeated calculation should be answered from the cache without Kafka")
+    void testCachedCalculationSkipsKafka() throws Exception {
+        // Given
+        ResultCache cache = new ResultCache(100, 0);
+        injectCache(cache);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        CompletableFuture<CalculationResponse> first = calculatorKafkaService.performCalculationAsync(1.0, 0.0, "div");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        String firstId = RequestId.fromBytes(correlationIdOf(captor.getValue())).toString();
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, ErrorCodes.DIVISION_BY_ZERO),
+            correlationIdOf(captor.getValue()), null, null);
+        first.get(1, TimeUnit.SECONDS);
+        
+        // When
+        CompletableFuture<CalculationResponse> second = calculatorKafkaService.performCalculationAsync(1.0, 0.0, "div");
+        
+        // Then
+        assertTrue(second.isDone(), "Cached result should be returned immediately");
+        CalculationResponse response = second.get();
+        assertEquals(ErrorCodes.DIVISION_BY_ZERO, response.getErrorCode());
+        assertNotNull(response.getRequestId());
+        assertNotEquals(firstId, response.getRequestId(), "Every call keeps its own request id");
+        verify(kafkaTemplate, times(1)).send(any(ProducerRecord.class));
+        assertEquals(1, cache.getHits());
+    }
+    
+    @Test
+    @DisplayName("Identical concurrent calculations should share one Kafka request")
+    void testIdenticalRequestsCoalesced() throws Exception {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        // When
+        CompletableFuture<CalculationResponse> leader = calculatorKafkaService.performCalculationAsync(4.0, 2.0, "div");
+        CompletableFuture<CalculationResponse> follower = calculatorKafkaService.performCalculationAsync(4.0, 2.0, "div");
+        CompletableFuture<CalculationResponse> other = calculatorKafkaService.performCalculationAsync(4.0, 2.0, "mul");
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(captor.capture());
+        byte[] leaderCorrelationId = correlationIdOf(captor.getAllValues().get(0));
+        String leaderId = RequestId.fromBytes(leaderCorrelationId).toString();
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 2.0), leaderCorrelationId, null, null);
+        
+        // Then
+        CalculationResponse leaderResponse = leader.get(1, TimeUnit.SECONDS);
+        CalculationResponse followerResponse = follower.get(1, TimeUnit.SECONDS);
+        assertEquals(2.0, leaderResponse.getResult());
+        assertEquals(2.0, followerResponse.getResult());
+        assertEquals(leaderId, leaderResponse.getRequestId());
+        assertNotNull(followerResponse.getRequestId());
+        assertNotEquals(leaderId, followerResponse.getRequestId(), "Followers keep their own request id");
+        assertFalse(other.isDone(), "Different operations are not coalesced");
+    }
+    
+    @Test
+    @DisplayName("Decimal calculation should carry exact operands and share the decimal result")
+    void testDecimalCalculation() throws Exception {
+        // Given
+        injectCache(new ResultCache(100, 0));
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        // When
+        CompletableFuture<CalculationResponse> leader = calculatorKafkaService.performCalculationAsync(
+            new BigDecimal("0.1"), new BigDecimal("0.2"), "add");
+        CompletableFuture<CalculationResponse> follower = calculatorKafkaService.performCalculationAsync(
+            new BigDecimal("0.10"), new BigDecimal("0.2"), "add");
+        CompletableFuture<CalculationResponse> doubles = calculatorKafkaService.performCalculationAsync(0.1, 0.2, "add");
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(captor.capture());
+        CalculationRequest sent = captor.getAllValues().get(0).value();
+        assertEquals("0.1", sent.getDecimalOperand1());
+        assertEquals("0.2", sent.getDecimalOperand2());
+        assertEquals(0.1, sent.getOperand1(), "Doubles should stay for calculators without decimals");
+        assertNull(captor.getAllValues().get(1).value().getDecimalOperand1());
+        
+        CalculationResponse reply = new CalculationResponse(null, 0.3);
+        reply.setDecimalResult("0.3");
+        calculatorKafkaService.handleCalculationResponse(reply, correlationIdOf(captor.getAllValues().get(0)), null, null);
+        
+        // Then
+        assertEquals("0.3", leader.get(1, TimeUnit.SECONDS).getDecimalResult());
+        assertEquals("0.3", follower.get(1, TimeUnit.SECONDS).getDecimalResult(), "Followers should get the decimal result too");
+        assertFalse(doubles.isDone(), "Double calculations should not share decimal results");
+        CompletableFuture<CalculationResponse> cached = calculatorKafkaService.performCalculationAsync(
+            new BigDecimal("0.1"), new BigDecimal("0.2"), "add");
+        assertTrue(cached.isDone());
+        assertEquals("0.3", cached.get().getDecimalResult());
+    }
+    
+    @Test
+    @DisplayName("Requests over the admission limit should be shed without reaching Kafka")
+    void testRequestsOverLimitShed() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("fixed", 1, 1, 1, 2.0);
+        injectLimiter(limiter);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        CompletableFuture<CalculationResponse> admitted = calculatorKafkaService.performCalculationAsync(1.0, 2.0, "add");
+        
+        // When
+        CompletableFuture<CalculationResponse> shed = calculatorKafkaService.performCalculationAsync(3.0, 4.0, "add");
+        
+        // Then
+        assertTrue(shed.isDone(), "Shed request should be answered immediately");
+        assertEquals(RestErrorCodes.OVERLOADED, shed.get().getErrorCode());
+        assertEquals(1, limiter.getShed());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(1)).send(captor.capture());
+        
+        // The reply frees the slot again
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 3.0), correlationIdOf(captor.getValue()), null, null);
+        admitted.get(1, TimeUnit.SECONDS);
+        assertEquals(0, limiter.getInFlight());
+        assertFalse(calculatorKafkaService.performCalculationAsync(3.0, 4.0, "add").isDone());
+    }
+    
+    @Test
+    @DisplayName("Slow matrix round trips should neither lower nor use up the limit of single operations")
+    void testMatrixTrafficDoesNotShedSingleOperations() throws Exception {
+        // Given
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("adaptive", 100, 1, 1000, 2.0);
+        ConcurrencyLimiter bulkLimiter = new ConcurrencyLimiter("fixed", 1, 1, 1, 1.0);
+        injectLimiter(limiter);
+        injectBulkLimiter(bulkLimiter);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        when(matrixKafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> singleCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, MatrixCalculationRequest>> matrixCaptor = ArgumentCaptor.forClass(ProducerRecord.class);
+        MatrixData a = new MatrixData(1, 1, new double[] {2.0});
+        
+        // A fast single round trip sets the baseline
+        CompletableFuture<CalculationResponse> single = calculatorKafkaService.performCalculationAsync(1.0, 2.0, "add");
+        verify(kafkaTemplate).send(singleCaptor.capture());
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 3.0), correlationIdOf(singleCaptor.getValue()), null, null);
+        single.get(1, TimeUnit.SECONDS);
+        int limitBefore = limiter.getLimit();
+        
+        // When: a matrix reply a hundred times slower than any single one
+        CompletableFuture<MatrixCalculationResponse> matrix = calculatorKafkaService.performMatrixAsync("mul", a, a);
+        assertEquals(RestErrorCodes.OVERLOADED, calculatorKafkaService.performMatrixAsync("mul", a, a).get().getErrorCode(),
+            "Matrices are capped by the bulk limit");
+        assertEquals(0, limiter.getInFlight());
+        assertFalse(calculatorKafkaService.performCalculationAsync(3.0, 4.0, "add").isDone(), "Single operations are still admitted");
+        Thread.sleep(100);
+        verify(matrixKafkaTemplate).send(matrixCaptor.capture());
+        calculatorKafkaService.handleMatrixCalculationResponse(new MatrixCalculationResponse(null, new MatrixData(1, 1, new double[] {4.0})),
+            correlationIdOf(matrixCaptor.getValue()), null, null);
+        matrix.get(1, TimeUnit.SECONDS);
+        
+        // Then
+        assertEquals(limitBefore, limiter.getLimit(), "The adaptive estimate never saw the matrix round trip");
+        assertEquals(0, bulkLimiter.getInFlight());
+        assertEquals(1, bulkLimiter.getShed());
+        assertEquals(0, limiter.getShed());
+    }
+    
+    @Test
+    @DisplayName("Round trip and reply latency should be timed per operation")
+    void testRoundTripTimed() throws Exception {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        CompletableFuture<CalculationResponse> future = calculatorKafkaService.performCalculationAsync(6.0, 3.0, "div");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        
+        // When
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 2.0), correlationIdOf(captor.getValue()),
+            System.currentTimeMillis(), null);
+        future.get(1, TimeUnit.SECONDS);
+        
+        // Then
+        assertEquals(1, meterRegistry.get("calculator.round.trip").tag("operation", "div").tag("outcome", "success").timer().count());
+        assertEquals(0, meterRegistry.get("calculator.round.trip").tag("operation", "add").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("calculator.reply.latency").tag("type", "single").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Sampled request should carry hop timestamps and get a latency breakdown")
+    void testTracedRoundTrip() throws Exception {
+        // Given
+        Field sampleField = CalculatorKafkaService.class.getDeclaredField("traceSampleRate");
+        sampleField.setAccessible(true);
+        sampleField.set(calculatorKafkaService, 1.0);
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        CompletableFuture<CalculationResponse> future = calculatorKafkaService.performCalculationAsync(1.0, 2.0, "add");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        Header stamps = captor.getValue().headers().lastHeader(HopTimestamps.HEADER);
+        assertNotNull(stamps, "Sampled request should carry hop timestamps");
+        
+        // When: the calculator appends receive time (wall), compute and residence times
+        long sendWallMicros = ByteBuffer.wrap(stamps.value()).getLong();
+        byte[] hops = ByteBuffer.allocate(5 * Long.BYTES)
+            .put(stamps.value())
+            .putLong(sendWallMicros)
+            .putLong(1_000)
+            .putLong(5_000)
+            .array();
+        calculatorKafkaService.handleCalculationResponse(new CalculationResponse(null, 3.0), correlationIdOf(captor.getValue()),
+            null, hops);
+        
+        // Then
+        LatencyBreakdown breakdown = future.get(1, TimeUnit.SECONDS).getLatencyBreakdown();
+        assertNotNull(breakdown);
+        assertEquals(5_000, breakdown.calculatorNanos());
+        assertEquals(1_000, breakdown.computeNanos());
+        assertEquals(breakdown.totalNanos() - 5_000, breakdown.requestTransitNanos() + breakdown.replyTransitNanos());
+        assertEquals(1, meterRegistry.get("calculator.hop").tag("hop", "compute").tag("type", "single").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Unsampled request should carry no hop timestamps")
+    void testUntracedByDefault() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(new CompletableFuture<>());
+        
+        // When
+        calculatorKafkaService.performCalculationAsync(1.0, 2.0, "add");
+        
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<ProducerRecord<String, CalculationRequest>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        assertNull(captor.getValue().headers().lastHeader(HopTimestamps.HEADER));
     }
-}
\ No newline at end of file
+}
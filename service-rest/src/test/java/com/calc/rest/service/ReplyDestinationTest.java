@@ -0,0 +1,28 @@
+package com.calc.rest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ReplyDestination Tests")
+class ReplyDestinationTest {
+
+    @Test
+    @DisplayName("Topics and group should be named after the configured instance id")
+    void testNamesFollowInstanceId() {
+        ReplyDestination destination = new ReplyDestination("rest/1");
+
+        assertEquals("rest-1", destination.getInstanceId());
+        assertEquals("calculation-responses-rest-1", destination.getTopic());
+        assertEquals("calculation-matrix-responses-rest-1", destination.getMatrixTopic());
+        assertEquals("rest-service-rest-1", destination.getGroupId());
+    }
+
+    @Test
+    @DisplayName("A missing instance id should fail startup instead of creating throwaway topics")
+    void testMissingInstanceIdRejected() {
+        assertThrows(IllegalStateException.class, () -> new ReplyDestination(""));
+        assertThrows(IllegalStateException.class, () -> new ReplyDestination(null));
+    }
+}
@@ -0,0 +1,194 @@
+package com.calc.rest.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.calc.calculator.ErrorCodes;
+import com.calc.rest.dto.CalculationResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StreamingCalculationService Tests")
+class StreamingCalculationServiceTest {
+
+    @Mock
+    private CalculationRouter router;
+
+    private StreamingCalculationService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new StreamingCalculationService();
+        set("calculatorService", router);
+        set("objectMapper", new ObjectMapper());
+    }
+
+    @Test
+    @DisplayName("Ordered replies should follow the lines even when they complete out of order")
+    void testOrderedReplies() throws Exception {
+        when(router.performCalculationAsync(1.0, 2.0, "add")).thenReturn(CompletableFuture.supplyAsync(
+            () -> new CalculationResponse(null, 3.0), CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)));
+        when(router.performCalculationAsync(1.0, 0.0, "div"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse(null, ErrorCodes.DIVISION_BY_ZERO)));
+
+        String output = stream("{\"op\": \"add\", \"op1\": 1, \"op2\": 2}\n{\"op\": \"div\", \"op1\": 1, \"op2\": 0}\n", true);
+
+        assertEquals("3.0\nerror 1\n", output);
+    }
+
+    @Test
+    @DisplayName("Unordered replies should be written as they complete, with the index of their line")
+    void testUnorderedReplies() throws Exception {
+        when(router.performCalculationAsync(1.0, 2.0, "add")).thenReturn(CompletableFuture.supplyAsync(
+            () -> new CalculationResponse(null, 3.0), CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS)));
+        when(router.performCalculationAsync(4.0, 2.0, "div"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse(null, 2.0)));
+
+        String output = stream("{\"op\": \"add\", \"op1\": 1, \"op2\": 2}\n{\"op\": \"div\", \"op1\": 4, \"op2\": 2}", false);
+
+        assertEquals("1: 2.0\n0: 3.0\n", output);
+    }
+
+    @Test
+    @DisplayName("Malformed lines should get an error reply without ending the stream")
+    void testMalformedLines() throws Exception {
+        when(router.performCalculationAsync(2.0, 3.0, "mul"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse(null, 6.0)));
+        String tooLong = "{\"op\": \"" + "x".repeat(StreamingCalculationService.MAX_LINE_LENGTH) + "\"}";
+
+        String output = stream("not json\r\n\n{\"op\": \"add\"}\n" + tooLong + "\n{\"op\": \"mul\", \"op1\": 2, \"op2\": 3}\r\n", false);
+
+        assertEquals("0: Line must be an object with 'op', 'op1' and 'op2'.\n"
+            + "1: Line must be an object with 'op', 'op1' and 'op2'.\n"
+            + "2: Line must not be longer than 4096 bytes.\n"
+            + "3: 6.0\n", output, "Blank lines are skipped and take no index");
+    }
+
+    @Test
+    @DisplayName("No more items than the window should be in flight")
+    void testBoundedInFlight() throws Exception {
+        set("maxInFlight", 2);
+        List<CompletableFuture<CalculationResponse>> sent = new ArrayList<>();
+        when(router.performCalculationAsync(anyDouble(), anyDouble(), eq("add"))).thenAnswer(invocation -> {
+            CompletableFuture<CalculationResponse> reply = new CompletableFuture<>();
+            synchronized (sent) {
+                sent.add(reply);
+            }
+            return reply;
+        });
+        String input = "{\"op\": \"add\", \"op1\": 1, \"op2\": 1}\n".repeat(5);
+
+        CompletableFuture<String> output = CompletableFuture.supplyAsync(() -> {
+            try {
+                return stream(input, true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Thread.sleep(200);
+        synchronized (sent) {
+            assertEquals(2, sent.size(), "The reader waits for replies before sending more");
+        }
+        while (!output.isDone()) {
+            synchronized (sent) {
+                sent.forEach(reply -> reply.complete(new CalculationResponse(null, 2.0)));
+            }
+            Thread.sleep(10);
+        }
+
+        assertEquals("2.0\n".repeat(5), output.get(1, TimeUnit.SECONDS));
+        assertEquals(5, sent.size());
+        assertFalse(output.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("A client disconnecting mid-stream should stop the reader before the request ends")
+    void testClientDisconnect() throws Exception {
+        set("maxInFlight", 2);
+        AtomicReference<Thread> reader = new AtomicReference<>();
+        set("readerThreads", (ThreadFactory) task -> {
+            reader.set(new Thread(task));
+            return reader.get();
+        });
+        when(router.performCalculationAsync(1.0, 2.0, "add"))
+            .thenReturn(CompletableFuture.completedFuture(new CalculationResponse(null, 3.0)));
+        // An endless feed whose socket fails once the client has gone, as a servlet stream does
+        AtomicInteger reads = new AtomicInteger();
+        byte[] line = "{\"op\": \"add\", \"op1\": 1, \"op2\": 2}\n".getBytes(StandardCharsets.UTF_8);
+        AtomicBoolean disconnected = new AtomicBoolean();
+        InputStream in = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                reads.incrementAndGet();
+                if (disconnected.get()) {
+                    throw new IOException("Connection reset");
+                }
+                int n = Math.min(length, line.length);
+                System.arraycopy(line, 0, buffer, offset, n);
+                return n;
+            }
+        };
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                disconnected.set(true);
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThrows(IOException.class, () -> service.stream(in, out, true, (index, response) -> new byte[] {'x'}));
+
+        assertFalse(reader.get().isAlive(), "The reader has stopped before stream() returned");
+        int readsAtReturn = reads.get();
+        Thread.sleep(50);
+        assertEquals(readsAtReturn, reads.get(), "The request body is not touched after stream() returned");
+    }
+
+    private String stream(String input, boolean ordered) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.stream(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out, ordered, (index, response) -> {
+            String reply = response.isSuccess() ? String.valueOf(response.getResult())
+                : response.getErrorMessage() != null ? response.getErrorMessage() : "error " + response.getErrorCode();
+            return ((index != null ? index + ": " : "") + reply).getBytes(StandardCharsets.UTF_8);
+        });
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void set(String name, Object value) throws Exception {
+        Field field = StreamingCalculationService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}